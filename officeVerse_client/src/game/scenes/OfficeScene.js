@@ -122,6 +122,16 @@ export default class OfficeScene extends Phaser.Scene {
 
         this.physics.add.collider(this.player, collision);
 
+        // Respawn where this player left off, if the server has a position for them
+        fetch(`http://localhost:8080/game/player-position/${this.myPlayerId}`)
+            .then(res => (res.ok ? res.text() : ''))
+            .then(body => {
+                if (!body) return;
+                const pos = JSON.parse(body);
+                this.player.setPosition(pos.x, pos.y);
+            })
+            .catch(() => { /* keep the default spawn point */ });
+
         /* ---------------- CAMERA ---------------- */
         this.cameras.main.startFollow(this.player);
         this.cameras.main.setBounds(0, 0, map.widthInPixels, map.heightInPixels);
@@ -331,9 +341,25 @@ export default class OfficeScene extends Phaser.Scene {
     }
 
     handleNetwork(data) {
+        // Server snapshots batch one line per player per tick: "Snapshot:tick:baseTick" then Broadcast/Delta lines
+        const lines = data.split('\n');
+        let tick = null, baseTick = 0;
+        if (lines[0].startsWith('Snapshot:')) {
+            const header = lines.shift().split(':');
+            tick = Number(header[1]);
+            baseTick = Number(header[2]);
+        }
+        lines.forEach(line => this.handleNetworkLine(line, tick, baseTick));
+        // Acknowledge so the server can send deltas against this snapshot
+        if (tick !== null) sendMovement(`Ack:${tick}`);
+    }
+
+    handleNetworkLine(data, tick, baseTick) {
         try {
-            if (data.startsWith('PlayerLeft:')) { this.handlePlayerLeft(Number(data.split(':')[1])); return; }
+            // Leave: the player moved out of our area of interest
+            if (data.startsWith('PlayerLeft:') || data.startsWith('Leave:')) { this.handlePlayerLeft(Number(data.split(':')[1])); return; }
             const parts = data.split(':');
+            if (parts[0] === 'Delta') { this.handleDeltaLine(parts, tick, baseTick); return; }
             if (parts[0] !== 'Broadcast') return;
 
             let idx = 1;
@@ -341,46 +367,88 @@ export default class OfficeScene extends Phaser.Scene {
             const id = Number(parts[idx]);
             if (isNaN(id) || id === this.myPlayerId) return;
 
-            const x = Number(parts[idx + 1]);
-            const y = Number(parts[idx + 2]);
-            const name = parts[idx + 3];
-            const skin = parseInt(parts[idx + 4]);
-            const char = parts[idx + 5];
-            const anim = parts[idx + 6];
-            const flip = parts[idx + 7] === '1';
-
-            if (!this.otherPlayers[id]) {
-                const sprite = this.physics.add.sprite(x, y, this.characterConfigs[char]?.idle || 'Owlet_Monster_Idle');
-                sprite.body.setAllowGravity(false);
-                sprite.setScale(1.25);
-                sprite.setTint(skin);
-                sprite.characterType = char;
-                sprite.body.setSize(20, 20);
-                sprite.body.setOffset(6, 10);
-                sprite.play(`${char}_${anim}`, true);
-                sprite.setFlipX(flip);
-                sprite.setDepth(y);
-                const label = this.add.text(x, y - 40, name, { font: '14px Arial', fill: '#fff', stroke: '#000', strokeThickness: 3 }).setOrigin(0.5);
-                label.setDepth(y + 1000);
-                this.otherPlayers[id] = { sprite, label };
-            } else {
-                const p = this.otherPlayers[id];
-                if (p.sprite.active) {
-                    p.sprite.play(`${p.sprite.characterType}_${anim}`, true);
-                    p.sprite.setFlipX(flip);
-                    if (p.tween) p.tween.stop();
-                    p.tween = this.tweens.add({
-                        targets: [p.sprite, p.label], x: x, y: { value: y, duration: 100 },
-                        onUpdate: () => { p.sprite.setDepth(p.sprite.y); p.label.setPosition(p.sprite.x, p.sprite.y - 40); p.label.setDepth(p.sprite.y + 1000); }
-                    });
-                }
-            }
+            const state = {
+                x: Number(parts[idx + 1]),
+                y: Number(parts[idx + 2]),
+                name: parts[idx + 3],
+                skin: parseInt(parts[idx + 4]),
+                char: parts[idx + 5],
+                anim: parts[idx + 6],
+                flip: parts[idx + 7] === '1'
+            };
+            this.recordRemoteState(id, tick, state);
+            this.applyRemoteState(id, state);
         } catch (e) { console.error('Network err:', e); }
     }
 
+    // Delta:playerId:dx:dy:anim:flip relative to the player's latest state at or before baseTick
+    handleDeltaLine(parts, tick, baseTick) {
+        const id = Number(parts[1]);
+        if (isNaN(id) || id === this.myPlayerId) return;
+        const base = this.resolveRemoteState(id, baseTick);
+        if (!base) { sendMovement('Resync'); return; }
+
+        const state = {
+            ...base,
+            x: base.x + Number(parts[2]),
+            y: base.y + Number(parts[3]),
+            anim: parts[4] || base.anim,
+            flip: parts[5] ? parts[5] === '1' : base.flip
+        };
+        this.recordRemoteState(id, tick, state);
+        this.applyRemoteState(id, state);
+    }
+
+    recordRemoteState(id, tick, state) {
+        if (tick === null) return;
+        this.remoteStates = this.remoteStates || {};
+        const history = this.remoteStates[id] || (this.remoteStates[id] = []);
+        history.push({ tick, state });
+        if (history.length > 64) history.shift();
+    }
+
+    resolveRemoteState(id, baseTick) {
+        const history = this.remoteStates?.[id];
+        if (!history) return null;
+        for (let i = history.length - 1; i >= 0; i--) {
+            if (history[i].tick <= baseTick) return history[i].state;
+        }
+        return null;
+    }
+
+    applyRemoteState(id, { x, y, name, skin, char, anim, flip }) {
+        if (!this.otherPlayers[id]) {
+            const sprite = this.physics.add.sprite(x, y, this.characterConfigs[char]?.idle || 'Owlet_Monster_Idle');
+            sprite.body.setAllowGravity(false);
+            sprite.setScale(1.25);
+            sprite.setTint(skin);
+            sprite.characterType = char;
+            sprite.body.setSize(20, 20);
+            sprite.body.setOffset(6, 10);
+            sprite.play(`${char}_${anim}`, true);
+            sprite.setFlipX(flip);
+            sprite.setDepth(y);
+            const label = this.add.text(x, y - 40, name, { font: '14px Arial', fill: '#fff', stroke: '#000', strokeThickness: 3 }).setOrigin(0.5);
+            label.setDepth(y + 1000);
+            this.otherPlayers[id] = { sprite, label };
+        } else {
+            const p = this.otherPlayers[id];
+            if (p.sprite.active) {
+                p.sprite.play(`${p.sprite.characterType}_${anim}`, true);
+                p.sprite.setFlipX(flip);
+                if (p.tween) p.tween.stop();
+                p.tween = this.tweens.add({
+                    targets: [p.sprite, p.label], x: x, y: { value: y, duration: 100 },
+                    onUpdate: () => { p.sprite.setDepth(p.sprite.y); p.label.setPosition(p.sprite.x, p.sprite.y - 40); p.label.setDepth(p.sprite.y + 1000); }
+                });
+            }
+        }
+    }
+
     handlePlayerLeft(id) {
         const p = this.otherPlayers[id];
         if (p) { if (p.tween) p.tween.stop(); p.sprite.destroy(); p.label.destroy(); delete this.otherPlayers[id]; }
+        if (this.remoteStates) delete this.remoteStates[id];
     }
 
     updateProximityInteraction() {
@@ -1,4 +1,4 @@
-import { sendPromptToGenAI } from '../../network/GenAIModule.js';
+import { streamPromptToGenAI } from '../../network/GenAIModule.js';
 
 export default class GenAIUI {
     constructor(scene) {
@@ -111,10 +111,21 @@ export default class GenAIUI {
         if (loadingDiv) loadingDiv.style.display = 'flex';
         if (sendBtn) sendBtn.disabled = true;
 
+        // The answer is filled in as tokens arrive; the loading indicator goes away with the first one
+        let aiMessage = null;
         try {
-            // Send prompt to backend server
-            const response = await sendPromptToGenAI(prompt, this.scene.roomId);
-            this.addGenAIMessage(response, 'ai');
+            const response = await streamPromptToGenAI(prompt, this.scene.roomId, (token) => {
+                if (!aiMessage) {
+                    if (loadingDiv) loadingDiv.style.display = 'none';
+                    aiMessage = this.addGenAIMessage('', 'ai');
+                }
+                this.appendToGenAIMessage(aiMessage, token);
+            });
+            if (aiMessage) {
+                aiMessage.textContent = response;
+            } else {
+                this.addGenAIMessage(response, 'ai');
+            }
         } catch (error) {
             console.error('GenAI Error:', error);
             const errorMsg = `❌ Error: ${error.message}`;
@@ -138,6 +149,14 @@ export default class GenAIUI {
 
         // Auto-scroll to bottom
         chatHistory.scrollTop = chatHistory.scrollHeight;
+        return messageEl;
+    }
+
+    appendToGenAIMessage(messageEl, text) {
+        if (!messageEl) return;
+        messageEl.textContent += text;
+        const chatHistory = document.getElementById('genai-chat-history');
+        if (chatHistory) chatHistory.scrollTop = chatHistory.scrollHeight;
     }
 
     clearGenAIHistory() {
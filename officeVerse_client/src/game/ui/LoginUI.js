@@ -1,3 +1,25 @@
+import { openSocket } from '../../network/multiplexSocket.js';
+
+// The server returns the same player for this token on later logins
+const IDENTITY_KEY = 'officeverse.identity';
+
+function loadIdentityToken() {
+    try {
+        return localStorage.getItem(IDENTITY_KEY);
+    } catch (e) {
+        return null;
+    }
+}
+
+function saveIdentityToken(token) {
+    if (!token) return;
+    try {
+        localStorage.setItem(IDENTITY_KEY, token);
+    } catch (e) {
+        // Storage unavailable; the next login creates a new player
+    }
+}
+
 export default class LoginUI {
     constructor(scene) {
         this.scene = scene;
@@ -101,7 +123,7 @@ export default class LoginUI {
     }
 
     setupRoomSocket(createBtn, joinBtn) {
-        this.roomSocket = new WebSocket('ws://localhost:8080/rooms');
+        this.roomSocket = openSocket('/rooms');
 
         this.roomSocket.onopen = () => {
             console.log('Room Socket Connected for Login');
@@ -134,6 +156,7 @@ export default class LoginUI {
 
             if (response.type === 'registered') {
                 this.confirmedPlayerId = response.data.playerId;
+                saveIdentityToken(response.data.identityToken);
                 if (this.pendingAction) {
                     this.roomSocket.send(JSON.stringify(this.pendingAction));
                     this.pendingAction = null;
@@ -205,7 +228,7 @@ export default class LoginUI {
 
         this.roomSocket.send(JSON.stringify({
             type: 'join',
-            data: { playerName: name }
+            data: { playerName: name, identityToken: loadIdentityToken() }
         }));
     }
 
@@ -237,7 +260,7 @@ export default class LoginUI {
 
         this.roomSocket.send(JSON.stringify({
             type: 'join',
-            data: { playerName: name }
+            data: { playerName: name, identityToken: loadIdentityToken() }
         }));
     }
 
@@ -1,7 +1,8 @@
 import { VoiceManager } from './VoiceModule.js';
+import { openSocket } from './multiplexSocket.js';
 
 export function initChat(playerId, playerName, roomId, roomDisplayCode) {
-    const socket = new WebSocket('ws://localhost:8080/chat');
+    const socket = openSocket('/chat');
 
     // UI Elements
     const globalView = document.getElementById('view-global');
@@ -97,6 +98,7 @@ export function initChat(playerId, playerName, roomId, roomDisplayCode) {
     let activeTab = 'global';
     let selectedTargetId = null;
     let playerNamesMap = {}; // Map ID to Name
+    let presenceVersion = -1; // Version of playerNamesMap; -1 while waiting for a snapshot
 
     const tabs = document.querySelectorAll('.chat-tab');
 
@@ -129,9 +131,9 @@ export function initChat(playerId, playerName, roomId, roomDisplayCode) {
         historyDiv.scrollTop = historyDiv.scrollHeight;
     };
 
-    const createBubble = (historyDiv, text, type, senderName) => {
+    const createBubble = (historyDiv, text, type, senderName, options = {}) => {
         let html = '';
-        const timestamp = new Date().toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' });
+        const timestamp = (options.time || new Date()).toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' });
 
         if (type === 'system') {
             html = `<div class="msg-bubble system">${text} <span class="msg-timestamp" style="display:inline; margin-left:5px; opacity:0.6; font-size:0.8em">(${timestamp})</span></div>`;
@@ -147,18 +149,51 @@ export function initChat(playerId, playerName, roomId, roomDisplayCode) {
                 </div>
             `;
         }
+        if (options.prepend) {
+            historyDiv.insertAdjacentHTML('afterbegin', html);
+            return;
+        }
         historyDiv.insertAdjacentHTML('beforeend', html);
         historyDiv.scrollTop = historyDiv.scrollHeight;
     };
 
-    const renderPlayerList = (data) => {
-        if (!activePlayersList) return;
-        activePlayersList.innerHTML = '';
-        if (data.length === 0) {
-            activePlayersList.innerHTML = '<div style="padding:10px; color:#666">No one else online</div>';
-            return;
+    // Earlier messages are paged in from the server when the global view is scrolled to the top
+    const HISTORY_PAGE_SIZE = 30;
+    let historyCursor = null;
+    let historyExhausted = false;
+    let historyLoading = false;
+
+    const requestHistory = () => {
+        if (historyLoading || historyExhausted || socket.readyState !== WebSocket.OPEN) return;
+        historyLoading = true;
+        // HISTORY:Limit[:Cursor]
+        socket.send(historyCursor ? `HISTORY:${HISTORY_PAGE_SIZE}:${historyCursor}` : `HISTORY:${HISTORY_PAGE_SIZE}`);
+    };
+
+    const renderHistory = (page) => {
+        historyLoading = false;
+        historyCursor = page.nextCursor;
+        historyExhausted = !page.nextCursor;
+
+        const previousHeight = globalHistory.scrollHeight;
+        // Messages arrive oldest first; prepend newest first so the order is kept
+        for (let i = page.messages.length - 1; i >= 0; i--) {
+            const entry = page.messages[i];
+            const mine = entry.senderId == playerId;
+            createBubble(globalHistory, entry.message, mine ? 'sent' : 'received',
+                mine ? 'You' : entry.senderName, { prepend: true, time: new Date(entry.timestamp) });
         }
+        // Keep the current view in place while older content is added above it
+        globalHistory.scrollTop += globalHistory.scrollHeight - previousHeight;
+    };
 
+    if (globalHistory) {
+        globalHistory.addEventListener('scroll', () => {
+            if (globalHistory.scrollTop === 0) requestHistory();
+        });
+    }
+
+    const renderPlayerList = (data) => {
         // Parse ID-name pairs from data array [id1, name1, id2, name2...]
         playerNamesMap = {};
         for (let i = 0; i < data.length; i += 2) {
@@ -166,6 +201,28 @@ export function initChat(playerId, playerName, roomId, roomDisplayCode) {
             const name = data[i + 1];
             playerNamesMap[id] = name;
         }
+        renderPlayers();
+    };
+
+    // Presence deltas must arrive in version order; on a gap, drop them and ask for a snapshot
+    const acceptPresenceVersion = (version) => {
+        if (presenceVersion < 0) return false;
+        if (version !== presenceVersion + 1) {
+            presenceVersion = -1;
+            socket.send('PLAYER_RESYNC');
+            return false;
+        }
+        presenceVersion = version;
+        return true;
+    };
+
+    const renderPlayers = () => {
+        if (!activePlayersList) return;
+        activePlayersList.innerHTML = '';
+        if (Object.keys(playerNamesMap).every(id => id == playerId)) {
+            activePlayersList.innerHTML = '<div style="padding:10px; color:#666">No one else online</div>';
+            return;
+        }
 
         Object.entries(playerNamesMap).forEach(([id, name]) => {
             if (id == playerId) return; // Don't list self
@@ -294,9 +351,38 @@ export function initChat(playerId, playerName, roomId, roomDisplayCode) {
                 if (tab) tab.classList.add('unread');
             }
 
-        } else if (data.startsWith("PLAYER_LIST:")) {
-            const listStr = data.substring(12); // Remove "PLAYER_LIST:"
+        } else if (data.startsWith("BACKLOG:")) {
+            // BACKLOG:{"messages":[...],"nextCursor":...} - recent messages sent right after REGISTER
+            const page = JSON.parse(data.substring(8));
+            renderHistory(page);
+            // Older pages come from HISTORY; with nothing buffered, ask for the latest stored page
+            historyExhausted = false;
+            if (page.messages.length === 0) requestHistory();
+        } else if (data.startsWith("HISTORY:")) {
+            // HISTORY:{"messages":[...],"nextCursor":...}
+            renderHistory(JSON.parse(data.substring(8)));
+        } else if (data.startsWith("PLAYER_SNAPSHOT:")) {
+            // PLAYER_SNAPSHOT:Version:ID,Name,ID,Name...
+            const rest = data.substring(16);
+            const colon = rest.indexOf(':');
+            const listStr = rest.substring(colon + 1);
+            presenceVersion = parseInt(rest.substring(0, colon), 10);
             renderPlayerList(listStr ? listStr.split(',') : []);
+        } else if (data.startsWith("PLAYER_JOINED:")) {
+            // PLAYER_JOINED:Version:ID:Name
+            const [, version, id] = data.split(':', 3);
+            const name = data.substring(data.indexOf(':', data.indexOf(':', 14) + 1) + 1);
+            if (acceptPresenceVersion(parseInt(version, 10))) {
+                playerNamesMap[id] = name;
+                renderPlayers();
+            }
+        } else if (data.startsWith("PLAYER_LEFT:")) {
+            // PLAYER_LEFT:Version:ID
+            const [, version, id] = data.split(':', 3);
+            if (acceptPresenceVersion(parseInt(version, 10))) {
+                delete playerNamesMap[id];
+                renderPlayers();
+            }
         } else if (data.startsWith("VOICE_SIGNAL:")) {
             // VOICE_SIGNAL:SenderID:Msg
             const parts = data.split(':', 3);
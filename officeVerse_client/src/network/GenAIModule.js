@@ -67,6 +67,81 @@ export async function sendPromptToGenAI(prompt, roomId) {
   }
 }
 
+/**
+ * Send a prompt and receive the answer token by token over server-sent events
+ * @param {string} prompt - User's prompt/query
+ * @param {string} roomId - Current room ID for context
+ * @param {function(string)} onToken - Called with each piece of the answer as it arrives
+ * @returns {Promise<string>} - Full AI response once the stream is done
+ */
+export async function streamPromptToGenAI(prompt, roomId, onToken) {
+  const configured = await isGenAIConfigured();
+  if (!configured) {
+    showAPIKeyModal();
+    throw new Error('GenAI service not configured. Please provide an API key.');
+  }
+
+  if (!prompt || prompt.trim().length === 0) {
+    throw new Error('Prompt cannot be empty');
+  }
+
+  const response = await fetch(`${API_BASE_URL}/stream`, {
+    method: 'POST',
+    headers: {
+      'Content-Type': 'application/json',
+      'Accept': 'text/event-stream'
+    },
+    body: JSON.stringify({
+      prompt: prompt.trim(),
+      roomId: roomId,
+      timestamp: new Date().toISOString()
+    })
+  });
+
+  if (!response.ok || !response.body) {
+    throw new Error(`Server error: ${response.status}`);
+  }
+
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = '';
+
+  while (true) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    // Events are separated by a blank line: "event:name\ndata:{json}\n\n"
+    let boundary;
+    while ((boundary = buffer.indexOf('\n\n')) !== -1) {
+      const raw = buffer.substring(0, boundary);
+      buffer = buffer.substring(boundary + 2);
+
+      let event = 'message';
+      let data = '';
+      raw.split('\n').forEach(line => {
+        if (line.startsWith('event:')) event = line.substring(6).trim();
+        else if (line.startsWith('data:')) data += line.substring(5);
+      });
+      if (!data) continue;
+      const payload = JSON.parse(data);
+
+      if (event === 'token') {
+        onToken(payload.token);
+      } else if (event === 'done') {
+        return payload.response || 'No response generated';
+      } else if (event === 'error') {
+        if (payload.requiresConfig) {
+          showAPIKeyModal();
+        }
+        throw new Error(payload.error || 'No response generated');
+      }
+    }
+  }
+
+  throw new Error('Stream ended before the response was complete');
+}
+
 /**
  * Get GenAI service status
  * @returns {Promise<object>} - Service status and configuration
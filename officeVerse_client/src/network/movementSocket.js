@@ -1,18 +1,107 @@
+import { openSocket } from './multiplexSocket.js';
+
+// Binary sub-protocol offered on connect; the server falls back to text if it does not accept it.
+// Frames are transcoded here so the scene keeps working with the text line format.
+const BINARY_PROTOCOL = 'officeverse.movement.binary';
+const CHARACTERS = ['owlet', 'dude', 'pink'];
+const ANIMS = ['idle', 'walk'];
+const encoder = new TextEncoder();
+const decoder = new TextDecoder();
+
 let socket;
 let scene;
+let lastSentName = null;
 export function connectMovement(gameScene, onMessage) {
   scene = gameScene;
-  socket = new WebSocket("ws://localhost:8080/movement");
+  socket = openSocket('/movement', [BINARY_PROTOCOL]);
+  socket.binaryType = 'arraybuffer';
   socket.onmessage = (e) => {
-    if (onMessage) onMessage(e.data);
+    const data = typeof e.data === 'string' ? e.data : decodeBinary(e.data);
+    if (data && onMessage) onMessage(data);
   };
   socket.onopen = () => {
-    console.log("Movement Socket Connected");
+    console.log("Movement Socket Connected" + (isBinary() ? " (binary)" : ""));
+    lastSentName = null;
     if (gameScene.debugText) gameScene.debugText.setText("Connected! ID: " + (gameScene.myPlayerId || '?'));
   };
 }
 export function sendMovement(message) {
   if (socket?.readyState === WebSocket.OPEN) {
-    socket.send(message);
+    socket.send(isBinary() ? encodeBinary(message) : message);
   }
-}
\ No newline at end of file
+}
+
+function isBinary() {
+  return socket?.protocol === BINARY_PROTOCOL;
+}
+
+// roomId:playerId:x:y:name:skin:character:anim:flip | Ack:tick | Resync
+function encodeBinary(message) {
+  if (message.startsWith('Ack:')) {
+    const view = new DataView(new ArrayBuffer(5));
+    view.setUint8(0, 0x02);
+    view.setUint32(1, Number(message.substring(4)));
+    return view.buffer;
+  }
+  if (message === 'Resync') return new Uint8Array([0x03]).buffer;
+
+  const [roomId, playerId, x, y, name = 'Unknown', skin = 0xffffff, character = 'owlet', anim = 'idle', flip = '0'] = message.split(':');
+  const nameBytes = name !== lastSentName ? encoder.encode(name).slice(0, 255) : null;
+  const view = new DataView(new ArrayBuffer(20 + (nameBytes ? 1 + nameBytes.length : 0)));
+  view.setUint8(0, 0x01);
+  view.setInt32(1, Number(roomId));
+  view.setInt32(5, Number(playerId));
+  view.setInt16(9, Number(x));
+  view.setInt16(11, Number(y));
+  view.setUint8(13, Math.max(0, CHARACTERS.indexOf(character)));
+  view.setUint8(14, Math.max(0, ANIMS.indexOf(anim)));
+  view.setUint8(15, (flip === '1' ? 0x01 : 0) | (nameBytes ? 0x02 : 0));
+  view.setInt32(16, Number(skin));
+  if (nameBytes) {
+    view.setUint8(20, nameBytes.length);
+    new Uint8Array(view.buffer, 21).set(nameBytes);
+    lastSentName = name;
+  }
+  return view.buffer;
+}
+
+// Turns a binary snapshot back into "Snapshot:tick:baseTick" + Broadcast/Delta/Leave lines
+function decodeBinary(buffer) {
+  const view = new DataView(buffer);
+  const type = view.getUint8(0);
+  if (type === 0x11) return `PlayerLeft:${view.getInt32(1)}`;
+  if (type !== 0x10) return null;
+
+  const lines = [`Snapshot:${view.getUint32(1)}:${view.getUint32(5)}`];
+  const count = view.getUint16(9);
+  let pos = 11;
+  for (let i = 0; i < count; i++) {
+    const kind = view.getUint8(pos);
+    const id = view.getInt32(pos + 1);
+    if (kind === 0x02) {
+      lines.push(`Leave:${id}`);
+      pos += 5;
+      continue;
+    }
+    const x = view.getInt16(pos + 5);
+    const y = view.getInt16(pos + 7);
+    if (kind === 0x00) {
+      const character = CHARACTERS[view.getUint8(pos + 9)] || CHARACTERS[0];
+      const anim = ANIMS[view.getUint8(pos + 10)] || ANIMS[0];
+      const flip = view.getUint8(pos + 11) & 0x01 ? '1' : '0';
+      const skin = view.getInt32(pos + 12);
+      const nameLength = view.getUint8(pos + 16);
+      const name = decoder.decode(new Uint8Array(buffer, pos + 17, nameLength));
+      lines.push(`Broadcast:${id}:${x}:${y}:${name}:${skin}:${character}:${anim}:${flip}`);
+      pos += 17 + nameLength;
+    } else {
+      const mask = view.getUint8(pos + 9);
+      pos += 10;
+      let anim = '';
+      if (mask & 0x01) { anim = ANIMS[view.getUint8(pos)] || ANIMS[0]; pos += 1; }
+      const flip = mask & 0x02 ? (mask & 0x04 ? '1' : '0') : '';
+      lines.push(`Delta:${id}:${x}:${y}:${anim}:${flip}`);
+    }
+  }
+  return lines.join('\n');
+}
@@ -0,0 +1,136 @@
+// Optional single connection to /ws carrying the chat, movement, room and zone channels.
+// Each frame is prefixed with its channel tag; openSocket() hands out WebSocket-like
+// channel objects so the existing modules work unchanged on either transport.
+// Enable with localStorage.setItem('officeverse.multiplex', '1').
+
+const SERVER_URL = 'ws://localhost:8080';
+const TAGS = { '/chat': 'c', '/movement': 'm', '/rooms': 'r', '/zones': 'z' };
+const encoder = new TextEncoder();
+
+let connection = null;
+const channels = new Map(); // tag -> ChannelSocket
+
+export function isMultiplexEnabled() {
+  try {
+    return localStorage.getItem('officeverse.multiplex') === '1';
+  } catch (e) {
+    return false;
+  }
+}
+
+/**
+ * Open a socket to one of the server endpoints ('/chat', '/movement', '/rooms', '/zones')
+ * @param {string} path - Endpoint path
+ * @param {string[]} protocols - Sub-protocols to offer
+ * @returns {WebSocket|ChannelSocket}
+ */
+export function openSocket(path, protocols = []) {
+  const tag = TAGS[path];
+  if (!tag || !isMultiplexEnabled()) {
+    return new WebSocket(SERVER_URL + path, protocols);
+  }
+
+  const channel = new ChannelSocket(tag, protocols[0] || null);
+  channels.set(tag, channel);
+  const ws = ensureConnection();
+  if (ws.readyState === WebSocket.OPEN) {
+    ws.send(`@open:${tag}` + (channel.requestedProtocol ? `:${channel.requestedProtocol}` : ''));
+  }
+  return channel;
+}
+
+function ensureConnection() {
+  if (connection && connection.readyState <= WebSocket.OPEN) return connection;
+
+  connection = new WebSocket(`${SERVER_URL}/ws`, ['officeverse.mux']);
+  connection.binaryType = 'arraybuffer';
+
+  connection.onopen = () => {
+    channels.forEach(channel => {
+      connection.send(`@open:${channel.tag}` + (channel.requestedProtocol ? `:${channel.requestedProtocol}` : ''));
+    });
+  };
+
+  connection.onmessage = (event) => {
+    if (typeof event.data === 'string') {
+      if (event.data.startsWith('@opened:')) {
+        // @opened:Tag[:Protocol]
+        const [, tag, protocol] = event.data.split(':', 3);
+        channels.get(tag)?.markOpen(protocol || '');
+        return;
+      }
+      channels.get(event.data.charAt(0))?.deliver(event.data.substring(1));
+    } else {
+      const tag = String.fromCharCode(new Uint8Array(event.data)[0]);
+      channels.get(tag)?.deliver(event.data.slice(1));
+    }
+  };
+
+  connection.onclose = (event) => {
+    const open = Array.from(channels.values());
+    channels.clear();
+    connection = null;
+    open.forEach(channel => channel.markClosed(event));
+  };
+
+  connection.onerror = (error) => {
+    channels.forEach(channel => channel.onerror?.(error));
+  };
+
+  return connection;
+}
+
+/**
+ * One channel on the shared connection, shaped like a WebSocket
+ * (readyState, protocol, binaryType, send, close and the on* callbacks).
+ */
+class ChannelSocket {
+  constructor(tag, requestedProtocol) {
+    this.tag = tag;
+    this.requestedProtocol = requestedProtocol;
+    this.readyState = WebSocket.CONNECTING;
+    this.protocol = '';
+    this.binaryType = 'arraybuffer';
+    this.onopen = null;
+    this.onmessage = null;
+    this.onclose = null;
+    this.onerror = null;
+  }
+
+  markOpen(protocol) {
+    this.protocol = protocol;
+    this.readyState = WebSocket.OPEN;
+    this.onopen?.({ target: this });
+  }
+
+  markClosed(event) {
+    if (this.readyState === WebSocket.CLOSED) return;
+    this.readyState = WebSocket.CLOSED;
+    this.onclose?.({ code: event?.code ?? 1000, reason: event?.reason ?? '', target: this });
+  }
+
+  deliver(data) {
+    this.onmessage?.({ data, target: this });
+  }
+
+  send(data) {
+    if (this.readyState !== WebSocket.OPEN || !connection) return;
+    if (typeof data === 'string') {
+      connection.send(this.tag + data);
+      return;
+    }
+    const payload = data instanceof ArrayBuffer ? new Uint8Array(data) : new Uint8Array(data.buffer, data.byteOffset, data.byteLength);
+    const framed = new Uint8Array(payload.length + 1);
+    framed[0] = encoder.encode(this.tag)[0];
+    framed.set(payload, 1);
+    connection.send(framed.buffer);
+  }
+
+  close() {
+    if (connection?.readyState === WebSocket.OPEN) {
+      connection.send(`@close:${this.tag}`);
+    }
+    channels.delete(this.tag);
+    this.markClosed({ code: 1000, reason: 'Client disconnect' });
+  }
+}
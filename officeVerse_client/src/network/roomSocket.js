@@ -1,7 +1,7 @@
 // ============================================
 // FILE: src/network/roomSocket.js
 // ============================================
-import { NETWORK_CONFIG } from '../utils/constants.js';
+import { openSocket } from './multiplexSocket.js';
 
 /**
  * RoomSocket handles real-time room/lobby updates
@@ -21,6 +21,17 @@ class RoomSocket {
     this.listeners = new Map();
     this.heartbeatInterval = null;
     this.heartbeatTimeout = null;
+
+    // Lobby room list, kept current from roomListUpdated + roomListDelta
+    this.roomList = new Map();
+    this.roomListVersion = -1;
+    this.roomListPage = { page: 0, pageSize: 50 };
+
+    // Session resumption: token from 'registered' and the number of messages received since,
+    // so a reconnect can reattach and get only what it missed
+    this.playerId = null;
+    this.resumeToken = null;
+    this.received = 0;
   }
 
   /**
@@ -31,7 +42,8 @@ class RoomSocket {
   connect(playerId) {
     return new Promise((resolve, reject) => {
       try {
-        this.ws = new WebSocket(`${NETWORK_CONFIG.WS_URL}/rooms`);
+        this.playerId = playerId;
+        this.ws = openSocket('/rooms');
         
         this.ws.onopen = () => {
           console.log('Room socket connected');
@@ -39,8 +51,12 @@ class RoomSocket {
           this.reconnecting = false;
           this.reconnectAttempts = 0;
 
-          // Send initial join message
-          this.send('join', { playerId });
+          // Reattach to the previous session if there is one, otherwise join fresh
+          if (this.resumeToken) {
+            this.send('resume', { token: this.resumeToken, lastSeq: this.received });
+          } else {
+            this.join();
+          }
 
           // Start heartbeat
           this.startHeartbeat();
@@ -82,6 +98,20 @@ class RoomSocket {
     });
   }
 
+  /**
+   * Register as a new session; the server's message count starts again from here
+   */
+  join() {
+    this.received = 0;
+    let identityToken = null;
+    try {
+      identityToken = localStorage.getItem('officeverse.identity');
+    } catch (e) {
+      // Storage unavailable
+    }
+    this.send('join', { playerId: this.playerId, identityToken });
+  }
+
   /**
    * Send message to server
    * @param {string} type - Message type
@@ -107,12 +137,39 @@ class RoomSocket {
   handleMessage(message) {
     const { type, data } = message;
 
+    // Resume acknowledgements are not numbered by the server, everything else is
+    if (type === 'resumed') {
+      console.log('Room session resumed');
+      if (this.roomListVersion >= 0) {
+        this.subscribeToRoomList(this.roomListPage.page, this.roomListPage.pageSize);
+      }
+      return;
+    }
+    if (type === 'resumeFailed') {
+      this.resumeToken = null;
+      this.join();
+      return;
+    }
+    this.received++;
+
+    if (type === 'registered') {
+      this.resumeToken = data.resumeToken || null;
+    }
+
     // Handle heartbeat pong
     if (type === 'pong') {
       this.resetHeartbeatTimeout();
       return;
     }
 
+    if (type === 'roomListUpdated') {
+      this.applyRoomListSnapshot(data);
+    } else if (type === 'roomListDelta') {
+      if (!this.applyRoomListDelta(data)) {
+        return;
+      }
+    }
+
     // Trigger registered listeners
     const callbacks = this.listeners.get(type);
     if (callbacks) {
@@ -181,9 +238,12 @@ class RoomSocket {
 
   /**
    * Subscribe to room list updates
+   * @param {number} page - Page of the list to load first (0-based)
+   * @param {number} pageSize - Rooms per page
    */
-  subscribeToRoomList() {
-    this.send('subscribeRoomList');
+  subscribeToRoomList(page = 0, pageSize = 50) {
+    this.roomListPage = { page, pageSize };
+    this.send('subscribeRoomList', { page, pageSize });
   }
 
   /**
@@ -191,6 +251,52 @@ class RoomSocket {
    */
   unsubscribeFromRoomList() {
     this.send('unsubscribeRoomList');
+    this.roomListVersion = -1;
+  }
+
+  /**
+   * Current room list as last reported by the server
+   * @returns {Array<object>}
+   */
+  getRoomList() {
+    return Array.from(this.roomList.values());
+  }
+
+  /**
+   * Replace the local list with a snapshot page
+   * @param {object} data - { version, page, pageSize, total, rooms }
+   */
+  applyRoomListSnapshot(data) {
+    this.roomList.clear();
+    (data.rooms || []).forEach(room => this.roomList.set(room.id, room));
+    this.roomListVersion = data.version;
+  }
+
+  /**
+   * Apply an incremental change; on a version gap, re-subscribe for a fresh snapshot
+   * @param {object} data - { version, added, removed, counts }
+   * @returns {boolean} - false if the delta was dropped
+   */
+  applyRoomListDelta(data) {
+    if (this.roomListVersion < 0) {
+      return false;
+    }
+    if (data.version !== this.roomListVersion + 1) {
+      this.roomListVersion = -1;
+      this.subscribeToRoomList(this.roomListPage.page, this.roomListPage.pageSize);
+      return false;
+    }
+
+    (data.added || []).forEach(room => this.roomList.set(room.id, room));
+    (data.removed || []).forEach(roomId => this.roomList.delete(roomId));
+    Object.entries(data.counts || {}).forEach(([roomId, count]) => {
+      const room = this.roomList.get(Number(roomId));
+      if (room) {
+        room.playerCount = count;
+      }
+    });
+    this.roomListVersion = data.version;
+    return true;
   }
 
   /**
@@ -426,10 +532,13 @@ class LobbyScene extends Phaser.Scene {
     // Subscribe to room list updates
     roomSocket.subscribeToRoomList();
 
-    // Listen for room list updates
-    roomSocket.on('roomListUpdated', (rooms) => {
-      console.log('Available rooms:', rooms);
-      this.updateRoomList(rooms);
+    // Listen for room list updates (snapshot on subscribe, then incremental deltas)
+    roomSocket.on('roomListUpdated', () => {
+      this.updateRoomList(roomSocket.getRoomList());
+    });
+
+    roomSocket.on('roomListDelta', () => {
+      this.updateRoomList(roomSocket.getRoomList());
     });
 
     // Listen for room created
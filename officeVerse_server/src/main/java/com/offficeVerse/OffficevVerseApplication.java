@@ -3,12 +3,14 @@ package com.offficeVerse;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 //import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 
 @SpringBootApplication (
         //exclude = { DataSourceAutoConfiguration.class }
 )
 @EnableAsync
+@EnableScheduling
 public class OffficevVerseApplication {
 
     public static void main(String[] args) {
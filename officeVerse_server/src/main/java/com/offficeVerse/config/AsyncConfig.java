@@ -1,10 +1,32 @@
 package com.offficeVerse.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 
+import java.util.concurrent.Executor;
+
 
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+public class AsyncConfig implements AsyncConfigurer {
+
+    @Value("${execution.mode:container}")
+    private String executionMode;
+
+    /**
+     * In "virtual" mode every @Async call gets its own virtual thread;
+     * otherwise Spring's default task executor is used.
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        if ("virtual".equalsIgnoreCase(executionMode)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        return null;
+    }
 }
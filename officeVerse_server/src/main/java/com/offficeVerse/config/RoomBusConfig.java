@@ -0,0 +1,35 @@
+package com.offficeVerse.config;
+
+import com.offficeVerse.websocket.InProcessRoomBroadcastBus;
+import com.offficeVerse.websocket.LocalBrokerRoomBroadcastBus;
+import com.offficeVerse.websocket.LocalRoomBroker;
+import com.offficeVerse.websocket.RoomBroadcastBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RoomBusConfig {
+
+    @Value("${room.bus.type:in-process}")
+    private String busType;
+
+    @Value("${room.bus.node-id:${random.uuid}}")
+    private String nodeId;
+
+    @Value("${room.bus.broker-name:officeverse}")
+    private String brokerName;
+
+    /**
+     * "in-process" runs a single node; "local-broker" joins every node in this JVM
+     * that uses the same room.bus.broker-name.
+     */
+    @Bean
+    public RoomBroadcastBus roomBroadcastBus() {
+        System.out.println("Room broadcast bus: " + busType + " (node " + nodeId + ")");
+        if ("local-broker".equalsIgnoreCase(busType)) {
+            return new LocalBrokerRoomBroadcastBus(nodeId, LocalRoomBroker.named(brokerName));
+        }
+        return new InProcessRoomBroadcastBus(nodeId);
+    }
+}
@@ -1,9 +1,16 @@
 package com.offficeVerse.config;
 
 import com.offficeVerse.websocket.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.*;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
@@ -13,6 +20,20 @@ public class WebSocketConfig implements WebSocketConfigurer {
         private final RoomSocket roomSocket;
         private final ZoneSocket zoneSocket;
 
+        // "container" handles messages on the WebSocket I/O threads, "virtual" on per-session virtual threads
+        @Value("${execution.mode:container}")
+        private String executionMode;
+
+        // Inbound messages a session may have queued in virtual mode before it is closed
+        @Value("${websocket.inbound.max-pending:1024}")
+        private int maxPendingMessages;
+
+        // Also expose /ws, which carries all four channels over one connection
+        @Value("${websocket.multiplex.enabled:true}")
+        private boolean multiplexEnabled;
+
+        private final ExecutorService messageExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
         public WebSocketConfig(ChatSocket chatSocket,
                         MovementSocket movementSocket,
                         RoomSocket roomSocket,
@@ -25,20 +46,43 @@ public class WebSocketConfig implements WebSocketConfigurer {
 
         @Override
         public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+                WebSocketHandler chat = wrap(chatSocket);
+                WebSocketHandler movement = wrap(movementSocket);
+                WebSocketHandler room = wrap(roomSocket);
+                WebSocketHandler zone = wrap(zoneSocket);
+
                 // Chat WebSocket
-                registry.addHandler(chatSocket, "/chat")
+                registry.addHandler(chat, "/chat")
                                 .setAllowedOrigins("*");
 
                 // Movement WebSocket
-                registry.addHandler(movementSocket, "/movement")
+                registry.addHandler(movement, "/movement")
                                 .setAllowedOrigins("*");
 
                 // Room WebSocket
-                registry.addHandler(roomSocket, "/rooms")
+                registry.addHandler(room, "/rooms")
                                 .setAllowedOrigins("*");
 
                 // Zone WebSocket
-                registry.addHandler(zoneSocket, "/zones")
+                registry.addHandler(zone, "/zones")
                                 .setAllowedOrigins("*");
+
+                // Multiplexed WebSocket: the same handlers, one connection per client
+                if (multiplexEnabled) {
+                        Map<Channel, WebSocketHandler> channels = new EnumMap<>(Channel.class);
+                        channels.put(Channel.CHAT, chat);
+                        channels.put(Channel.MOVEMENT, movement);
+                        channels.put(Channel.ROOM, room);
+                        channels.put(Channel.ZONE, zone);
+                        registry.addHandler(new MultiplexSocket(channels), "/ws")
+                                        .setAllowedOrigins("*");
+                }
+        }
+
+        private WebSocketHandler wrap(WebSocketHandler handler) {
+                if ("virtual".equalsIgnoreCase(executionMode)) {
+                        return new VirtualThreadHandlerDecorator(handler, messageExecutor, maxPendingMessages);
+                }
+                return handler;
         }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import com.offficeVerse.model.Player;
 import com.offficeVerse.model.Room;
 import com.offficeVerse.service.PlayerService;
 import com.offficeVerse.service.RoomService;
+import com.offficeVerse.websocket.RoomOwnerRouter;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -13,19 +14,25 @@ public class AuthController {
 
     private final PlayerService playerService;
     private final RoomService roomService;
+    private final RoomOwnerRouter roomRouter;
 
-    public AuthController(PlayerService playerService, RoomService roomService) {
+    public AuthController(PlayerService playerService, RoomService roomService, RoomOwnerRouter roomRouter) {
         this.playerService = playerService;
         this.roomService = roomService;
+        this.roomRouter = roomRouter;
     }
 
     @PostMapping("/register")
     public Player registerPlayer(@RequestParam String name, @RequestParam(required = false) Long roomId) {
         Room room = null;
         if (roomId != null) {
-            room = roomService.getRoom(roomId);
+            room = roomService.getRoomReference(roomId);
         }
-        return playerService.createPlayer(name, room);
+        Player player = playerService.createPlayer(name, room);
+        if (room != null) {
+            roomRouter.join(roomId, player.getId(), player.getName());
+        }
+        return player;
     }
 
     @GetMapping("/player/{id}")
@@ -0,0 +1,32 @@
+package com.offficeVerse.controller;
+
+import com.offficeVerse.model.ChatHistoryPage;
+import com.offficeVerse.service.ChatService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/chat")
+@CrossOrigin(origins = "*")
+public class ChatController {
+
+    private final ChatService chatService;
+
+    public ChatController(ChatService chatService) {
+        this.chatService = chatService;
+    }
+
+    /**
+     * Room chat history, newest page first; pass nextCursor back as cursor for older messages.
+     */
+    @GetMapping("/rooms/{roomId}/history")
+    public ResponseEntity<ChatHistoryPage> getHistory(@PathVariable Long roomId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "30") int limit) {
+        try {
+            return ResponseEntity.ok(chatService.getHistory(roomId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
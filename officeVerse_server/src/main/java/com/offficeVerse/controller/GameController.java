@@ -1,7 +1,7 @@
 package com.offficeVerse.controller;
 
 import com.offficeVerse.model.Player;
-import com.offficeVerse.model.Position;
+import com.offficeVerse.model.PlayerPosition;
 import com.offficeVerse.service.PlayerService;
 import com.offficeVerse.service.PositionService;
 import com.offficeVerse.service.RoomService;
@@ -26,16 +26,17 @@ public class GameController {
     }
 
     @PostMapping("/update-position")
-    public Position updatePosition(@RequestParam Long playerId, @RequestParam int x, @RequestParam int y) {
+    public PlayerPosition updatePosition(@RequestParam Long playerId, @RequestParam int x, @RequestParam int y) {
         Player player = playerService.getPlayer(playerId);
         if (player == null) return null;
-        Position pos = new Position(x, y, player);
-        return positionService.savePosition(pos);
+        positionService.record(playerId, x, y);
+        return positionService.getLastPosition(playerId);
     }
 
+    // Served from the in-memory cache while the player is connected
     @GetMapping("/player-position/{playerId}")
-    public Position getPosition(@PathVariable Long playerId) {
-        return positionService.getPosition(playerId);
+    public PlayerPosition getPosition(@PathVariable Long playerId) {
+        return positionService.getLastPosition(playerId);
     }
 
    /* @PostMapping("/room-action")
@@ -1,9 +1,19 @@
 package com.offficeVerse.controller;
 
+import com.offficeVerse.service.GenAIProviderException;
 import com.offficeVerse.service.genAIService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/genai")
@@ -63,40 +73,39 @@ public class GenAIController {
      * }
      */
     @PostMapping("/validate-key")
-    public Map<String, Object> validateAPIKey(@RequestBody Map<String, String> request) {
+    public CompletableFuture<Map<String, Object>> validateAPIKey(@RequestBody Map<String, String> request) {
         Map<String, Object> response = new HashMap<>();
-        
-        try {
-            String apiKey = request.get("apiKey");
-            String provider = request.getOrDefault("provider", "openai");
-            
-            if (apiKey == null || apiKey.trim().isEmpty()) {
-                response.put("success", false);
-                response.put("error", "API key cannot be empty");
-                response.put("valid", false);
-                return response;
-            }
-            
-            // Validate the API key
-            boolean isValid = genaiService.validateApiKey(apiKey, provider);
-            
-            response.put("success", true);
-            response.put("valid", isValid);
-            response.put("provider", provider);
-            
-            if (isValid) {
-                response.put("message", "API key is valid!");
-            } else {
-                response.put("message", "API key validation failed");
-            }
-            
-        } catch (Exception e) {
+
+        String apiKey = request.get("apiKey");
+        String provider = request.getOrDefault("provider", "openai");
+
+        if (apiKey == null || apiKey.trim().isEmpty()) {
             response.put("success", false);
+            response.put("error", "API key cannot be empty");
             response.put("valid", false);
-            response.put("error", "Validation error: " + e.getMessage());
+            return CompletableFuture.completedFuture(response);
         }
-        
-        return response;
+
+        // Validate the API key; the servlet thread is released until the provider answers
+        return genaiService.validateApiKeyAsync(apiKey, provider)
+                .thenApply(isValid -> {
+                    response.put("success", true);
+                    response.put("valid", isValid);
+                    response.put("provider", provider);
+
+                    if (isValid) {
+                        response.put("message", "API key is valid!");
+                    } else {
+                        response.put("message", "API key validation failed");
+                    }
+                    return response;
+                })
+                .exceptionally(e -> {
+                    response.put("success", false);
+                    response.put("valid", false);
+                    response.put("error", "Validation error: " + e.getMessage());
+                    return response;
+                });
     }
     
     /**
@@ -117,53 +126,131 @@ public class GenAIController {
      * Request body: {
      *   "prompt": "user's question",
      *   "roomId": "room123",
-     *   "timestamp": "ISO8601 timestamp"
+     *   "timestamp": "ISO8601 timestamp",
+     *   "cache": "false" (optional, skips the response cache)
      * }
+     * A failed provider call answers {"success": false, "error": ..., "status": provider status}
+     * with HTTP 429 (rate limited), 503 (circuit breaker open) or 502 (any other failure).
      */
     @PostMapping("/query")
-    public Map<String, Object> queryGenAI(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> queryGenAI(@RequestBody Map<String, String> request) {
         Map<String, Object> response = new HashMap<>();
-        
-        try {
-            String prompt = request.get("prompt");
-            String roomId = request.get("roomId");
-            
-            // Check if API is configured
-            if (!genaiService.isConfigured()) {
-                response.put("success", false);
-                response.put("error", "GenAI service not configured. Please provide an API key.");
-                response.put("requiresConfig", true);
-                return response;
-            }
-            
-            if (prompt == null || prompt.trim().isEmpty()) {
-                response.put("success", false);
-                response.put("error", "Prompt cannot be empty");
-                return response;
-            }
-            
-            if (prompt.length() > 500) {
-                response.put("success", false);
-                response.put("error", "Prompt too long (max 500 characters)");
-                return response;
-            }
-            
-            // Get response from GenAI service
-            String aiResponse = genaiService.getResponse(prompt);
-            
-            response.put("success", true);
-            response.put("response", aiResponse);
-            response.put("roomId", roomId);
-            response.put("timestamp", System.currentTimeMillis());
-            
-        } catch (Exception e) {
+
+        String prompt = request.get("prompt");
+        String roomId = request.get("roomId");
+        boolean useCache = !"false".equalsIgnoreCase(request.get("cache"));
+
+        // Check if API is configured
+        if (!genaiService.isConfigured()) {
             response.put("success", false);
-            response.put("error", "Failed to process GenAI request: " + e.getMessage());
+            response.put("error", "GenAI service not configured. Please provide an API key.");
+            response.put("requiresConfig", true);
+            return CompletableFuture.completedFuture(ResponseEntity.ok(response));
         }
-        
-        return response;
+
+        if (prompt == null || prompt.trim().isEmpty()) {
+            response.put("success", false);
+            response.put("error", "Prompt cannot be empty");
+            return CompletableFuture.completedFuture(ResponseEntity.ok(response));
+        }
+
+        if (prompt.length() > 500) {
+            response.put("success", false);
+            response.put("error", "Prompt too long (max 500 characters)");
+            return CompletableFuture.completedFuture(ResponseEntity.ok(response));
+        }
+
+        // Get response from GenAI service; the servlet thread is released while the call is in flight
+        return genaiService.queryAsync(prompt, useCache)
+                .thenApply(aiResponse -> {
+                    response.put("success", true);
+                    response.put("response", aiResponse);
+                    response.put("roomId", roomId);
+                    response.put("timestamp", System.currentTimeMillis());
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(failure -> {
+                    Throwable e = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure;
+                    // Rate limits and an open breaker keep their status; other provider failures are a bad gateway
+                    int status = e instanceof GenAIProviderException p ? p.getStatus() : 0;
+                    HttpStatus httpStatus = status == 429 || status == 503
+                            ? HttpStatus.valueOf(status) : HttpStatus.BAD_GATEWAY;
+                    response.put("success", false);
+                    response.put("error", "Failed to process GenAI request: " + e.getMessage());
+                    if (status != 0) {
+                        response.put("status", status);
+                    }
+                    return ResponseEntity.status(httpStatus).body(response);
+                });
     }
     
+    /**
+     * Stream the answer to a prompt as server-sent events
+     * POST /api/genai/stream
+     * Request body: same as /query
+     * Events:
+     *   token - {"token": "..."} for each piece of the answer as the provider produces it
+     *   done  - {"response": "full answer", "roomId": ..., "timestamp": ...}
+     *   error - {"error": "...", "requiresConfig": true (only when no API key is set)}
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGenAI(@RequestBody Map<String, String> request) {
+        SseEmitter emitter = new SseEmitter();
+
+        String prompt = request.get("prompt");
+        String roomId = request.get("roomId");
+        boolean useCache = !"false".equalsIgnoreCase(request.get("cache"));
+
+        Map<String, Object> error = new HashMap<>();
+        if (!genaiService.isConfigured()) {
+            error.put("error", "GenAI service not configured. Please provide an API key.");
+            error.put("requiresConfig", true);
+        } else if (prompt == null || prompt.trim().isEmpty()) {
+            error.put("error", "Prompt cannot be empty");
+        } else if (prompt.length() > 500) {
+            error.put("error", "Prompt too long (max 500 characters)");
+        }
+        if (!error.isEmpty()) {
+            sendAndComplete(emitter, "error", error);
+            return emitter;
+        }
+
+        // Each token is written as soon as it arrives; a failed write (client gone) aborts the provider call
+        genaiService.streamResponseAsync(prompt, useCache, token -> {
+            try {
+                emitter.send(SseEmitter.event().name("token").data(Map.of("token", token), MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((aiResponse, failure) -> {
+            Throwable e = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            Map<String, Object> result = new HashMap<>();
+            if (e == null) {
+                result.put("response", aiResponse);
+                result.put("roomId", roomId);
+                result.put("timestamp", System.currentTimeMillis());
+                sendAndComplete(emitter, "done", result);
+            } else if (!(e instanceof UncheckedIOException)) {
+                result.put("error", "Failed to process GenAI request: " + e.getMessage());
+                sendAndComplete(emitter, "error", result);
+            } else {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    private void sendAndComplete(SseEmitter emitter, String event, Map<String, Object> data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
     /**
      * Get GenAI service status
      * GET /api/genai/status
@@ -0,0 +1,9 @@
+package com.offficeVerse.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a chat message for history pages; does not load the Room.
+ */
+public record ChatHistoryEntry(Long id, Long senderId, String senderName, String message, LocalDateTime timestamp) {
+}
@@ -0,0 +1,10 @@
+package com.offficeVerse.model;
+
+import java.util.List;
+
+/**
+ * One page of chat history, oldest message first.
+ * nextCursor fetches the page of older messages; it is null when there are none.
+ */
+public record ChatHistoryPage(List<ChatHistoryEntry> messages, String nextCursor) {
+}
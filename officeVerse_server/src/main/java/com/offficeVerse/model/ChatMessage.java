@@ -1,14 +1,24 @@
 package com.offficeVerse.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.NotFound;
+import org.hibernate.annotations.NotFoundAction;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "chat_message", indexes = @Index(name = "idx_chat_room_time", columnList = "room_id, timestamp, id"))
 public class ChatMessage {
+    // Longer chat text is truncated before it is persisted
+    public static final int MAX_MESSAGE_LENGTH = 1000;
+
+    // Pooled sequence so batched inserts do not need one round trip per generated id
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_message_seq")
+    @SequenceGenerator(name = "chat_message_seq", sequenceName = "chat_message_seq", allocationSize = 50)
     private Long id;
+    private Long senderId;
     private String senderName;
+    @Column(length = MAX_MESSAGE_LENGTH)
     private String message;
 
     private LocalDateTime timestamp;
@@ -16,8 +26,10 @@ public class ChatMessage {
     public String getSender() { return senderName; }
     public String getContent() { return message; }
 
+    // History is kept after its room is deleted, so room_id has no foreign key
     @ManyToOne
-    @JoinColumn(name = "room_id")
+    @JoinColumn(name = "room_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @NotFound(action = NotFoundAction.IGNORE)
     private Room room;
 
     protected ChatMessage() {}
@@ -29,7 +41,16 @@ public class ChatMessage {
         this.timestamp = LocalDateTime.now();
     }
 
+    public ChatMessage(Long senderId, String senderName, String message, Room room, LocalDateTime timestamp) {
+        this.senderId = senderId;
+        this.senderName = senderName;
+        this.message = message;
+        this.room = room;
+        this.timestamp = timestamp;
+    }
+
     public Long getId() { return id; }
+    public Long getSenderId() { return senderId; }
     public String getSenderName() { return senderName; }
     public String getMessage() { return message; }
     public LocalDateTime getTimestamp() { return timestamp; }
@@ -3,12 +3,20 @@ package com.offficeVerse.model;
 import jakarta.persistence.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_player_identity_token", columnNames = "identity_token"))
 public class Player {
+    // Pooled sequence so new players can be inserted in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "player_seq")
+    @SequenceGenerator(name = "player_seq", sequenceName = "player_seq", allocationSize = 50)
+    private Long id;
     private String name;
 
+    // Secret the client keeps to get the same player back on later logins
+    @Column(name = "identity_token", length = 43)
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private String identityToken;
+
     public Player() {
     }
 
@@ -22,6 +30,11 @@ public class Player {
         this.room = room;
     }
 
+    public Player(String name, Room room, String identityToken) {
+        this(name, room);
+        this.identityToken = identityToken;
+    }
+
     public Long getId() {
         return id;
     }
@@ -34,6 +47,10 @@ public class Player {
         return room;
     }
 
+    public String getIdentityToken() {
+        return identityToken;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
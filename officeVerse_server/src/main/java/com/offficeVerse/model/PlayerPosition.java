@@ -0,0 +1,7 @@
+package com.offficeVerse.model;
+
+/**
+ * A player's last known map position, as served by /game/player-position/{playerId}.
+ */
+public record PlayerPosition(Long playerId, int x, int y) {
+}
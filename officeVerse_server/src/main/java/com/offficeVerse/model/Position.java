@@ -2,17 +2,19 @@ package com.offficeVerse.model;
 
 import jakarta.persistence.*;
 
+// One row per player, updated in place by PositionWriteBehind
 @Entity
 public class Position {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "position_seq")
+    @SequenceGenerator(name = "position_seq", sequenceName = "position_seq", allocationSize = 50)
     private Long id;
 
     public int x;
     public int y;
 
     @OneToOne
-    @JoinColumn(name = "player_id")
+    @JoinColumn(name = "player_id", unique = true)
     private Player player;
 
     protected Position() {}
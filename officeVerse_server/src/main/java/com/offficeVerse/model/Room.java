@@ -13,7 +13,7 @@ import java.util.*;
 @Setter
 // @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms", uniqueConstraints = @UniqueConstraint(name = "uk_rooms_join_code", columnNames = "join_code"))
 public class Room {
 
         @Id
@@ -27,13 +27,15 @@ public class Room {
         private int maxPlayers = 20;
         private boolean isPrivate = false;
         private String password;
+        @Column(name = "join_code", length = 6)
         private String joinCode; // Unique code for employees to join
         private Long hostId;
 
         @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
         private List<Player> players = new ArrayList<>();
 
-        @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+        // No cascade: chat history outlives the room
+        @OneToMany(mappedBy = "room", fetch = FetchType.LAZY)
         private List<ChatMessage> messages = new ArrayList<>();
 
         @ElementCollection
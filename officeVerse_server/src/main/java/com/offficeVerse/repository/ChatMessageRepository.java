@@ -1,12 +1,31 @@
 package com.offficeVerse.repository;
 
+import com.offficeVerse.model.ChatHistoryEntry;
 import com.offficeVerse.model.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     List<ChatMessage> findByRoomId(Long roomId);
+
+    // Keyset pagination over idx_chat_room_time (room_id, timestamp, id), newest first
+
+    @Query("SELECT new com.offficeVerse.model.ChatHistoryEntry(m.id, m.senderId, m.senderName, m.message, m.timestamp) "
+            + "FROM ChatMessage m WHERE m.room.id = :roomId "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatHistoryEntry> findLatest(@Param("roomId") Long roomId, Pageable page);
+
+    @Query("SELECT new com.offficeVerse.model.ChatHistoryEntry(m.id, m.senderId, m.senderName, m.message, m.timestamp) "
+            + "FROM ChatMessage m WHERE m.room.id = :roomId "
+            + "AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatHistoryEntry> findBefore(@Param("roomId") Long roomId, @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id, Pageable page);
 }
@@ -1,10 +1,31 @@
 package com.offficeVerse.repository;
 
 import com.offficeVerse.model.Player;
+import com.offficeVerse.model.Room;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface PlayerRepository extends JpaRepository<Player, Long> {
     // Custom query add korar jonno
+
+    Optional<Player> findByIdentityToken(String identityToken);
+
+    @Query("SELECT p.id FROM Player p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Player p SET p.room = :room WHERE p.id IN :ids")
+    int assignRoom(@Param("room") Room room, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Player p SET p.room = null WHERE p.id IN :ids")
+    int clearRoom(@Param("ids") Collection<Long> ids);
 }
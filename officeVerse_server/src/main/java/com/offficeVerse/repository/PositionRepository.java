@@ -1,10 +1,23 @@
 package com.offficeVerse.repository;
 
 import com.offficeVerse.model.Position;
+import com.offficeVerse.model.PlayerPosition;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface PositionRepository extends JpaRepository<Position, Long> {
-    // Could add methods like findByPlayerId if needed
+
+    @Query("SELECT p FROM Position p WHERE p.player.id IN :playerIds")
+    List<Position> findByPlayerIds(@Param("playerIds") Collection<Long> playerIds);
+
+    @Query("SELECT new com.offficeVerse.model.PlayerPosition(p.player.id, p.x, p.y) FROM Position p "
+            + "WHERE p.player.id = :playerId")
+    Optional<PlayerPosition> findLastPosition(@Param("playerId") Long playerId);
 }
@@ -2,11 +2,17 @@ package com.offficeVerse.repository;
 
 import com.offficeVerse.model.Room;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
     Room findByName(String name);
 
     Room findByJoinCode(String joinCode);
+
+    @Query("SELECT DISTINCT r FROM Room r LEFT JOIN FETCH r.players")
+    List<Room> findAllWithPlayers();
 }
@@ -1,28 +1,141 @@
 package com.offficeVerse.service;
 
+import com.offficeVerse.model.ChatHistoryEntry;
+import com.offficeVerse.model.ChatHistoryPage;
 import com.offficeVerse.model.ChatMessage;
 import com.offficeVerse.repository.ChatMessageRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
 public class ChatService {
 
+    private static final int DEFAULT_HISTORY_PAGE = 30;
+    private static final int MAX_HISTORY_PAGE = 100;
+
     private final ChatMessageRepository chatMessageRepository;
+    private final ChatWriteBehind chatWriteBehind;
 
-    public ChatService(ChatMessageRepository chatMessageRepository) {
+    public ChatService(ChatMessageRepository chatMessageRepository, ChatWriteBehind chatWriteBehind) {
         this.chatMessageRepository = chatMessageRepository;
+        this.chatWriteBehind = chatWriteBehind;
     }
 
     public ChatMessage saveMessage(ChatMessage message) {
         return chatMessageRepository.save(message);
     }
 
+    /**
+     * Queues a message for batched persistence; never waits on the database.
+     */
+    public void recordMessage(Long roomId, Long senderId, String senderName, String text, LocalDateTime timestamp) {
+        chatWriteBehind.enqueue(roomId, senderId, senderName, text, timestamp);
+    }
+
+    /**
+     * Cursor that pages strictly before the given time, for messages that may not have an id yet.
+     */
+    public static String cursorBefore(LocalDateTime timestamp) {
+        return formatCursor(timestamp, 0);
+    }
+
+    static String formatCursor(LocalDateTime timestamp, long id) {
+        return timestamp + "_" + id;
+    }
+
+    /**
+     * Page size a client asked for, as text.
+     *
+     * @return 0 for a missing limit (the default page size)
+     * @throws IllegalArgumentException if the limit is not a whole number
+     */
+    public static int parseLimit(String limit) {
+        if (limit == null || limit.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid history limit: " + limit);
+        }
+    }
+
+    /**
+     * Position in the history, "timestamp_id"; a page holds the messages strictly older than it.
+     */
+    record HistoryCursor(LocalDateTime timestamp, long id) {
+
+        /**
+         * @return null for a missing cursor (the latest page)
+         * @throws IllegalArgumentException if the cursor is not one this service handed out
+         */
+        static HistoryCursor parse(String cursor) {
+            if (cursor == null || cursor.isEmpty()) {
+                return null;
+            }
+            int split = cursor.lastIndexOf('_');
+            try {
+                if (split <= 0) {
+                    throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+                }
+                return new HistoryCursor(LocalDateTime.parse(cursor.substring(0, split)),
+                        Long.parseLong(cursor.substring(split + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushPending() {
+        chatWriteBehind.flush();
+    }
+
     public List<ChatMessage> getMessagesByRoom(Long roomId) {
         return chatMessageRepository.findByRoomId(roomId);
     }
 
+    /**
+     * A page of room history older than the cursor (or the latest page if cursor is null).
+     * Each page is one index range scan, so cost does not grow with the size of the history.
+     *
+     * @param cursor nextCursor from a previous page, formatted "timestamp_id"
+     */
+    public ChatHistoryPage getHistory(Long roomId, String cursor, int limit) {
+        if (limit <= 0) {
+            limit = DEFAULT_HISTORY_PAGE;
+        }
+        limit = Math.min(limit, MAX_HISTORY_PAGE);
+
+        // Fetch one extra row to learn whether an older page exists
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<ChatHistoryEntry> rows;
+        HistoryCursor before = HistoryCursor.parse(cursor);
+        if (before != null) {
+            rows = chatMessageRepository.findBefore(roomId, before.timestamp(), before.id(), page);
+        } else {
+            rows = chatMessageRepository.findLatest(roomId, page);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            ChatHistoryEntry oldest = rows.get(limit - 1);
+            nextCursor = formatCursor(oldest.timestamp(), oldest.id());
+        }
+
+        List<ChatHistoryEntry> messages = new ArrayList<>(rows);
+        Collections.reverse(messages);
+        return new ChatHistoryPage(messages, nextCursor);
+    }
+
     public void deleteMessage(Long id) {
         chatMessageRepository.deleteById(id);
     }
@@ -0,0 +1,152 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.model.ChatMessage;
+import com.offficeVerse.repository.ChatMessageRepository;
+import com.offficeVerse.repository.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Persists chat messages off the delivery path.
+ *
+ * ChatSocket enqueues each message after broadcasting it. A scheduled flush drains the
+ * queue in JDBC batches (hibernate.jdbc.batch_size), each batch in its own transaction.
+ * If a batch fails, its rows are retried one at a time and only the rows that still fail
+ * are skipped. When the queue is full, new messages are dropped and counted instead of
+ * blocking the sender. Text longer than the message column is truncated when queued.
+ *
+ * Metrics: chat.persist.queue.size, chat.persist.enqueued, chat.persist.dropped,
+ * chat.persist.written, chat.persist.failed, chat.persist.flush
+ */
+@Component
+public class ChatWriteBehind {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final RoomRepository roomRepository;
+    private final RoomRegistry roomRegistry;
+    private final TransactionTemplate transactions;
+
+    private final BlockingQueue<PendingMessage> queue;
+    private final int batchSize;
+
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    private record PendingMessage(Long roomId, Long senderId, String senderName, String text,
+            LocalDateTime timestamp) {
+    }
+
+    public ChatWriteBehind(ChatMessageRepository chatMessageRepository, RoomRepository roomRepository,
+            RoomRegistry roomRegistry, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${chat.persist.queue-capacity:10000}") int capacity,
+            @Value("${chat.persist.batch-size:50}") int batchSize) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.roomRepository = roomRepository;
+        this.roomRegistry = roomRegistry;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+
+        meterRegistry.gauge("chat.persist.queue.size", queue, BlockingQueue::size);
+        this.enqueued = meterRegistry.counter("chat.persist.enqueued");
+        this.dropped = meterRegistry.counter("chat.persist.dropped");
+        this.written = meterRegistry.counter("chat.persist.written");
+        this.failed = meterRegistry.counter("chat.persist.failed");
+        this.flushTimer = meterRegistry.timer("chat.persist.flush");
+    }
+
+    /**
+     * Never blocks; returns false if the message was dropped because the queue is full.
+     */
+    public boolean enqueue(Long roomId, Long senderId, String senderName, String text, LocalDateTime timestamp) {
+        text = truncate(text, ChatMessage.MAX_MESSAGE_LENGTH);
+        if (queue.offer(new PendingMessage(roomId, senderId, senderName, text, timestamp))) {
+            enqueued.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.persist.flush-interval-ms:250}")
+    public void flush() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            List<PendingMessage> drained = new ArrayList<>(batchSize);
+            while (queue.drainTo(drained, batchSize) > 0) {
+                List<PendingMessage> batch = new ArrayList<>(drained.size());
+                for (PendingMessage pending : drained) {
+                    // Skip messages for rooms that were deleted in the meantime
+                    if (roomRegistry.get(pending.roomId()) != null) {
+                        batch.add(pending);
+                    }
+                }
+                try {
+                    save(batch);
+                    written.increment(batch.size());
+                } catch (Exception e) {
+                    System.err.println("Error persisting chat batch, retrying row by row: " + e.getMessage());
+                    saveIndividually(batch);
+                }
+                drained.clear();
+            }
+        });
+    }
+
+    // One transaction per message, so a bad row only loses itself
+    private void saveIndividually(List<PendingMessage> batch) {
+        for (PendingMessage pending : batch) {
+            try {
+                save(List.of(pending));
+                written.increment();
+            } catch (Exception e) {
+                failed.increment();
+                System.err.println("Skipping chat message for room " + pending.roomId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void save(List<PendingMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactions.executeWithoutResult(status -> {
+            List<ChatMessage> messages = new ArrayList<>(batch.size());
+            for (PendingMessage pending : batch) {
+                messages.add(new ChatMessage(pending.senderId(), pending.senderName(), pending.text(),
+                        roomRepository.getReferenceById(pending.roomId()), pending.timestamp()));
+            }
+            chatMessageRepository.saveAll(messages);
+            chatMessageRepository.flush();
+        });
+    }
+
+    // Cuts on a code point boundary so a surrogate pair is never split
+    static String truncate(String text, int maxLength) {
+        if (text == null || text.length() <= maxLength) {
+            return text;
+        }
+        int end = maxLength;
+        if (Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+}
@@ -0,0 +1,297 @@
+package com.offficeVerse.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Queues AI prompts from the zones and runs at most genai.jobs.max-concurrent of them at a time.
+ *
+ * Every room has its own queue, holding at most genai.jobs.max-queued-per-room jobs. A prompt
+ * from a player with nothing else waiting in the room goes ahead of follow-up prompts from
+ * players who already have one queued. Free slots are handed out round-robin across rooms.
+ * A busy room therefore gets one slot per turn and cannot starve the others. Queued jobs
+ * are told their position in the room's queue whenever it changes. A job can be cancelled
+ * while queued or running; cancelling a running job closes its provider call and frees its slot
+ * at once, without waiting for the next token.
+ */
+@Component
+public class GenAIJobScheduler {
+
+    /**
+     * Callbacks for one job. After a job is cancelled, only onCancelled is called.
+     */
+    public interface Listener {
+        void onQueued(long jobId, int position);
+
+        void onStarted(long jobId);
+
+        void onToken(long jobId, String token);
+
+        void onDone(long jobId, String response);
+
+        void onError(long jobId, String error);
+
+        void onCancelled(long jobId);
+    }
+
+    private static final class Job {
+        final long id;
+        final Long roomId;
+        final Long playerId;
+        final String zoneId;
+        final String prompt;
+        final boolean useCache;
+        final Listener listener;
+        volatile boolean cancelled;
+        // Set once the job has started
+        volatile CompletableFuture<String> call;
+
+        Job(long id, Long roomId, Long playerId, String zoneId, String prompt, boolean useCache, Listener listener) {
+            this.id = id;
+            this.roomId = roomId;
+            this.playerId = playerId;
+            this.zoneId = zoneId;
+            this.prompt = prompt;
+            this.useCache = useCache;
+            this.listener = listener;
+        }
+    }
+
+    private static final class RoomQueue {
+        // First prompts of players with nothing else queued, then their follow-ups
+        final Deque<Job> high = new ArrayDeque<>();
+        final Deque<Job> normal = new ArrayDeque<>();
+
+        boolean isWaiting(Long playerId) {
+            for (Job job : high) {
+                if (job.playerId.equals(playerId)) {
+                    return true;
+                }
+            }
+            for (Job job : normal) {
+                if (job.playerId.equals(playerId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int size() {
+            return high.size() + normal.size();
+        }
+
+        Job poll() {
+            Job job = high.poll();
+            return job != null ? job : normal.poll();
+        }
+    }
+
+    private final genAIService genaiService;
+    private final int maxConcurrent;
+    private final int maxQueuedPerRoom;
+
+    private final Counter rejected;
+    private final Counter cancelledJobs;
+
+    // Everything below is guarded by "this"
+    private long nextJobId = 1;
+    private final Map<Long, RoomQueue> queues = new HashMap<>();
+    // Rooms with queued jobs, in the order they get their next turn
+    private final Deque<Long> turns = new ArrayDeque<>();
+    private final Map<Long, Job> jobs = new HashMap<>();
+    private int running;
+
+    public GenAIJobScheduler(genAIService genaiService, MeterRegistry meterRegistry,
+            @Value("${genai.jobs.max-concurrent:4}") int maxConcurrent,
+            @Value("${genai.jobs.max-queued-per-room:20}") int maxQueuedPerRoom) {
+        this.genaiService = genaiService;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueuedPerRoom = maxQueuedPerRoom;
+
+        meterRegistry.gauge("genai.jobs.running", this, GenAIJobScheduler::runningCount);
+        meterRegistry.gauge("genai.jobs.queued", this, GenAIJobScheduler::queuedCount);
+        this.rejected = meterRegistry.counter("genai.jobs.rejected");
+        this.cancelledJobs = meterRegistry.counter("genai.jobs.cancelled");
+    }
+
+    /**
+     * Queues a prompt for the room. Returns the job id, or -1 if the player is not in a room or
+     * the room's queue is full (the listener then gets onError).
+     */
+    public long submit(Long roomId, Long playerId, String zoneId, String prompt, boolean useCache, Listener listener) {
+        if (roomId == null) {
+            listener.onError(-1, "Join a room before asking the AI.");
+            return -1;
+        }
+        List<Runnable> notifications = new ArrayList<>();
+        long jobId;
+        synchronized (this) {
+            RoomQueue queue = queues.get(roomId);
+            if (queue != null && queue.size() >= maxQueuedPerRoom) {
+                rejected.increment();
+                jobId = -1;
+            } else {
+                if (queue == null) {
+                    queue = new RoomQueue();
+                    queues.put(roomId, queue);
+                }
+                Job job = new Job(nextJobId++, roomId, playerId, zoneId, prompt, useCache, listener);
+                jobs.put(job.id, job);
+                (queue.isWaiting(playerId) ? queue.normal : queue.high).add(job);
+                if (!turns.contains(roomId)) {
+                    turns.add(roomId);
+                }
+                jobId = job.id;
+                // A job that starts right away never reports a queue position
+                dispatch(notifications);
+                positions(roomId, notifications);
+            }
+        }
+        if (jobId < 0) {
+            listener.onError(-1, "Too many AI requests queued in this room. Please try again later.");
+        }
+        notifications.forEach(Runnable::run);
+        return jobId;
+    }
+
+    /**
+     * Cancels one job if it belongs to the player.
+     */
+    public void cancel(long jobId, Long playerId) {
+        cancelMatching(job -> job.id == jobId && job.playerId.equals(playerId));
+    }
+
+    /**
+     * Cancels the player's jobs from one zone, or from every zone when zoneId is null.
+     */
+    public void cancelPlayer(Long playerId, String zoneId) {
+        cancelMatching(job -> job.playerId.equals(playerId) && (zoneId == null || zoneId.equals(job.zoneId)));
+    }
+
+    private void cancelMatching(Predicate<Job> matches) {
+        List<Runnable> notifications = new ArrayList<>();
+        synchronized (this) {
+            Set<Long> changedRooms = new HashSet<>();
+            for (Job job : new ArrayList<>(jobs.values())) {
+                if (!matches.test(job) || job.cancelled) {
+                    continue;
+                }
+                job.cancelled = true;
+                cancelledJobs.increment();
+                notifications.add(() -> job.listener.onCancelled(job.id));
+
+                // Queued jobs leave their queue now; running ones are removed when their call ends
+                RoomQueue queue = queues.get(job.roomId);
+                if (queue != null && (queue.high.remove(job) || queue.normal.remove(job))) {
+                    jobs.remove(job.id);
+                    changedRooms.add(job.roomId);
+                    if (queue.size() == 0) {
+                        queues.remove(job.roomId);
+                        turns.remove(job.roomId);
+                    }
+                } else if (job.call != null) {
+                    // Ends the call now, so finish() runs and the slot is free
+                    CompletableFuture<String> call = job.call;
+                    notifications.add(() -> call.cancel(true));
+                }
+            }
+            for (Long roomId : changedRooms) {
+                positions(roomId, notifications);
+            }
+        }
+        notifications.forEach(Runnable::run);
+    }
+
+    // Starts jobs while slots are free, taking one job from each room in turn
+    private void dispatch(List<Runnable> notifications) {
+        while (running < maxConcurrent && !turns.isEmpty()) {
+            Long roomId = turns.poll();
+            RoomQueue queue = queues.get(roomId);
+            Job job = queue.poll();
+            if (queue.size() == 0) {
+                queues.remove(roomId);
+            } else {
+                turns.add(roomId);
+                positions(roomId, notifications);
+            }
+            running++;
+            notifications.add(() -> start(job));
+        }
+    }
+
+    private void start(Job job) {
+        if (job.cancelled) {
+            finish(job);
+            return;
+        }
+        job.listener.onStarted(job.id);
+        CompletableFuture<String> call = genaiService.streamResponseAsync(job.prompt, job.useCache, token -> {
+            if (job.cancelled) {
+                throw new CancellationException("AI job " + job.id + " cancelled");
+            }
+            job.listener.onToken(job.id, token);
+        });
+        job.call = call;
+        if (job.cancelled) {
+            // Cancelled while starting, before the call could be seen
+            call.cancel(true);
+        }
+        call.whenComplete((response, e) -> {
+            finish(job);
+            if (job.cancelled) {
+                return;
+            }
+            if (e == null) {
+                job.listener.onDone(job.id, response);
+            } else {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                job.listener.onError(job.id, cause.getMessage());
+            }
+        });
+    }
+
+    private void finish(Job job) {
+        List<Runnable> notifications = new ArrayList<>();
+        synchronized (this) {
+            jobs.remove(job.id);
+            running--;
+            dispatch(notifications);
+        }
+        notifications.forEach(Runnable::run);
+    }
+
+    private void positions(Long roomId, List<Runnable> notifications) {
+        RoomQueue queue = queues.get(roomId);
+        if (queue == null) {
+            return;
+        }
+        int position = 1;
+        for (Job job : queue.high) {
+            int p = position++;
+            notifications.add(() -> job.listener.onQueued(job.id, p));
+        }
+        for (Job job : queue.normal) {
+            int p = position++;
+            notifications.add(() -> job.listener.onQueued(job.id, p));
+        }
+    }
+
+    private synchronized int runningCount() {
+        return running;
+    }
+
+    private synchronized int queuedCount() {
+        int queued = 0;
+        for (RoomQueue queue : queues.values()) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+}
@@ -0,0 +1,20 @@
+package com.offficeVerse.service;
+
+/**
+ * A GenAI call that failed with an HTTP status, either from the provider or from
+ * {@link GenAIProviderGuard} refusing to send it (429 or 503). A provider that answers
+ * with no text is reported as 502.
+ */
+public class GenAIProviderException extends Exception {
+
+    private final int status;
+
+    public GenAIProviderException(String message, int status) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
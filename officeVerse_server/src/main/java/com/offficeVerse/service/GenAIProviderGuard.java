@@ -0,0 +1,155 @@
+package com.offficeVerse.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Protects the GenAI provider and this server from each other.
+ *
+ * Token bucket: genai.rate.burst calls can go out at once. After that, calls are allowed at
+ * genai.rate.per-minute. Calls over the limit fail at once with 429 instead of
+ * reaching the provider. A 429 from the provider empties the bucket.
+ *
+ * Circuit breaker: genai.breaker.failure-threshold provider failures in a row open the
+ * breaker for genai.breaker.open-seconds. Failures are timeouts, connection errors, 5xx and
+ * 429. While the breaker is open, every call fails at once with 503. After that, one trial
+ * call is let through. If it succeeds the breaker closes; if it fails the breaker opens again.
+ */
+@Component
+public class GenAIProviderGuard {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final double capacity;
+    private final double refillPerMilli;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final Counter rateLimited;
+    private final Counter shortCircuited;
+    private final Counter opened;
+
+    // Everything below is guarded by "this"
+    private double tokens;
+    private long lastRefill = System.currentTimeMillis();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public GenAIProviderGuard(MeterRegistry meterRegistry,
+            @Value("${genai.rate.burst:10}") int burst,
+            @Value("${genai.rate.per-minute:60}") int perMinute,
+            @Value("${genai.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${genai.breaker.open-seconds:30}") long openSeconds) {
+        this.capacity = burst;
+        this.tokens = burst;
+        this.refillPerMilli = perMinute / 60000.0;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openSeconds * 1000;
+
+        meterRegistry.gauge("genai.breaker.state", this, guard -> guard.getState().ordinal());
+        this.rateLimited = meterRegistry.counter("genai.rate.limited");
+        this.shortCircuited = meterRegistry.counter("genai.breaker.rejected");
+        this.opened = meterRegistry.counter("genai.breaker.opened");
+    }
+
+    /**
+     * Runs the provider call if the breaker and the bucket allow it, and records how it went.
+     */
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> providerCall) {
+        GenAIProviderException refused = admit();
+        if (refused != null) {
+            return CompletableFuture.failedFuture(refused);
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = providerCall.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, e) -> {
+            if (e == null) {
+                onSuccess();
+            } else {
+                onFailure(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+    }
+
+    private synchronized GenAIProviderException admit() {
+        long now = System.currentTimeMillis();
+
+        if (state == State.OPEN) {
+            if (now - openedAt < openMillis) {
+                shortCircuited.increment();
+                return new GenAIProviderException("AI service is temporarily unavailable. Please try again shortly.", 503);
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                shortCircuited.increment();
+                return new GenAIProviderException("AI service is temporarily unavailable. Please try again shortly.", 503);
+            }
+        }
+
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMilli);
+        lastRefill = now;
+        if (tokens < 1) {
+            rateLimited.increment();
+            return new GenAIProviderException("Rate limit exceeded. Please try again later.", 429);
+        }
+        tokens -= 1;
+
+        if (state == State.HALF_OPEN) {
+            trialInFlight = true;
+        }
+        return null;
+    }
+
+    private synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    private synchronized void onFailure(Throwable e) {
+        trialInFlight = false;
+
+        int status = e instanceof GenAIProviderException p ? p.getStatus() : 0;
+        if (status == 429) {
+            tokens = 0;
+        } else if (status >= 400 && status < 500) {
+            // Bad key or bad request: the provider itself is fine
+            if (state == State.HALF_OPEN) {
+                state = State.CLOSED;
+            }
+            consecutiveFailures = 0;
+            return;
+        }
+
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                System.err.println("GenAI circuit breaker opened after " + consecutiveFailures
+                        + " failures: " + e.getMessage());
+                opened.increment();
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,102 @@
+package com.offficeVerse.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bounded cache of provider answers in front of {@link genAIService}.
+ *
+ * Keys are provider + model + the normalized prompt (trimmed, whitespace collapsed,
+ * lower-cased). Entries expire after genai.cache.ttl-seconds. Once genai.cache.max-entries
+ * is reached, the least recently used entry is evicted. Only successful answers are stored.
+ */
+@Component
+public class GenAIResponseCache {
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private record CachedResponse(String response, long expiresAt) {
+    }
+
+    // Access-ordered, so the eldest entry is the least recently used one; guarded by "this"
+    private final LinkedHashMap<String, CachedResponse> entries;
+
+    public GenAIResponseCache(MeterRegistry meterRegistry,
+            @Value("${genai.cache.enabled:true}") boolean enabled,
+            @Value("${genai.cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${genai.cache.max-entries:500}") int maxEntries) {
+        this.enabled = enabled;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() > GenAIResponseCache.this.maxEntries) {
+                    GenAIResponseCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        meterRegistry.gauge("genai.cache.size", this, GenAIResponseCache::size);
+        this.hits = meterRegistry.counter("genai.cache.hits");
+        this.misses = meterRegistry.counter("genai.cache.misses");
+        this.evictions = meterRegistry.counter("genai.cache.evictions");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static String key(String provider, String model, String prompt) {
+        String normalized = prompt.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return provider + "|" + model + "|" + normalized;
+    }
+
+    /**
+     * Returns the cached answer, or null on a miss or an expired entry.
+     */
+    public synchronized String get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        CachedResponse cached = entries.get(key);
+        if (cached == null || cached.expiresAt() <= System.currentTimeMillis()) {
+            if (cached != null) {
+                entries.remove(key);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.response();
+    }
+
+    public synchronized void put(String key, String response) {
+        if (!enabled || response == null || response.isBlank()) {
+            return;
+        }
+        entries.put(key, new CachedResponse(response, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,109 @@
+package com.offficeVerse.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * One streamed provider answer shared by every caller that asked the same prompt while it runs.
+ *
+ * Tokens go to all callers in order. A caller that joins late first gets everything streamed
+ * so far as one token. A caller whose onToken throws, or who cancels, only drops out itself;
+ * the provider call is cancelled once no caller is left.
+ */
+final class GenAISharedStream {
+
+    private record Caller(Consumer<String> onToken, CompletableFuture<String> answer) {
+    }
+
+    // Everything below is guarded by "this"
+    private final StringBuilder streamed = new StringBuilder();
+    private final List<Caller> callers = new ArrayList<>();
+    private CompletableFuture<String> call;
+    private boolean done;
+    private String text;
+    private Throwable failure;
+
+    /**
+     * Adds a caller. Its future completes with the whole answer, or fails with the stream.
+     */
+    synchronized CompletableFuture<String> join(Consumer<String> onToken) {
+        CompletableFuture<String> answer = new CompletableFuture<>();
+        if (!streamed.isEmpty() && !deliver(onToken, streamed.toString(), answer)) {
+            return answer;
+        }
+        if (done) {
+            if (failure != null) {
+                answer.completeExceptionally(failure);
+            } else {
+                answer.complete(text);
+            }
+            return answer;
+        }
+        Caller caller = new Caller(onToken, answer);
+        callers.add(caller);
+        answer.whenComplete((result, e) -> {
+            if (answer.isCancelled()) {
+                leave(caller);
+            }
+        });
+        return answer;
+    }
+
+    /**
+     * The provider call feeding this stream; cancelled if every caller already left.
+     */
+    synchronized void start(CompletableFuture<String> call) {
+        this.call = call;
+        if (callers.isEmpty() && !done) {
+            call.cancel(true);
+        }
+    }
+
+    /**
+     * Passes one token from the provider to every caller.
+     */
+    synchronized void token(String token) {
+        streamed.append(token);
+        for (Caller caller : new ArrayList<>(callers)) {
+            if (!deliver(caller.onToken(), token, caller.answer())) {
+                leave(caller);
+            }
+        }
+    }
+
+    /**
+     * Completes every remaining caller with the provider's result.
+     */
+    synchronized void finish(String text, Throwable failure) {
+        done = true;
+        this.text = text;
+        this.failure = failure;
+        for (Caller caller : callers) {
+            if (failure != null) {
+                caller.answer().completeExceptionally(failure);
+            } else {
+                caller.answer().complete(text);
+            }
+        }
+        callers.clear();
+    }
+
+    // A failing onToken fails that caller's answer only
+    private static boolean deliver(Consumer<String> onToken, String token, CompletableFuture<String> answer) {
+        try {
+            onToken.accept(token);
+            return true;
+        } catch (RuntimeException e) {
+            answer.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    private synchronized void leave(Caller caller) {
+        if (callers.remove(caller) && callers.isEmpty() && !done && call != null) {
+            call.cancel(true);
+        }
+    }
+}
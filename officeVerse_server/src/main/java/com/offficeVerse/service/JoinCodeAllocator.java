@@ -0,0 +1,79 @@
+package com.offficeVerse.service;
+
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out unique room join codes and resolves codes back to room ids from memory.
+ *
+ * A new code is claimed with putIfAbsent, so two rooms created at once can never get the
+ * same code. Uniqueness needs no database lookup. The unique index on rooms.join_code
+ * is only a backstop.
+ */
+@Component
+public class JoinCodeAllocator {
+
+    private static final String CHARACTERS = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789"; // Removed ambiguous characters
+    private static final int CODE_LENGTH = 6;
+
+    // Placeholder for a code claimed by a room that is not saved yet
+    private static final Long RESERVED = -1L;
+
+    private final Random random;
+
+    // Map<JoinCode, RoomID or RESERVED>
+    private final Map<String, Long> codes = new ConcurrentHashMap<>();
+
+    public JoinCodeAllocator() {
+        this(new SecureRandom());
+    }
+
+    // Tests pass a scripted Random to force collisions
+    JoinCodeAllocator(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Claims a fresh code. Call {@link #bind} once the room has an id, or
+     * {@link #release} if it is never saved.
+     */
+    public String reserve() {
+        while (true) {
+            char[] code = new char[CODE_LENGTH];
+            for (int i = 0; i < CODE_LENGTH; i++) {
+                code[i] = CHARACTERS.charAt(random.nextInt(CHARACTERS.length()));
+            }
+            String candidate = new String(code);
+            if (codes.putIfAbsent(candidate, RESERVED) == null) {
+                return candidate;
+            }
+        }
+    }
+
+    public void bind(String code, Long roomId) {
+        if (code != null && roomId != null) {
+            codes.put(code, roomId);
+        }
+    }
+
+    public void release(String code) {
+        if (code != null) {
+            codes.remove(code);
+        }
+    }
+
+    /**
+     * @return the room id for the code, or null if unknown or still reserved
+     */
+    public Long lookup(String code) {
+        if (code == null) {
+            return null;
+        }
+        Long roomId = codes.get(code.trim().toUpperCase());
+        return RESERVED.equals(roomId) ? null : roomId;
+    }
+}
@@ -0,0 +1,121 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.model.Player;
+import com.offficeVerse.model.Room;
+import com.offficeVerse.repository.PlayerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Inserts new players in groups instead of one transaction per login.
+ *
+ * Callers wait while their player is queued; a scheduled flush inserts everything queued
+ * in JDBC batches (ids come from the pooled player_seq, so no round trip per row) and
+ * hands each caller its player once the transaction has committed. During a login burst
+ * this turns hundreds of single-row inserts into a few batches, at the cost of up to
+ * player.create.flush-interval-ms of extra latency per new player.
+ *
+ * Metrics: player.create.queue.size, player.create.written, player.create.failed, player.create.flush
+ */
+@Component
+public class PlayerCreationBatcher {
+
+    private final PlayerRepository playerRepository;
+
+    private final BlockingQueue<PendingPlayer> queue;
+    private final int batchSize;
+    private final long timeoutMs;
+
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    private record PendingPlayer(Player player, CompletableFuture<Player> result) {
+    }
+
+    public PlayerCreationBatcher(PlayerRepository playerRepository, MeterRegistry meterRegistry,
+            @Value("${player.create.queue-capacity:5000}") int capacity,
+            @Value("${player.create.batch-size:50}") int batchSize,
+            @Value("${player.create.timeout-ms:5000}") long timeoutMs) {
+        this.playerRepository = playerRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.timeoutMs = timeoutMs;
+
+        meterRegistry.gauge("player.create.queue.size", queue, BlockingQueue::size);
+        this.written = meterRegistry.counter("player.create.written");
+        this.failed = meterRegistry.counter("player.create.failed");
+        this.flushTimer = meterRegistry.timer("player.create.flush");
+    }
+
+    /**
+     * Queues the player and waits until it has been inserted.
+     *
+     * @throws IllegalStateException if the queue is full, the insert failed or it timed out
+     */
+    public Player create(Player player) {
+        PendingPlayer pending = new PendingPlayer(player, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new IllegalStateException("Too many players being created, try again");
+        }
+        try {
+            return pending.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating player", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not create player " + player.getName(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${player.create.flush-interval-ms:20}")
+    @Transactional("transactionManager")
+    public void flush() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        List<PendingPlayer> flushed = new ArrayList<>();
+
+        // Callers may use the ids right away, so they only get them once the rows are visible;
+        // a failed batch rolls the whole flush back and fails every caller in it
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    written.increment(flushed.size());
+                    flushed.forEach(pending -> pending.result().complete(pending.player()));
+                } else {
+                    failed.increment(flushed.size());
+                    System.err.println("Error persisting " + flushed.size() + " new players");
+                    IllegalStateException error = new IllegalStateException("Player insert rolled back");
+                    flushed.forEach(pending -> pending.result().completeExceptionally(error));
+                }
+            }
+        });
+
+        flushTimer.record(() -> {
+            List<PendingPlayer> drained = new ArrayList<>(batchSize);
+            while (queue.drainTo(drained, batchSize) > 0) {
+                flushed.addAll(drained);
+                List<Player> batch = new ArrayList<>(drained.size());
+                for (PendingPlayer pending : drained) {
+                    batch.add(pending.player());
+                }
+                playerRepository.saveAll(batch);
+                playerRepository.flush();
+                drained.clear();
+            }
+        });
+    }
+}
@@ -5,20 +5,46 @@ import com.offficeVerse.model.Room;
 import com.offficeVerse.repository.PlayerRepository;
 import org.springframework.stereotype.Service;
 
+import java.security.SecureRandom;
+import java.util.Base64;
 import java.util.Optional;
 
 @Service
 public class PlayerService {
 
     private final PlayerRepository playerRepository;
+    private final PlayerCreationBatcher creationBatcher;
+    private final SecureRandom random = new SecureRandom();
 
-    public PlayerService(PlayerRepository playerRepository) {
+    public PlayerService(PlayerRepository playerRepository, PlayerCreationBatcher creationBatcher) {
         this.playerRepository = playerRepository;
+        this.creationBatcher = creationBatcher;
     }
 
+    /**
+     * Creates a player with a fresh identity token; inserted together with other new players.
+     */
     public Player createPlayer(String name, Room room) {
-        Player player = new Player(name, room);
-        return playerRepository.save(player); // persist in DB
+        return creationBatcher.create(new Player(name, room, newIdentityToken()));
+    }
+
+    /**
+     * Returns the player the identity token belongs to, renamed if needed, or creates a new one
+     * if the token is missing or unknown.
+     */
+    public Player resolvePlayer(String identityToken, String name) {
+        if (identityToken != null && !identityToken.isBlank()) {
+            Optional<Player> existing = playerRepository.findByIdentityToken(identityToken);
+            if (existing.isPresent()) {
+                Player player = existing.get();
+                if (name != null && !name.equals(player.getName())) {
+                    player.setName(name);
+                    player = playerRepository.save(player);
+                }
+                return player;
+            }
+        }
+        return createPlayer(name, null);
     }
 
     public Player savePlayer(Player player) {
@@ -33,4 +59,10 @@ public class PlayerService {
     public void deletePlayer(Long id) {
         playerRepository.deleteById(id);
     }
+
+    private String newIdentityToken() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
 }
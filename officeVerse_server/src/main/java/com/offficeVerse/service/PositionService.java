@@ -1,30 +1,62 @@
 package com.offficeVerse.service;
 
-import com.offficeVerse.model.Position;
+import com.offficeVerse.model.PlayerPosition;
 import com.offficeVerse.repository.PositionRepository;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Last known position of every connected player, fed by the movement stream and
+ * written to the database by {@link PositionWriteBehind}. Reads are served from memory
+ * and fall back to the database for players who are not connected.
+ */
 @Service
 public class PositionService {
 
     private final PositionRepository positionRepository;
+    private final PositionWriteBehind writeBehind;
 
-    public PositionService(PositionRepository positionRepository) {
+    // Map<PlayerID, PlayerPosition>
+    private final Map<Long, PlayerPosition> lastKnown = new ConcurrentHashMap<>();
+
+    public PositionService(PositionRepository positionRepository, PositionWriteBehind writeBehind) {
         this.positionRepository = positionRepository;
+        this.writeBehind = writeBehind;
     }
 
-    public Position savePosition(Position position) {
-        return positionRepository.save(position);
+    /**
+     * Records a position without touching the database; called for every movement update.
+     */
+    public void record(Long playerId, int x, int y) {
+        PlayerPosition previous = lastKnown.get(playerId);
+        if (previous != null && previous.x() == x && previous.y() == y) {
+            return;
+        }
+        PlayerPosition position = new PlayerPosition(playerId, x, y);
+        lastKnown.put(playerId, position);
+        writeBehind.record(position);
     }
 
-    public Position getPosition(Long id) {
-        Optional<Position> position = positionRepository.findById(id);
-        return position.orElse(null);
+    /**
+     * @return the player's last position, or null if they never moved
+     */
+    public PlayerPosition getLastPosition(Long playerId) {
+        PlayerPosition position = lastKnown.get(playerId);
+        if (position == null) {
+            position = writeBehind.pending(playerId);
+        }
+        if (position == null) {
+            position = positionRepository.findLastPosition(playerId).orElse(null);
+        }
+        return position;
     }
 
-    public void deletePosition(Long id) {
-        positionRepository.deleteById(id);
+    /**
+     * Drops the cached position of a player who disconnected; an unwritten change is still flushed.
+     */
+    public void forget(Long playerId) {
+        lastKnown.remove(playerId);
     }
 }
@@ -0,0 +1,106 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.model.PlayerPosition;
+import com.offficeVerse.model.Position;
+import com.offficeVerse.repository.PlayerRepository;
+import com.offficeVerse.repository.PositionRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batches position changes recorded by {@link PositionService} into periodic upserts.
+ *
+ * Only the latest position per player is kept between flushes, so a player walking
+ * for a whole interval costs one row update. Each flush loads the existing rows for
+ * the changed players in one query, updates them and inserts rows for the rest.
+ *
+ * A position stays pending until the transaction that writes it commits, so a failed
+ * flush loses nothing and reads keep seeing it meanwhile. If the batch fails, players
+ * are retried one at a time; the ones that still fail wait for the next flush.
+ */
+@Component
+public class PositionWriteBehind {
+
+    private final PositionRepository positionRepository;
+    private final PlayerRepository playerRepository;
+    private final TransactionTemplate transactions;
+
+    // Map<PlayerID, latest position not yet written>
+    private final Map<Long, PlayerPosition> pending = new ConcurrentHashMap<>();
+
+    public PositionWriteBehind(PositionRepository positionRepository, PlayerRepository playerRepository,
+            PlatformTransactionManager transactionManager) {
+        this.positionRepository = positionRepository;
+        this.playerRepository = playerRepository;
+        this.transactions = new TransactionTemplate(transactionManager);
+    }
+
+    void record(PlayerPosition position) {
+        pending.put(position.playerId(), position);
+    }
+
+    PlayerPosition pending(Long playerId) {
+        return pending.get(playerId);
+    }
+
+    @Scheduled(fixedDelayString = "${position.write-behind.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<PlayerPosition> batch = new ArrayList<>(pending.values());
+        try {
+            save(batch);
+            written(batch);
+        } catch (Exception e) {
+            System.err.println("Error flushing positions, retrying player by player: " + e.getMessage());
+            for (PlayerPosition position : batch) {
+                try {
+                    save(List.of(position));
+                    written(List.of(position));
+                } catch (Exception rowError) {
+                    System.err.println("Keeping position of player " + position.playerId()
+                            + " for the next flush: " + rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    // Positions recorded while the write was running are newer and stay pending
+    private void written(List<PlayerPosition> positions) {
+        for (PlayerPosition position : positions) {
+            pending.remove(position.playerId(), position);
+        }
+    }
+
+    private void save(List<PlayerPosition> positions) {
+        transactions.executeWithoutResult(status -> {
+            Map<Long, PlayerPosition> byPlayer = new HashMap<>();
+            for (PlayerPosition position : positions) {
+                byPlayer.put(position.playerId(), position);
+            }
+
+            List<Position> rows = positionRepository.findByPlayerIds(byPlayer.keySet());
+            for (Position row : rows) {
+                PlayerPosition position = byPlayer.remove(row.getPlayer().getId());
+                row.setX(position.x());
+                row.setY(position.y());
+            }
+
+            // Movement ids come from the client, so skip ones with no player row
+            if (!byPlayer.isEmpty()) {
+                for (Long playerId : playerRepository.findExistingIds(byPlayer.keySet())) {
+                    PlayerPosition position = byPlayer.get(playerId);
+                    rows.add(new Position(position.x(), position.y(), playerRepository.getReferenceById(playerId)));
+                }
+            }
+            positionRepository.saveAll(rows);
+        });
+    }
+}
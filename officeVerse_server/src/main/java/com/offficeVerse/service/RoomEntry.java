@@ -0,0 +1,59 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.model.Room;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * In-memory view of a room held by {@link RoomRegistry}.
+ * Membership and ready flags are only read or written under the registry's lock for this room;
+ * the player count is published separately so list views can read it without locking.
+ */
+public class RoomEntry {
+
+    private final Long id;
+    private final String name;
+    private final String roomType;
+    private final int maxPlayers;
+    private final boolean isPrivate;
+    private final String joinCode;
+    private final LocalDateTime createdAt;
+    private volatile Long hostId;
+    private volatile int playerCount;
+
+    // Guarded by the registry's lock for this room: Map<PlayerID, PlayerName>
+    final Map<Long, String> members = new LinkedHashMap<>();
+    final Map<Long, Boolean> readyStatus = new HashMap<>();
+
+    RoomEntry(Room room) {
+        this(room.getId(), room.getName(), room.getRoomType(), room.getMaxPlayers(), room.isPrivate(),
+                room.getJoinCode(), room.getCreatedAt(), room.getHostId());
+    }
+
+    RoomEntry(Long id, String name, String roomType, int maxPlayers, boolean isPrivate, String joinCode,
+            LocalDateTime createdAt, Long hostId) {
+        this.id = id;
+        this.name = name;
+        this.roomType = roomType;
+        this.maxPlayers = maxPlayers;
+        this.isPrivate = isPrivate;
+        this.joinCode = joinCode;
+        this.createdAt = createdAt;
+        this.hostId = hostId;
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getRoomType() { return roomType; }
+    public int getMaxPlayers() { return maxPlayers; }
+    public boolean isPrivate() { return isPrivate; }
+    public String getJoinCode() { return joinCode; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getHostId() { return hostId; }
+    public int getPlayerCount() { return playerCount; }
+
+    void setHostId(Long hostId) { this.hostId = hostId; }
+
+    void updatePlayerCount() { this.playerCount = members.size(); }
+}
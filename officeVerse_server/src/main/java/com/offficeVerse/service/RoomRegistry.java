@@ -0,0 +1,388 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.model.Player;
+import com.offficeVerse.model.Room;
+import com.offficeVerse.repository.RoomRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Authoritative in-memory state for every room: membership, host, capacity and join code.
+ *
+ * Rooms are loaded once at startup and after that all reads and membership changes are
+ * served from memory. Changes to a room are serialized by one of a fixed set of striped
+ * locks, and membership changes are written to the database by {@link RoomWriteBehind}.
+ * Membership, host and ready flags follow a room when its owner node changes.
+ */
+@Component
+public class RoomRegistry implements RoomStateParticipant {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final RoomRepository roomRepository;
+    private final RoomWriteBehind writeBehind;
+    private final JoinCodeAllocator joinCodes;
+
+    // Map<RoomID, RoomEntry>
+    private final Map<Long, RoomEntry> rooms = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    // Rooms added, removed or resized since the last drainChanges()
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    private final List<Consumer<Long>> removeListeners = new CopyOnWriteArrayList<>();
+
+    public RoomRegistry(RoomRepository roomRepository, RoomWriteBehind writeBehind, JoinCodeAllocator joinCodes) {
+        this.roomRepository = roomRepository;
+        this.writeBehind = writeBehind;
+        this.joinCodes = joinCodes;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(value = "transactionManager", readOnly = true)
+    public void loadRooms() {
+        for (Room room : roomRepository.findAllWithPlayers()) {
+            register(room);
+        }
+        System.out.println("Room registry loaded " + rooms.size() + " rooms");
+    }
+
+    /**
+     * Calls the listener with the id of every room dropped from the registry, whether its last
+     * member left, it was deleted, or its owner node removed it.
+     */
+    public void onRemove(Consumer<Long> listener) {
+        removeListeners.add(listener);
+    }
+
+    /**
+     * Adds a persisted room (and any players already in it) to the registry.
+     */
+    public RoomEntry register(Room room) {
+        RoomEntry entry = new RoomEntry(room);
+        ReentrantLock lock = lockFor(room.getId());
+        lock.lock();
+        try {
+            if (room.getPlayers() != null) {
+                for (Player player : room.getPlayers()) {
+                    entry.members.put(player.getId(), player.getName());
+                }
+            }
+            entry.updatePlayerCount();
+            rooms.put(room.getId(), entry);
+            joinCodes.bind(room.getJoinCode(), room.getId());
+        } finally {
+            lock.unlock();
+        }
+        changed.add(room.getId());
+        return entry;
+    }
+
+    /**
+     * Drops a room without queueing a delete; used when the caller deletes it itself.
+     */
+    public void remove(Long roomId) {
+        RoomEntry entry = rooms.remove(roomId);
+        if (entry != null) {
+            joinCodes.release(entry.getJoinCode());
+            changed.add(roomId);
+            fireRemove(roomId);
+        }
+    }
+
+    public RoomEntry get(Long roomId) {
+        return roomId != null ? rooms.get(roomId) : null;
+    }
+
+    public Collection<RoomEntry> all() {
+        return rooms.values();
+    }
+
+    public RoomEntry findByCode(String code) {
+        return get(joinCodes.lookup(code));
+    }
+
+    /**
+     * @return false if the room does not exist or is full
+     */
+    public boolean join(Long roomId, Long playerId, String playerName) {
+        while (true) {
+            RoomEntry entry = get(roomId);
+            if (entry == null || playerId == null) {
+                return false;
+            }
+            ReentrantLock lock = lockFor(roomId);
+            lock.lock();
+            try {
+                // The last member may have left (and the room been re-imported) before the lock was taken
+                if (rooms.get(roomId) != entry) {
+                    continue;
+                }
+                if (entry.members.containsKey(playerId)) {
+                    return true;
+                }
+                if (entry.members.size() >= entry.getMaxPlayers()) {
+                    return false;
+                }
+                entry.members.put(playerId, playerName);
+                entry.updatePlayerCount();
+                break;
+            } finally {
+                lock.unlock();
+            }
+        }
+        changed.add(roomId);
+        writeBehind.assign(playerId, roomId);
+        return true;
+    }
+
+    /**
+     * Removes the player; the room itself is dropped once its last member leaves.
+     */
+    public void leave(Long roomId, Long playerId) {
+        boolean empty;
+        while (true) {
+            RoomEntry entry = get(roomId);
+            if (entry == null) {
+                return;
+            }
+            ReentrantLock lock = lockFor(roomId);
+            lock.lock();
+            try {
+                // Never remove a newer entry for the same id
+                if (rooms.get(roomId) != entry) {
+                    continue;
+                }
+                if (entry.members.remove(playerId) == null) {
+                    return;
+                }
+                entry.readyStatus.remove(playerId);
+                entry.updatePlayerCount();
+                empty = entry.members.isEmpty();
+                if (empty) {
+                    rooms.remove(roomId);
+                    joinCodes.release(entry.getJoinCode());
+                }
+                break;
+            } finally {
+                lock.unlock();
+            }
+        }
+        changed.add(roomId);
+        writeBehind.unassign(playerId);
+        if (empty) {
+            writeBehind.delete(roomId);
+            fireRemove(roomId);
+        }
+    }
+
+    public void setReady(Long roomId, Long playerId, boolean ready) {
+        RoomEntry entry = get(roomId);
+        if (entry == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            if (entry.members.containsKey(playerId)) {
+                entry.readyStatus.put(playerId, ready);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isHost(Long roomId, Long playerId) {
+        RoomEntry entry = get(roomId);
+        return entry != null && entry.getHostId() != null && entry.getHostId().equals(playerId);
+    }
+
+    /**
+     * Members as id/name maps, in join order.
+     */
+    public List<Map<String, Object>> members(Long roomId) {
+        RoomEntry entry = get(roomId);
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (entry == null) {
+            return result;
+        }
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            for (Map.Entry<Long, String> member : entry.members.entrySet()) {
+                Map<String, Object> map = new HashMap<>();
+                map.put("id", member.getKey());
+                map.put("name", member.getValue());
+                result.add(map);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Ids of rooms created, removed or whose player count changed since the previous call.
+     * Look each id up again to find out what happened to it.
+     */
+    public Set<Long> drainChanges() {
+        Set<Long> drained = new HashSet<>();
+        for (Long roomId : changed) {
+            if (changed.remove(roomId)) {
+                drained.add(roomId);
+            }
+        }
+        return drained;
+    }
+
+    @Override
+    public String handoffKey() {
+        return "room";
+    }
+
+    @Override
+    public Object exportRoom(Long roomId) {
+        RoomEntry entry = get(roomId);
+        if (entry == null) {
+            return null;
+        }
+        Map<String, Object> state = new HashMap<>();
+        state.put("name", entry.getName());
+        state.put("roomType", entry.getRoomType());
+        state.put("maxPlayers", entry.getMaxPlayers());
+        state.put("isPrivate", entry.isPrivate());
+        state.put("joinCode", entry.getJoinCode());
+        state.put("createdAt", entry.getCreatedAt() != null ? entry.getCreatedAt().toString() : null);
+        state.put("hostId", entry.getHostId());
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            List<Map<String, Object>> members = new ArrayList<>();
+            for (Map.Entry<Long, String> member : entry.members.entrySet()) {
+                Map<String, Object> map = new HashMap<>();
+                map.put("id", member.getKey());
+                map.put("name", member.getValue());
+                map.put("ready", entry.readyStatus.getOrDefault(member.getKey(), false));
+                members.add(map);
+            }
+            state.put("members", members);
+        } finally {
+            lock.unlock();
+        }
+        return state;
+    }
+
+    /**
+     * Merges the previous owner's membership into this node's copy: players who joined here
+     * before the handoff stay, and players known only to the old owner are added. The host
+     * from the handoff is taken only if the local host is missing or has left. The database
+     * already has the old owner's members through its write-behind, so nothing is queued here.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void importRoom(Long roomId, Object state) {
+        Map<String, Object> room = (Map<String, Object>) state;
+        Long hostId = hostId(room);
+        RoomEntry entry = rooms.computeIfAbsent(roomId, id -> entryFrom(id, room));
+
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            for (Map<String, Object> member : (List<Map<String, Object>>) room.get("members")) {
+                Long playerId = ((Number) member.get("id")).longValue();
+                entry.members.putIfAbsent(playerId, (String) member.get("name"));
+                if (Boolean.TRUE.equals(member.get("ready"))) {
+                    entry.readyStatus.putIfAbsent(playerId, true);
+                }
+            }
+            Long localHost = entry.getHostId();
+            if (hostId != null && (localHost == null || !entry.members.containsKey(localHost))) {
+                entry.setHostId(hostId);
+            }
+            entry.updatePlayerCount();
+        } finally {
+            lock.unlock();
+        }
+        joinCodes.bind(entry.getJoinCode(), roomId);
+        changed.add(roomId);
+    }
+
+    /**
+     * Makes this node's copy of a room match the owner's after the owner changed it, or drops
+     * the copy if the owner removed the room (state is null). The owner queues the database
+     * writes, so nothing is queued here.
+     */
+    @SuppressWarnings("unchecked")
+    public void replaceRoom(Long roomId, Map<String, Object> state) {
+        if (state == null) {
+            remove(roomId);
+            return;
+        }
+        RoomEntry entry = rooms.computeIfAbsent(roomId, id -> entryFrom(id, state));
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            entry.members.clear();
+            entry.readyStatus.clear();
+            for (Map<String, Object> member : (List<Map<String, Object>>) state.get("members")) {
+                Long playerId = ((Number) member.get("id")).longValue();
+                entry.members.put(playerId, (String) member.get("name"));
+                if (Boolean.TRUE.equals(member.get("ready"))) {
+                    entry.readyStatus.put(playerId, true);
+                }
+            }
+            entry.setHostId(hostId(state));
+            entry.updatePlayerCount();
+        } finally {
+            lock.unlock();
+        }
+        joinCodes.bind(entry.getJoinCode(), roomId);
+        changed.add(roomId);
+    }
+
+    /**
+     * Every node keeps listing every room in its lobby, so the entry itself stays.
+     */
+    @Override
+    public void releaseRoom(Long roomId) {
+    }
+
+    private void fireRemove(Long roomId) {
+        for (Consumer<Long> listener : removeListeners) {
+            try {
+                listener.accept(roomId);
+            } catch (Exception e) {
+                System.err.println("Error handling removal of room " + roomId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static RoomEntry entryFrom(Long roomId, Map<String, Object> room) {
+        return new RoomEntry(roomId, (String) room.get("name"), (String) room.get("roomType"),
+                ((Number) room.get("maxPlayers")).intValue(), Boolean.TRUE.equals(room.get("isPrivate")),
+                (String) room.get("joinCode"),
+                room.get("createdAt") != null ? LocalDateTime.parse(room.get("createdAt").toString()) : null,
+                hostId(room));
+    }
+
+    private static Long hostId(Map<String, Object> room) {
+        return room.get("hostId") != null ? ((Number) room.get("hostId")).longValue() : null;
+    }
+
+    private ReentrantLock lockFor(Long roomId) {
+        return locks[Math.floorMod(Long.hashCode(roomId), LOCK_STRIPES)];
+    }
+}
@@ -1,7 +1,6 @@
 package com.offficeVerse.service;
 
 import com.offficeVerse.model.Room;
-import com.offficeVerse.model.Player;
 import com.offficeVerse.repository.RoomRepository;
 import org.springframework.stereotype.Service;
 
@@ -9,145 +8,107 @@ import java.util.*;
 
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Room operations. Reads and membership changes are served by {@link RoomRegistry};
+ * only room creation and deletion hit the database directly.
+ */
 @Service
 @Transactional("transactionManager")
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final RoomRegistry roomRegistry;
+    private final JoinCodeAllocator joinCodes;
 
-    public RoomService(RoomRepository roomRepository) {
+    public RoomService(RoomRepository roomRepository, RoomRegistry roomRegistry, JoinCodeAllocator joinCodes) {
         this.roomRepository = roomRepository;
+        this.roomRegistry = roomRegistry;
+        this.joinCodes = joinCodes;
     }
 
-    public Room createRoom(String name) {
+    public RoomEntry createRoom(String name) {
         Room room = new Room(name);
-        return roomRepository.save(room);
+        return roomRegistry.register(roomRepository.save(room));
     }
 
-    public Room getRoomByName(String name) {
-        Room room = roomRepository.findByName(name);
-        if (room != null) {
-            room.getPlayers().size(); // Initialize lazy collection
+    public RoomEntry getRoomByName(String name) {
+        for (RoomEntry entry : roomRegistry.all()) {
+            if (entry.getName().equals(name)) {
+                return entry;
+            }
         }
-        return room;
+        return null;
     }
 
     public void deleteRoom(Long id) {
+        roomRegistry.remove(id);
         roomRepository.deleteById(id);
     }
 
     public String getRoomType(Long roomId) {
-        Room room = getRoom(roomId);
+        RoomEntry room = getRoom(roomId);
         if (room != null) {
             return room.getRoomType();
         }
         return "NORMAL";
     }
 
-    public Room createRoom(String name, int maxPlayers, boolean isPrivate, Long hostId) {
+    public RoomEntry createRoom(String name, int maxPlayers, boolean isPrivate, Long hostId) {
         Room room = new Room();
         room.setName(name);
         room.setMaxPlayers(maxPlayers);
         room.setPrivate(isPrivate);
         room.setHostId(hostId);
-        room.setJoinCode(generateUniqueJoinCode());
+        String joinCode = joinCodes.reserve();
+        room.setJoinCode(joinCode);
         room.setPlayers(new ArrayList<>());
-        // Save to database
-        Room savedRoom = roomRepository.save(room);
-        savedRoom.getPlayers().size(); // Initialize
-        return savedRoom;
-    }
-
-    public Room getRoomByCode(String code) {
-        Room room = roomRepository.findByJoinCode(code);
-        if (room != null) {
-            room.getPlayers().size(); // Initialize lazy collection
+        // Save to database, then serve it from memory
+        try {
+            Room savedRoom = roomRepository.save(room);
+            return roomRegistry.register(savedRoom);
+        } catch (RuntimeException e) {
+            joinCodes.release(joinCode);
+            throw e;
         }
-        return room;
     }
 
-    private String generateUniqueJoinCode() {
-        String characters = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789"; // Removed ambiguous characters
-        StringBuilder code = new StringBuilder();
-        Random rnd = new Random();
-        while (code.length() < 6) {
-            code.append(characters.charAt(rnd.nextInt(characters.length())));
-        }
-
-        // Ensure uniqueness (recursive)
-        if (getRoomByCode(code.toString()) != null) {
-            return generateUniqueJoinCode();
-        }
-
-        return code.toString();
+    public RoomEntry getRoomByCode(String code) {
+        return roomRegistry.findByCode(code);
     }
 
-    public boolean addPlayerToRoom(Long roomId, Long playerId, PlayerService playerService) {
-        Room room = getRoom(roomId);
-        Player player = playerService.getPlayer(playerId);
-
-        if (room == null || player == null) {
-            return false;
-        }
-
-        if (room.getPlayers().size() >= room.getMaxPlayers()) {
-            return false;
-        }
-
-        if (!room.getPlayers().contains(player)) {
-            room.getPlayers().add(player);
-            player.setRoom(room);
-            playerService.savePlayer(player);
-            roomRepository.save(room);
-        }
-
-        return true;
+    public boolean addPlayerToRoom(Long roomId, Long playerId, String playerName) {
+        return roomRegistry.join(roomId, playerId, playerName);
     }
 
     public void removePlayerFromRoom(Long roomId, Long playerId) {
-        Room room = getRoom(roomId);
-        if (room != null) {
-            room.getPlayers().removeIf(p -> p.getId().equals(playerId));
-
-            // If room is empty, optionally delete it
-            if (room.getPlayers().isEmpty()) {
-                roomRepository.delete(room);
-            } else {
-                roomRepository.save(room);
-            }
-        }
+        // The room is dropped once its last player leaves
+        roomRegistry.leave(roomId, playerId);
     }
 
-    public List<Player> getPlayersInRoom(Long roomId) {
-        Room room = getRoom(roomId);
-        return room != null ? room.getPlayers() : new ArrayList<>();
+    public List<Map<String, Object>> getPlayersInRoom(Long roomId) {
+        return roomRegistry.members(roomId);
     }
 
     public void setPlayerReady(Long roomId, Long playerId, boolean ready) {
-        // Implement ready status tracking
-        // You might want to add a Map<Long, Boolean> readyStatus field to Room entity
-        Room room = getRoom(roomId);
-        if (room != null) {
-            // Store ready status
-            // room.getReadyStatus().put(playerId, ready);
-            // roomRepository.save(room);
-        }
+        roomRegistry.setReady(roomId, playerId, ready);
     }
 
     public boolean isHost(Long roomId, Long playerId) {
-        Room room = getRoom(roomId);
-        return room != null && room.getHostId() != null && room.getHostId().equals(playerId);
+        return roomRegistry.isHost(roomId, playerId);
     }
 
-    public List<Room> getAllRooms() {
-        return roomRepository.findAll();
+    public Collection<RoomEntry> getAllRooms() {
+        return roomRegistry.all();
     }
 
-    public Room getRoom(Long id) {
-        Room room = roomRepository.findById(id).orElse(null);
-        if (room != null) {
-            room.getPlayers().size(); // Initialize lazy collection
-        }
-        return room;
+    public RoomEntry getRoom(Long id) {
+        return roomRegistry.get(id);
+    }
+
+    /**
+     * Entity reference for linking other entities to a room, without loading it.
+     */
+    public Room getRoomReference(Long id) {
+        return roomRegistry.get(id) != null ? roomRepository.getReferenceById(id) : null;
     }
 }
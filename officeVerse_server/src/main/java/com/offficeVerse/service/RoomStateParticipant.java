@@ -0,0 +1,28 @@
+package com.offficeVerse.service;
+
+/**
+ * A component holding per-room state in memory that has to follow the room when its
+ * ownership moves to another node (scale-up, drain or rolling deploy).
+ */
+public interface RoomStateParticipant {
+
+    /**
+     * Name of this participant's part in a handoff.
+     */
+    String handoffKey();
+
+    /**
+     * @return the room's state as plain maps, lists and numbers, or null if there is none
+     */
+    Object exportRoom(Long roomId);
+
+    /**
+     * Merges state exported by the room's previous owner.
+     */
+    void importRoom(Long roomId, Object state);
+
+    /**
+     * Drops state this node no longer needs once the room has moved and its local players are gone.
+     */
+    void releaseRoom(Long roomId);
+}
@@ -0,0 +1,115 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.repository.PlayerRepository;
+import com.offficeVerse.repository.RoomRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batches room membership changes made in {@link RoomRegistry} into periodic database writes.
+ *
+ * Only the latest target room per player is kept, so a join followed by a leave
+ * within one flush interval costs nothing. Each flush issues one bulk update per
+ * target room and then deletes rooms that emptied, each in its own transaction.
+ * If a bulk update fails, its players are retried one at a time and only the ones
+ * that still fail are skipped.
+ */
+@Component
+public class RoomWriteBehind {
+
+    // Marks "no room" in pendingAssignments (ConcurrentHashMap does not allow null values)
+    private static final Long NO_ROOM = -1L;
+
+    private final PlayerRepository playerRepository;
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate transactions;
+
+    // Map<PlayerID, RoomID or NO_ROOM>
+    private final Map<Long, Long> pendingAssignments = new ConcurrentHashMap<>();
+
+    private final Set<Long> pendingDeletes = ConcurrentHashMap.newKeySet();
+
+    public RoomWriteBehind(PlayerRepository playerRepository, RoomRepository roomRepository,
+            PlatformTransactionManager transactionManager) {
+        this.playerRepository = playerRepository;
+        this.roomRepository = roomRepository;
+        this.transactions = new TransactionTemplate(transactionManager);
+    }
+
+    void assign(Long playerId, Long roomId) {
+        pendingAssignments.put(playerId, roomId);
+    }
+
+    void unassign(Long playerId) {
+        pendingAssignments.put(playerId, NO_ROOM);
+    }
+
+    void delete(Long roomId) {
+        pendingDeletes.add(roomId);
+    }
+
+    @Scheduled(fixedDelayString = "${room.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        if (pendingAssignments.isEmpty() && pendingDeletes.isEmpty()) {
+            return;
+        }
+
+        // Group the latest assignment of each player by target room
+        Map<Long, List<Long>> byRoom = new HashMap<>();
+        for (Long playerId : new ArrayList<>(pendingAssignments.keySet())) {
+            Long roomId = pendingAssignments.remove(playerId);
+            if (roomId != null) {
+                byRoom.computeIfAbsent(roomId, k -> new ArrayList<>()).add(playerId);
+            }
+        }
+
+        List<Long> deletes = new ArrayList<>(pendingDeletes);
+        pendingDeletes.removeAll(deletes);
+
+        for (Map.Entry<Long, List<Long>> entry : byRoom.entrySet()) {
+            if (deletes.contains(entry.getKey())) {
+                continue;
+            }
+            try {
+                assign(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                System.err.println("Error flushing assignments to room " + entry.getKey()
+                        + ", retrying player by player: " + e.getMessage());
+                assignIndividually(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Long roomId : deletes) {
+            try {
+                transactions.executeWithoutResult(status -> roomRepository.deleteById(roomId));
+            } catch (Exception e) {
+                System.err.println("Skipping delete of room " + roomId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // One transaction per player, so a bad row only loses itself
+    private void assignIndividually(Long roomId, List<Long> playerIds) {
+        for (Long playerId : playerIds) {
+            try {
+                assign(roomId, List.of(playerId));
+            } catch (Exception e) {
+                System.err.println("Skipping room assignment of player " + playerId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void assign(Long roomId, List<Long> playerIds) {
+        transactions.executeWithoutResult(status -> {
+            if (NO_ROOM.equals(roomId)) {
+                playerRepository.clearRoom(playerIds);
+            } else {
+                playerRepository.assignRoom(roomRepository.getReferenceById(roomId), playerIds);
+            }
+        });
+    }
+}
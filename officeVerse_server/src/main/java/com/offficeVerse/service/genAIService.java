@@ -2,14 +2,56 @@ package com.offficeVerse.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Calls the configured LLM provider.
+ *
+ * Provider calls go through one shared JDK HttpClient, which keeps connections alive and
+ * reuses them, with genai.http.connect-timeout-ms and genai.http.request-timeout-ms
+ * applied to every call. Calls return CompletableFutures and no thread waits on the
+ * network while a provider is slow.
+ *
+ * Successful answers are cached in {@link GenAIResponseCache}. A caller can bypass the
+ * cache for a single request.
+ *
+ * Identical prompts asked at the same time share one provider call, streamed or not
+ * (genai.coalesced counts the callers that joined one). Every provider call goes through {@link GenAIProviderGuard}.
+ *
+ * streamResponseAsync forwards OpenAI tokens as they arrive. The time until the first
+ * token is recorded as genai.stream.first-token. A stream that sends nothing for
+ * genai.http.stream-idle-timeout-ms is closed and fails; the request timeout only covers
+ * the wait for the response headers.
+ */
 @Service
 public class genAIService {
 
@@ -35,10 +77,47 @@ public class genAIService {
     
     // OpenAI API endpoint
     private static final String OPENAI_ENDPOINT = "https://api.openai.com/v1/chat/completions";
+    private static final String OPENAI_MODEL = "gpt-3.5-turbo";
 
-    private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // Completion callbacks run on virtual threads, never on the client's selector thread
+    private final ExecutorService callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final long streamIdleTimeoutMs;
+
+    // Closes streams whose provider went silent; a read blocked on the socket cannot notice by itself
+    private final ScheduledExecutorService streamWatchdog = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("genai-stream-watchdog").daemon().factory());
+
+    private final GenAIResponseCache responseCache;
+    private final GenAIProviderGuard providerGuard;
+    private final Timer firstTokenTimer;
+    private final Counter coalesced;
+
+    // Provider calls in progress by cache key, so identical prompts wait for the same answer
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    // Streamed answers in progress by cache key, so identical prompts read the same tokens
+    private final ConcurrentHashMap<String, GenAISharedStream> inFlightStreams = new ConcurrentHashMap<>();
+
+    public genAIService(GenAIResponseCache responseCache, GenAIProviderGuard providerGuard, MeterRegistry meterRegistry,
+            @Value("${genai.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${genai.http.request-timeout-ms:30000}") long requestTimeoutMs,
+            @Value("${genai.http.stream-idle-timeout-ms:15000}") long streamIdleTimeoutMs) {
+        this.responseCache = responseCache;
+        this.providerGuard = providerGuard;
+        this.firstTokenTimer = meterRegistry.timer("genai.stream.first-token");
+        this.coalesced = meterRegistry.counter("genai.coalesced");
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.streamIdleTimeoutMs = streamIdleTimeoutMs;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(callbackExecutor)
+                .build();
+    }
+
     /**
      * Set API key at runtime
      */
@@ -72,35 +151,172 @@ public class genAIService {
     }
 
     /**
-     * Main method to get AI response for a prompt
+     * Main method to get AI response for a prompt.
+     * Completes with "Error: ..." instead of failing, like the blocking version did.
      */
-    public String getResponse(String prompt) {
-        try {
-            String apiKey = getApiKey();
-            if (apiKey == null || apiKey.isEmpty()) {
-                throw new RuntimeException("No API key configured. Please configure an API key first.");
+    public CompletableFuture<String> getResponseAsync(String prompt) {
+        return getResponseAsync(prompt, true);
+    }
+
+    /**
+     * @param useCache false to ignore any cached answer for this request; the fresh answer replaces it
+     */
+    public CompletableFuture<String> getResponseAsync(String prompt, boolean useCache) {
+        return queryAsync(prompt, useCache)
+                .exceptionally(e -> "Error: " + rootCause(e).getMessage());
+    }
+
+    /**
+     * Like getResponseAsync, but a failed call fails the future. Provider errors and refusals
+     * by {@link GenAIProviderGuard} fail it with a {@link GenAIProviderException} holding the status.
+     */
+    public CompletableFuture<String> queryAsync(String prompt, boolean useCache) {
+        String apiKey = getApiKey();
+        if (apiKey == null || apiKey.isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("No API key configured. Please configure an API key first."));
+        }
+
+        boolean openAI = "openai".equalsIgnoreCase(provider);
+        String key = GenAIResponseCache.key(provider, openAI ? OPENAI_MODEL : modelName, prompt);
+        if (useCache) {
+            String cached = responseCache.get(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
             }
-            
-            if ("openai".equalsIgnoreCase(provider)) {
-                return queryOpenAI(prompt, apiKey);
+        }
+
+        return fetchShared(key, openAI, prompt, apiKey);
+    }
+
+    /**
+     * Joins the provider call already running for this key, or starts one.
+     */
+    private CompletableFuture<String> fetchShared(String key, boolean openAI, String prompt, String apiKey) {
+        CompletableFuture<String> shared = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, shared);
+        if (running != null) {
+            coalesced.increment();
+            return running;
+        }
+
+        providerGuard.call(() -> {
+            try {
+                return openAI ? queryOpenAI(prompt, apiKey) : queryMistral(prompt, apiKey);
+            } catch (Exception e) {
+                return CompletableFuture.<String>failedFuture(e);
+            }
+        }).whenComplete((text, e) -> {
+            inFlight.remove(key, shared);
+            if (e != null) {
+                shared.completeExceptionally(rootCause(e));
             } else {
-                return queryMistral(prompt, apiKey);
+                // Only answers that came back successfully are cached, never "Error: ..." strings
+                responseCache.put(key, text);
+                shared.complete(text);
             }
+        });
+        return shared;
+    }
+
+    /**
+     * Blocking variant for callers that are not asynchronous themselves.
+     */
+    public String getResponse(String prompt) {
+        return getResponseAsync(prompt).join();
+    }
+
+    /**
+     * Streaming variant: every piece of the answer is passed to onToken as soon as the provider
+     * sends it, and the returned future completes with the whole answer.
+     * Unlike getResponseAsync, errors fail the future. If onToken throws (for example because
+     * the client went away), or the returned future is cancelled, this caller drops out.
+     * Callers asking the same prompt meanwhile share the stream ({@link GenAISharedStream}); the
+     * provider connection is closed once none of them is left, even while no token is arriving.
+     * Hugging Face does not stream here; its answer arrives as a single token.
+     */
+    public CompletableFuture<String> streamResponseAsync(String prompt, boolean useCache, Consumer<String> onToken) {
+        String apiKey = getApiKey();
+        if (apiKey == null || apiKey.isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("No API key configured. Please configure an API key first."));
+        }
+
+        boolean openAI = "openai".equalsIgnoreCase(provider);
+        String key = GenAIResponseCache.key(provider, openAI ? OPENAI_MODEL : modelName, prompt);
+        if (useCache) {
+            String cached = responseCache.get(key);
+            if (cached != null) {
+                try {
+                    onToken.accept(cached);
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        CompletableFuture<String> response;
+        if (openAI) {
+            response = streamShared(key, prompt, apiKey, onToken);
+        } else {
+            // Hugging Face answers in one piece, so identical prompts share the plain call
+            response = fetchShared(key, false, prompt, apiKey).thenApply(text -> {
+                onToken.accept(text);
+                return text;
+            });
+        }
+
+        CompletableFuture<String> answer = response.handle((text, e) -> {
+            if (e != null) {
+                throw new CompletionException(rootCause(e));
+            }
+            return text;
+        });
+        answer.whenComplete((text, e) -> {
+            if (answer.isCancelled()) {
+                response.cancel(true);
+            }
+        });
+        return answer;
+    }
+
+    /**
+     * Joins the OpenAI stream already running for this key, or starts one.
+     */
+    private CompletableFuture<String> streamShared(String key, String prompt, String apiKey, Consumer<String> onToken) {
+        GenAISharedStream shared = new GenAISharedStream();
+        GenAISharedStream running = inFlightStreams.putIfAbsent(key, shared);
+        if (running != null) {
+            coalesced.increment();
+            return running.join(onToken);
+        }
+
+        CompletableFuture<String> mine = shared.join(onToken);
+        CompletableFuture<String> call;
+        try {
+            call = streamOpenAI(prompt, apiKey, shared::token);
         } catch (Exception e) {
-            return "Error: " + e.getMessage();
+            call = CompletableFuture.failedFuture(e);
         }
+        shared.start(call);
+        call.whenComplete((text, e) -> {
+            inFlightStreams.remove(key, shared);
+            if (e == null) {
+                // Like fetchShared, a fresh answer replaces the cached one
+                responseCache.put(key, text);
+            }
+            shared.finish(text, e != null ? rootCause(e) : null);
+        });
+        return mine;
     }
 
     /**
      * Query OpenAI API
      */
-    private String queryOpenAI(String prompt, String apiKey) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + apiKey);
-
+    private CompletableFuture<String> queryOpenAI(String prompt, String apiKey) throws Exception {
         Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", "gpt-3.5-turbo");
+        requestBody.put("model", OPENAI_MODEL);
         requestBody.put("messages", new Object[]{
             Map.of("role", "user", "content", prompt)
         });
@@ -108,23 +324,171 @@ public class genAIService {
         requestBody.put("max_tokens", 500);
 
         String jsonBody = objectMapper.writeValueAsString(requestBody);
-        HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
 
+        return post(OPENAI_ENDPOINT, apiKey, jsonBody).thenApply(response -> {
+            if (response.statusCode() >= 400) {
+                throw new CompletionException(openAIError(response.statusCode(), response.body()));
+            }
+            try {
+                return parseOpenAIResponse(response.body());
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private GenAIProviderException openAIError(int status, String body) {
+        if (status == 401) {
+            return new GenAIProviderException("Invalid OpenAI API key", status);
+        } else if (status == 429) {
+            return new GenAIProviderException("Rate limit exceeded. Please try again later.", status);
+        }
+        String errorMsg = "OpenAI API Error: " + status + " - " + body;
+        System.err.println(errorMsg);
+        return new GenAIProviderException(errorMsg, status);
+    }
+
+    /**
+     * Query OpenAI with stream=true and read the server-sent events line by line:
+     * "data: {chunk}" until "data: [DONE]"
+     */
+    private CompletableFuture<String> streamOpenAI(String prompt, String apiKey, Consumer<String> onToken)
+            throws Exception {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", OPENAI_MODEL);
+        requestBody.put("messages", new Object[]{
+            Map.of("role", "user", "content", prompt)
+        });
+        requestBody.put("temperature", 0.7);
+        requestBody.put("max_tokens", 500);
+        requestBody.put("stream", true);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(OPENAI_ENDPOINT))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody)))
+                .build();
+        long started = System.nanoTime();
+
+        // The guard sees the call up to the response status; a client leaving mid-stream is not a provider failure
+        CompletableFuture<HttpResponse<InputStream>> opened = providerGuard.call(() ->
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()).thenApply(response -> {
+                    if (response.statusCode() >= 400) {
+                        try (InputStream body = response.body()) {
+                            throw new CompletionException(openAIError(response.statusCode(),
+                                    new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }
+                    return response;
+                }));
+
+        CompletableFuture<String> answer = new CompletableFuture<>();
+        opened.whenComplete((response, e) -> {
+            if (e != null) {
+                answer.completeExceptionally(rootCause(e));
+            } else {
+                // Reading the lines blocks, so it runs on a callback (virtual) thread
+                callbackExecutor.execute(() -> readOpenAIStream(response.body(), started, onToken, answer));
+            }
+        });
+        return answer;
+    }
+
+    /**
+     * Reads "data: {chunk}" lines until "data: [DONE]" and completes the answer.
+     * The body is closed, which wakes the blocked read, when the answer is cancelled or the
+     * provider sends nothing for genai.http.stream-idle-timeout-ms.
+     */
+    private void readOpenAIStream(InputStream body, long started, Consumer<String> onToken,
+            CompletableFuture<String> answer) {
+        AtomicLong lastRead = new AtomicLong(System.nanoTime());
+        AtomicBoolean idle = new AtomicBoolean();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(streamIdleTimeoutMs);
+        ScheduledFuture<?> watchdog = streamWatchdog.scheduleWithFixedDelay(() -> {
+            if (System.nanoTime() - lastRead.get() > idleNanos) {
+                idle.set(true);
+                closeQuietly(body);
+            }
+        }, streamIdleTimeoutMs, Math.max(1, streamIdleTimeoutMs / 4), TimeUnit.MILLISECONDS);
+        // The raw stream is closed, not the reader: the blocked read holds the reader's lock
+        answer.whenComplete((text, e) -> {
+            if (answer.isCancelled()) {
+                closeQuietly(body);
+            }
+        });
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            StringBuilder text = new StringBuilder();
+            String line;
+            while (!answer.isDone() && (line = lines.readLine()) != null) {
+                lastRead.set(System.nanoTime());
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+                String token = parseOpenAIDelta(data);
+                if (token.isEmpty()) {
+                    continue;
+                }
+                if (text.isEmpty()) {
+                    firstTokenTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+                text.append(token);
+                onToken.accept(token);
+            }
+            if (idle.get()) {
+                answer.completeExceptionally(idleTimeout());
+            } else if (text.toString().isBlank()) {
+                answer.completeExceptionally(noResponse("OpenAI"));
+            } else {
+                answer.complete(text.toString().trim());
+            }
+        } catch (Exception e) {
+            // A cancelled answer is already complete and ignores this
+            answer.completeExceptionally(idle.get() ? idleTimeout() : rootCause(e));
+        } finally {
+            watchdog.cancel(false);
+            closeQuietly(body);
+        }
+    }
+
+    private GenAIProviderException idleTimeout() {
+        return new GenAIProviderException("OpenAI sent nothing for " + streamIdleTimeoutMs + " ms", 504);
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Already closed or broken; either way nothing more will be read
+        }
+    }
+
+    private String parseOpenAIDelta(String chunk) {
         try {
-            String response = restTemplate.postForObject(OPENAI_ENDPOINT, entity, String.class);
-            return parseOpenAIResponse(response);
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
-            int status = e.getStatusCode().value();
-            
-            if (status == 401) {
-                throw new Exception("Invalid OpenAI API key");
-            } else if (status == 429) {
-                throw new Exception("Rate limit exceeded. Please try again later.");
+            JsonNode root = objectMapper.readTree(chunk);
+            if (root.has("error")) {
+                throw new CompletionException(new Exception(root.get("error").get("message").asText()));
+            }
+            JsonNode choices = root.get("choices");
+            if (choices != null && choices.isArray() && choices.size() > 0) {
+                JsonNode delta = choices.get(0).get("delta");
+                if (delta != null && delta.has("content") && !delta.get("content").isNull()) {
+                    return delta.get("content").asText();
+                }
             }
-            
-            String errorMsg = "OpenAI API Error: " + e.getStatusCode() + " - " + e.getResponseBodyAsString();
-            System.err.println(errorMsg);
-            throw new Exception(errorMsg);
+            return "";
+        } catch (CompletionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
         }
     }
 
@@ -137,7 +501,10 @@ public class genAIService {
         if (root.has("choices") && root.get("choices").isArray() && root.get("choices").size() > 0) {
             JsonNode firstChoice = root.get("choices").get(0);
             if (firstChoice.has("message") && firstChoice.get("message").has("content")) {
-                return firstChoice.get("message").get("content").asText().trim();
+                String text = firstChoice.get("message").get("content").asText().trim();
+                if (!text.isEmpty()) {
+                    return text;
+                }
             }
         }
 
@@ -145,7 +512,12 @@ public class genAIService {
             throw new Exception(root.get("error").get("message").asText());
         }
 
-        return "No response generated from OpenAI";
+        throw noResponse("OpenAI");
+    }
+
+    // An empty answer is a failed call, so it is never cached or shown as the answer
+    private static GenAIProviderException noResponse(String provider) {
+        return new GenAIProviderException("No response generated from " + provider, 502);
     }
 
     /**
@@ -153,41 +525,37 @@ public class genAIService {
      * Note: The free Inference API endpoint may be deprecated
      * For production use, consider using paid endpoints or alternative services
      */
-    private String queryMistral(String prompt, String apiKey) throws Exception {
+    private CompletableFuture<String> queryMistral(String prompt, String apiKey) throws Exception {
         String url = HF_INFERENCE_ENDPOINT + modelName;
 
-        // Build request headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + apiKey);
-
         // Build request body - simple format for text generation
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("inputs", prompt);
 
         String jsonBody = objectMapper.writeValueAsString(requestBody);
-        HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
 
         // Call Hugging Face API
-        try {
-            String response = restTemplate.postForObject(url, entity, String.class);
-            return parseHuggingFaceResponse(response);
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
+        return post(url, apiKey, jsonBody).thenApply(response -> {
             // Handle specific error cases
-            int status = e.getStatusCode().value();
-            
+            int status = response.statusCode();
+
             if (status == 410) {
                 String message = "Hugging Face free inference API has been deprecated. " +
                     "Please use a paid inference endpoint or alternative AI service.";
                 System.err.println(message);
-                throw new Exception(message);
+                throw new CompletionException(new GenAIProviderException(message, status));
+            } else if (status >= 400) {
+                // Provide more detailed error information
+                String errorMsg = "Hugging Face API Error: " + status + " - " + response.body();
+                System.err.println(errorMsg);
+                throw new CompletionException(new GenAIProviderException(errorMsg, status));
             }
-            
-            // Provide more detailed error information
-            String errorMsg = "Hugging Face API Error: " + e.getStatusCode() + " - " + e.getResponseBodyAsString();
-            System.err.println(errorMsg);
-            throw new Exception(errorMsg);
-        }
+            try {
+                return parseHuggingFaceResponse(response.body());
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
     }
 
     /**
@@ -197,92 +565,64 @@ public class genAIService {
     private String parseHuggingFaceResponse(String jsonResponse) throws Exception {
         JsonNode root = objectMapper.readTree(jsonResponse);
 
+        String text = "";
         if (root.isArray() && root.size() > 0) {
             JsonNode firstElement = root.get(0);
             if (firstElement.has("generated_text")) {
-                return firstElement.get("generated_text").asText().trim();
+                text = firstElement.get("generated_text").asText().trim();
             }
+        } else if (root.has("generated_text")) {
+            text = root.get("generated_text").asText().trim();
         }
 
-        if (root.has("generated_text")) {
-            return root.get("generated_text").asText().trim();
+        if (text.isEmpty()) {
+            throw noResponse("AI model");
         }
-
-        return "No response generated from AI model";
+        return text;
     }
 
     /**
      * Validate API key without using it for generation
      */
-    public boolean validateApiKey(String apiKey, String provider) {
-        try {
-            if (apiKey == null || apiKey.isEmpty()) {
-                return false;
-            }
-
-            if ("openai".equalsIgnoreCase(provider)) {
-                return validateOpenAIKey(apiKey);
-            } else {
-                return validateHuggingFaceKey(apiKey);
-            }
-        } catch (Exception e) {
-            System.err.println("API key validation error: " + e.getMessage());
-            return false;
+    public CompletableFuture<Boolean> validateApiKeyAsync(String apiKey, String provider) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return CompletableFuture.completedFuture(false);
         }
-    }
-
-    /**
-     * Validate OpenAI API key
-     */
-    private boolean validateOpenAIKey(String apiKey) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + apiKey);
 
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-
-        try {
-            // Call a simple OpenAI endpoint to validate
-            String response = restTemplate.exchange(
-                "https://api.openai.com/v1/models", 
-                org.springframework.http.HttpMethod.GET,
-                entity,
-                String.class
-            ).getBody();
-            
-            return response != null && !response.isEmpty();
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
-            if (e.getStatusCode().value() == 401) {
-                return false; // Invalid key
-            }
-            // Other errors might still mean the API is accessible but we're having network issues
-            return false;
-        }
+        // Call a simple endpoint of the provider; any non-2xx (401 or otherwise) means the key is not usable
+        String url = "openai".equalsIgnoreCase(provider)
+                ? "https://api.openai.com/v1/models"
+                : HF_INFERENCE_ENDPOINT + modelName;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> response.statusCode() / 100 == 2
+                        && response.body() != null && !response.body().isEmpty())
+                .exceptionally(e -> {
+                    System.err.println("API key validation error: " + rootCause(e).getMessage());
+                    return false;
+                });
     }
 
-    /**
-     * Validate Hugging Face API key
-     */
-    private boolean validateHuggingFaceKey(String apiKey) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + apiKey);
-
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+    private CompletableFuture<HttpResponse<String>> post(String url, String apiKey, String jsonBody) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
 
-        try {
-            String response = restTemplate.exchange(
-                "https://api-inference.huggingface.co/models/" + modelName,
-                org.springframework.http.HttpMethod.GET,
-                entity,
-                String.class
-            ).getBody();
-            
-            return response != null && !response.isEmpty();
-        } catch (org.springframework.web.client.HttpClientErrorException e) {
-            if (e.getStatusCode().value() == 401) {
-                return false; // Invalid key
-            }
-            return false; // Other errors also mean validation failed
+    private static Throwable rootCause(Throwable e) {
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
         }
+        return e;
     }
 
     /**
@@ -304,9 +644,16 @@ public class genAIService {
         status.put("configured", isConfigured());
         
         if ("openai".equalsIgnoreCase(provider)) {
-            status.put("model", "gpt-3.5-turbo");
+            status.put("model", OPENAI_MODEL);
         }
+        status.put("circuit", providerGuard.getState().name().toLowerCase());
         
         return status;
     }
+
+    @PreDestroy
+    public void shutdown() {
+        streamWatchdog.shutdownNow();
+        callbackExecutor.shutdownNow();
+    }
 }
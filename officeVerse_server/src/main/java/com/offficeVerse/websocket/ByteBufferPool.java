@@ -0,0 +1,34 @@
+package com.offficeVerse.websocket;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Small pool of reusable heap buffers for outbound binary frames.
+ * Buffers that had to grow past the default size are pooled as-is,
+ * so the pool converges on the size the busiest room needs.
+ */
+class ByteBufferPool {
+
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final int bufferSize;
+
+    ByteBufferPool(int maxPooled, int bufferSize) {
+        this.buffers = new ArrayBlockingQueue<>(maxPooled);
+        this.bufferSize = bufferSize;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        buffers.offer(buffer);
+    }
+}
@@ -0,0 +1,60 @@
+package com.offficeVerse.websocket;
+
+/**
+ * The WebSocket channels a player can hold, with the policy applied when a
+ * session's outbound queue is full. Movement frames sent as droppable are superseded
+ * later (legacy frames by the next move, delta snapshots by a resync), so the oldest of
+ * those are dropped; leaves and everything on the other channels must not be lost, so a
+ * client that cannot keep up is disconnected instead.
+ */
+public enum Channel {
+    CHAT("chat", 'c', OverflowPolicy.DISCONNECT, 256),
+    MOVEMENT("movement", 'm', OverflowPolicy.DROP_OLDEST, 32),
+    ROOM("room", 'r', OverflowPolicy.DISCONNECT, 256),
+    ZONE("zone", 'z', OverflowPolicy.DISCONNECT, 256);
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DISCONNECT
+    }
+
+    private final String key;
+    private final char tag;
+    private final OverflowPolicy defaultPolicy;
+    private final int defaultCapacity;
+
+    Channel(String key, char tag, OverflowPolicy defaultPolicy, int defaultCapacity) {
+        this.key = key;
+        this.tag = tag;
+        this.defaultPolicy = defaultPolicy;
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Prefix identifying this channel's frames on the multiplexed /ws endpoint.
+     */
+    public char tag() {
+        return tag;
+    }
+
+    public static Channel fromTag(char tag) {
+        for (Channel channel : values()) {
+            if (channel.tag == tag) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
+    public OverflowPolicy defaultPolicy() {
+        return defaultPolicy;
+    }
+
+    public int defaultCapacity() {
+        return defaultCapacity;
+    }
+}
@@ -0,0 +1,152 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One channel of a multiplexed /ws connection, presented to the channel's handler as an
+ * ordinary session. Outgoing messages get the channel tag prepended; binary messages are sent
+ * as two fragments, the tag byte and then the payload, so the payload is never copied. Sends
+ * from every channel of the connection are serialized on a shared lock, because the underlying
+ * session allows only one send at a time, and so no other message comes between the fragments.
+ * Closing a channel session closes the whole connection.
+ */
+class ChannelSession implements WebSocketSession {
+
+    private final WebSocketSession connection;
+    private final Channel channel;
+    private final ReentrantLock sendLock;
+    private final String acceptedProtocol;
+    private final String id;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final byte[] binaryTag;
+
+    ChannelSession(WebSocketSession connection, Channel channel, ReentrantLock sendLock, String acceptedProtocol) {
+        this.connection = connection;
+        this.channel = channel;
+        this.sendLock = sendLock;
+        this.acceptedProtocol = acceptedProtocol;
+        this.id = connection.getId() + "/" + channel.tag();
+        this.binaryTag = new byte[] { (byte) channel.tag() };
+    }
+
+    Channel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return connection.getUri();
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return connection.getHandshakeHeaders();
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return connection.getPrincipal();
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.getLocalAddress();
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    @Override
+    public String getAcceptedProtocol() {
+        return acceptedProtocol;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+        connection.setTextMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return connection.getTextMessageSizeLimit();
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        connection.setBinaryMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return connection.getBinaryMessageSizeLimit();
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return connection.getExtensions();
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (message instanceof BinaryMessage binary) {
+            // A view of the payload: the same frame may be sent to many sessions
+            ByteBuffer payload = binary.getPayload().duplicate();
+            sendLock.lock();
+            try {
+                connection.sendMessage(new BinaryMessage(binaryTag, false));
+                connection.sendMessage(new BinaryMessage(payload, true));
+            } finally {
+                sendLock.unlock();
+            }
+            return;
+        }
+        WebSocketMessage<?> framed = message;
+        if (message instanceof TextMessage text) {
+            framed = new TextMessage(channel.tag() + text.getPayload());
+        }
+        sendLock.lock();
+        try {
+            connection.sendMessage(framed);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return connection.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        connection.close();
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        connection.close(status);
+    }
+}
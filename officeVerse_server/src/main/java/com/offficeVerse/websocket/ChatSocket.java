@@ -1,43 +1,84 @@
 package com.offficeVerse.websocket;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offficeVerse.model.ChatHistoryEntry;
+import com.offficeVerse.model.ChatHistoryPage;
+import com.offficeVerse.service.ChatService;
+import com.offficeVerse.service.RoomRegistry;
+import com.offficeVerse.service.RoomStateParticipant;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.io.IOException;
 
 @Component
-public class ChatSocket extends TextWebSocketHandler {
+public class ChatSocket extends TextWebSocketHandler implements RoomStateParticipant {
 
-    // Track sessions by Room ID: Map<RoomID, Map<PlayerID, WebSocketSession>>
-    private final Map<Long, Map<Long, WebSocketSession>> roomSessions = new ConcurrentHashMap<>();
-    // Track player names by Room ID: Map<RoomID, Map<PlayerID, Name>>
-    private final Map<Long, Map<Long, String>> roomPlayerNames = new ConcurrentHashMap<>();
+    // Players per room with PLAYER_JOINED/PLAYER_LEFT versions numbered by the room's owner node
+    private final RoomRoster roster;
 
     // Track meeting participants: Map<RoomID, Set<PlayerID>>
     private final Map<Long, Set<Long>> meetingParticipants = new ConcurrentHashMap<>();
 
-    // Map sessionId -> session info for disconnect handling
-    private final Map<String, PlayerSessionInfo> sessionInfo = new ConcurrentHashMap<>();
+    // Last chat.recent-buffer-size messages per room, replayed on REGISTER: Map<RoomID, buffer>.
+    // Kept until the room is removed, or until this node stops receiving the room's lines
+    private final Map<Long, RecentChatBuffer> recentChat = new ConcurrentHashMap<>();
 
-    private static class PlayerSessionInfo {
-        Long playerId;
-        Long roomId;
+    // 0 disables the buffer; joining players then load the latest page from the database
+    private final int recentBufferSize;
 
-        PlayerSessionInfo(Long playerId, Long roomId) {
-            this.playerId = playerId;
-            this.roomId = roomId;
-        }
-    }
+    private final OutboundDispatcher outbound;
+    private final ChatService chatService;
+    private final PresenceRegistry presenceRegistry;
+    private final RoomBroadcastBus roomBus;
+    private final SessionResumption resumption;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public ChatSocket() {
+    public ChatSocket(OutboundDispatcher outbound, ChatService chatService, PresenceRegistry presenceRegistry,
+            RoomBroadcastBus roomBus, SessionResumption resumption, RoomShardManager shardManager,
+            RoomRegistry roomRegistry, @Value("${chat.recent-buffer-size:50}") int recentBufferSize) {
+        this.outbound = outbound;
+        this.recentBufferSize = recentBufferSize;
+        this.chatService = chatService;
+        this.presenceRegistry = presenceRegistry;
+        this.roomBus = roomBus;
+        this.resumption = resumption;
+        this.roster = new RoomRoster(roomBus, shardManager::ownerOf, new RoomRoster.Delivery() {
+            @Override
+            public void toRoom(Long roomId, String message, Long excludePlayerId) {
+                deliverToRoom(roomId, message, excludePlayerId);
+            }
+
+            @Override
+            public void toPlayer(Long playerId, String message) {
+                PlayerPresence player = presenceRegistry.getPlayer(playerId);
+                WebSocketSession session = player != null ? player.session(Channel.CHAT) : null;
+                if (session != null) {
+                    outbound.send(session, new TextMessage(message));
+                }
+            }
+        });
+        resumption.onExpire(Channel.CHAT, this::release);
+        presenceRegistry.onJoin(this::announceJoin);
+        presenceRegistry.onLeave(this::announceLeave);
+        roomBus.subscribe(Channel.CHAT, broadcast -> {
+            if (!roster.receive(broadcast)) {
+                deliverToRoom(broadcast.roomId(), broadcast.payload(), broadcast.excludePlayerId());
+                rememberRemote(broadcast);
+            }
+        });
+        roomBus.onMessage(Channel.CHAT, roster::receive);
+        roomRegistry.onRemove(recentChat::remove);
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         System.out.println("Chat WebSocket connected: " + session.getId());
+        outbound.register(session, Channel.CHAT);
     }
 
     @Override
@@ -45,46 +86,62 @@ public class ChatSocket extends TextWebSocketHandler {
         String payload = message.getPayload();
         String[] parts = payload.split(":", 5); // expect up to 5 parts
 
-        if (payload.startsWith("REGISTER:")) {
+        if (payload.startsWith("RESUME:")) {
+            // RESUME:Token:ReceivedCount - reattach after a dropped connection, replaying what was missed
+            if (parts.length >= 3) {
+                PlayerPresence info = resumption.resume(Channel.CHAT, session, parts[1], Long.parseLong(parts[2]),
+                        new TextMessage("RESUMED:"));
+                if (info == null) {
+                    outbound.send(session, new TextMessage("RESUME_FAILED:"));
+                }
+            }
+        } else if (payload.startsWith("REGISTER:")) {
             // REGISTER:RoomID:PlayerID:PlayerName
             if (parts.length >= 4) {
                 Long roomId = Long.parseLong(parts[1]);
                 Long playerId = Long.parseLong(parts[2]);
                 String playerName = parts[3];
 
-                sessionInfo.put(session.getId(), new PlayerSessionInfo(playerId, roomId));
-                roomSessions.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>()).put(playerId, session);
-                roomPlayerNames.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>()).put(playerId, playerName);
+                // Tracked before the bind, which announces the join and snapshots the room to this session
+                resumption.track(Channel.CHAT, session, playerId);
+                PlayerPresence previous = presenceRegistry.getPlayer(playerId);
+                boolean entering = previous == null || !roomId.equals(previous.getRoomId());
+                presenceRegistry.bind(Channel.CHAT, session, playerId, roomId, playerName);
+                if (!entering) {
+                    // Already in the room on another channel; only this session needs the roster
+                    roster.sendSnapshot(roomId, playerId);
+                }
 
                 System.out.println("Registered Chat: Room " + roomId + ", Player " + playerName);
-                broadcastToRoom(roomId, "GLOBAL:System:" + playerName + " joined the game.");
-                broadcastPlayerList(roomId);
+                sendBacklog(session, roomId);
             }
         } else if (payload.startsWith("GLOBAL:")) {
             // GLOBAL:SenderID:Msg
             if (parts.length >= 3) {
-                PlayerSessionInfo info = sessionInfo.get(session.getId());
+                PlayerPresence info = presenceRegistry.get(session);
                 if (info != null) {
                     String senderId = parts[1];
                     String text = parts[2];
-                    broadcastToRoom(info.roomId, "GLOBAL:" + senderId + ":" + text);
+                    broadcastToRoom(info.getRoomId(), "GLOBAL:" + senderId + ":" + text);
+                    persistGlobal(info, text);
                 }
             }
         } else if (payload.startsWith("PRIVATE:")) {
             // PRIVATE:SenderID:TargetID:Msg
             if (parts.length >= 4) {
-                PlayerSessionInfo info = sessionInfo.get(session.getId());
+                PlayerPresence info = presenceRegistry.get(session);
                 if (info != null) {
                     String senderId = parts[1];
                     Long targetId = Long.parseLong(parts[2]);
                     String text = parts[3];
 
-                    WebSocketSession targetSession = roomSessions.get(info.roomId).get(targetId);
-                    if (targetSession != null && targetSession.isOpen()) {
-                        targetSession.sendMessage(new TextMessage("PRIVATE:" + senderId + ":" + text));
-                        session.sendMessage(new TextMessage("PRIVATE:To " + targetId + ":" + text));
+                    WebSocketSession targetSession = chatSession(info.getRoomId(), targetId);
+                    // A suspended target still counts; the message is replayed when they resume
+                    if (targetSession != null) {
+                        outbound.send(targetSession, new TextMessage("PRIVATE:" + senderId + ":" + text));
+                        outbound.send(session, new TextMessage("PRIVATE:To " + targetId + ":" + text));
                     } else {
-                        session.sendMessage(
+                        outbound.send(session,
                                 new TextMessage("SYSTEM:Player " + targetId + " not found in this office."));
                     }
                 }
@@ -93,7 +150,7 @@ public class ChatSocket extends TextWebSocketHandler {
             // VOICE_SIGNAL:SenderID:TargetID:JsonPayload
             // Relays WebRTC signaling data (Offer, Answer, ICE Candidates)
             if (parts.length >= 4) {
-                PlayerSessionInfo info = sessionInfo.get(session.getId());
+                PlayerPresence info = presenceRegistry.get(session);
                 if (info != null) {
                     String senderId = parts[1];
                     Long targetId = Long.parseLong(parts[2]);
@@ -113,123 +170,292 @@ public class ChatSocket extends TextWebSocketHandler {
                     if (thirdColonIndex != -1) {
                         String signalPayload = payload.substring(thirdColonIndex + 1);
 
-                        WebSocketSession targetSession = roomSessions.get(info.roomId).get(targetId);
+                        WebSocketSession targetSession = chatSession(info.getRoomId(), targetId);
                         if (targetSession != null && targetSession.isOpen()) {
                             // Forward to target: VOICE_SIGNAL:SenderID:Payload
-                            targetSession
-                                    .sendMessage(new TextMessage("VOICE_SIGNAL:" + senderId + ":" + signalPayload));
+                            outbound.send(targetSession,
+                                    new TextMessage("VOICE_SIGNAL:" + senderId + ":" + signalPayload));
                         }
                     }
                 }
             }
         } else if (payload.startsWith("MEETING_JOIN:")) {
             if (parts.length >= 3) {
-                PlayerSessionInfo info = sessionInfo.get(session.getId());
+                PlayerPresence info = presenceRegistry.get(session);
                 if (info != null) {
-                    meetingParticipants.computeIfAbsent(info.roomId, k -> ConcurrentHashMap.newKeySet())
-                            .add(info.playerId);
-                    broadcastToMeeting(info.roomId, "MEETING_USER_JOINED:" + info.playerId);
+                    meetingParticipants.computeIfAbsent(info.getRoomId(), k -> ConcurrentHashMap.newKeySet())
+                            .add(info.getPlayerId());
+                    broadcastToMeeting(info.getRoomId(), "MEETING_USER_JOINED:" + info.getPlayerId());
 
-                    Set<Long> participants = meetingParticipants.get(info.roomId);
+                    Set<Long> participants = meetingParticipants.get(info.getRoomId());
                     String current = "";
                     if (participants != null) {
                         current = String.join(",",
                                 participants.stream()
-                                        .filter(id -> !id.equals(info.playerId))
+                                        .filter(id -> !id.equals(info.getPlayerId()))
                                         .map(Object::toString)
                                         .toArray(String[]::new));
                     }
-                    session.sendMessage(new TextMessage("MEETING_LIST:" + current));
+                    outbound.send(session, new TextMessage("MEETING_LIST:" + current));
                 }
             }
+        } else if (payload.startsWith("PLAYER_RESYNC")) {
+            // Client saw a presence version gap; send it a fresh snapshot
+            PlayerPresence info = presenceRegistry.get(session);
+            if (info != null && info.getRoomId() != null) {
+                roster.sendSnapshot(info.getRoomId(), info.getPlayerId());
+            }
+        } else if (payload.startsWith("HISTORY:")) {
+            // HISTORY:Limit[:Cursor] -> HISTORY:{"messages":[...],"nextCursor":...}
+            // The cursor is last because it contains colons
+            PlayerPresence info = presenceRegistry.get(session);
+            if (info != null) {
+                String[] historyParts = payload.split(":", 3);
+                String limit = historyParts.length > 1 ? historyParts[1] : null;
+                String cursor = historyParts.length > 2 && !historyParts[2].isEmpty() ? historyParts[2] : null;
+                sendHistory(session, info.getRoomId(), cursor, limit);
+            }
         } else if (payload.startsWith("MEETING_LEAVE:")) {
-            PlayerSessionInfo info = sessionInfo.get(session.getId());
+            PlayerPresence info = presenceRegistry.get(session);
             if (info != null) {
-                Set<Long> participants = meetingParticipants.get(info.roomId);
+                Set<Long> participants = meetingParticipants.get(info.getRoomId());
                 if (participants != null) {
-                    participants.remove(info.playerId);
-                    broadcastToMeeting(info.roomId, "MEETING_USER_LEFT:" + info.playerId);
+                    participants.remove(info.getPlayerId());
+                    broadcastToMeeting(info.getRoomId(), "MEETING_USER_LEFT:" + info.getPlayerId());
                 }
             }
         }
     }
 
-    private void broadcastPlayerList(Long roomId) {
+    // Store room chat after delivery; boss tasks and bonus rain ride on GLOBAL but are not chat
+    private void persistGlobal(PlayerPresence info, String text) {
+        if (text.startsWith("BOSS_TASK:") || text.equals("BONUS_RAIN")) {
+            return;
+        }
+        String senderName = info.getName() != null ? info.getName() : "Unknown";
+        LocalDateTime timestamp = LocalDateTime.now();
+        remember(info.getRoomId(), info.getPlayerId(), senderName, text, timestamp);
+        chatService.recordMessage(info.getRoomId(), info.getPlayerId(), senderName, text, timestamp);
+    }
+
+    // GLOBAL:SenderID:Msg from a player on another node; that node persists it
+    private void rememberRemote(RoomBroadcast broadcast) {
+        String[] parts = broadcast.payload().split(":", 3);
+        if (parts.length < 3 || !parts[0].equals("GLOBAL") || parts[2].startsWith("BOSS_TASK:")
+                || parts[2].equals("BONUS_RAIN")) {
+            return;
+        }
+        Long senderId;
         try {
-            Map<Long, String> names = roomPlayerNames.get(roomId);
-            if (names != null) {
-                List<String> listItems = new ArrayList<>();
-                for (Map.Entry<Long, String> entry : names.entrySet()) {
-                    listItems.add(entry.getKey().toString());
-                    listItems.add(entry.getValue());
-                }
-                String result = String.join(",", listItems);
-                broadcastToRoom(roomId, "PLAYER_LIST:" + result);
+            senderId = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            // System announcements are not chat history
+            return;
+        }
+        String senderName = roster.name(broadcast.roomId(), senderId);
+        remember(broadcast.roomId(), senderId, senderName != null ? senderName : "Unknown", parts[2],
+                LocalDateTime.now());
+    }
+
+    private void remember(Long roomId, Long senderId, String senderName, String text, LocalDateTime timestamp) {
+        if (recentBufferSize > 0) {
+            recentChat.computeIfAbsent(roomId, k -> new RecentChatBuffer(recentBufferSize))
+                    .add(new ChatHistoryEntry(null, senderId, senderName, text, timestamp));
+        }
+    }
+
+    /**
+     * BACKLOG:{"messages":[...],"nextCursor":...} from memory, in one frame.
+     * nextCursor continues with HISTORY before the oldest buffered message (null if nothing is buffered).
+     */
+    private void sendBacklog(WebSocketSession session, Long roomId) {
+        RecentChatBuffer buffer = recentChat.get(roomId);
+        List<ChatHistoryEntry> entries = buffer != null ? buffer.snapshot() : List.of();
+        String nextCursor = entries.isEmpty() ? null : ChatService.cursorBefore(entries.get(0).timestamp());
+        sendPage(session, "BACKLOG:", entries, nextCursor);
+    }
+
+    private void sendHistory(WebSocketSession session, Long roomId, String cursor, String limit) {
+        try {
+            ChatHistoryPage page = chatService.getHistory(roomId, cursor, ChatService.parseLimit(limit));
+            sendPage(session, "HISTORY:", page.messages(), page.nextCursor());
+        } catch (IllegalArgumentException e) {
+            // An empty page without a next cursor, so the client stops paging instead of waiting
+            System.out.println("Invalid chat history request: " + e.getMessage());
+            sendPage(session, "HISTORY:", List.of(), null);
+        } catch (Exception e) {
+            System.out.println("Error loading chat history: " + e.getMessage());
+        }
+    }
+
+    private void sendPage(WebSocketSession session, String prefix, List<ChatHistoryEntry> entries, String nextCursor) {
+        try {
+            List<Map<String, Object>> messages = new ArrayList<>();
+            for (ChatHistoryEntry entry : entries) {
+                Map<String, Object> map = new HashMap<>();
+                map.put("id", entry.id());
+                map.put("senderId", entry.senderId());
+                map.put("senderName", entry.senderName());
+                map.put("message", entry.message());
+                map.put("timestamp", entry.timestamp().toString());
+                messages.add(map);
             }
+            Map<String, Object> response = new HashMap<>();
+            response.put("messages", messages);
+            response.put("nextCursor", nextCursor);
+            outbound.send(session, new TextMessage(prefix + objectMapper.writeValueAsString(response)));
         } catch (Exception e) {
-            System.out.println("Error broadcasting player list: " + e.getMessage());
+            System.out.println("Error sending chat page: " + e.getMessage());
         }
     }
 
+    /**
+     * The player entered the room on any channel. Everyone in the room, on every node, gets
+     * PLAYER_JOINED:Version:ID:Name and the joiner a PLAYER_SNAPSHOT at or after that version.
+     */
+    private void announceJoin(PlayerPresence info, Long roomId) {
+        String name = info.getName() != null ? info.getName() : "Unknown";
+        broadcastToRoom(roomId, "GLOBAL:System:" + name + " joined the game.");
+        roster.join(roomId, info.getPlayerId(), name);
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         System.out.println("Chat WebSocket disconnected: " + session.getId());
+        outbound.unregister(session);
+        if (!resumption.suspend(Channel.CHAT, session, status)) {
+            release(session);
+        }
+    }
 
-        PlayerSessionInfo info = sessionInfo.remove(session.getId());
-        if (info != null) {
-            // Remove from meeting if present
-            Set<Long> participants = meetingParticipants.get(info.roomId);
-            if (participants != null && participants.remove(info.playerId)) {
-                broadcastToMeeting(info.roomId, "MEETING_USER_LEFT:" + info.playerId);
-            }
+    // Chat channel cleanup, run on close or once a dropped session was not resumed in time.
+    // The player stays listed while another channel keeps them in the room; announceLeave
+    // runs once they are out of it.
+    private void release(WebSocketSession session) {
+        PlayerPresence info = presenceRegistry.unbind(Channel.CHAT, session);
+        if (info != null && info.getRoomId() != null) {
+            // Voice signaling runs over chat, so the player cannot stay in the meeting
+            leaveMeeting(info.getRoomId(), info.getPlayerId());
+            forgetRoomIfUnused(info.getRoomId());
+        }
+    }
 
-            Map<Long, WebSocketSession> peers = roomSessions.get(info.roomId);
-            Map<Long, String> names = roomPlayerNames.get(info.roomId);
+    // The player left the room on every channel: moved to another room or closed their last session
+    private void announceLeave(PlayerPresence info, Long roomId) {
+        leaveMeeting(roomId, info.getPlayerId());
 
-            if (peers != null) {
-                String leaverName = names.getOrDefault(info.playerId, "Unknown");
-                peers.remove(info.playerId);
-                names.remove(info.playerId);
+        String leaverName = info.getName() != null ? info.getName() : "Unknown";
+        broadcastToRoom(roomId, "GLOBAL:System:" + leaverName + " left the game.");
 
-                broadcastToRoom(info.roomId, "GLOBAL:System:" + leaverName + " left the game.");
-                broadcastPlayerList(info.roomId);
+        roster.leave(roomId, info.getPlayerId());
+        forgetRoomIfUnused(roomId);
+    }
 
-                if (peers.isEmpty()) {
-                    roomSessions.remove(info.roomId);
-                    roomPlayerNames.remove(info.roomId);
-                    meetingParticipants.remove(info.roomId);
-                }
+    private void leaveMeeting(Long roomId, Long playerId) {
+        Set<Long> participants = meetingParticipants.get(roomId);
+        if (participants != null && participants.remove(playerId)) {
+            broadcastToMeeting(roomId, "MEETING_USER_LEFT:" + playerId);
+        }
+    }
+
+    private void forgetRoomIfUnused(Long roomId) {
+        if (!presenceRegistry.hasChannel(roomId, Channel.CHAT)) {
+            meetingParticipants.remove(roomId);
+        }
+        if (presenceRegistry.members(roomId).isEmpty()) {
+            roster.forget(roomId);
+            if (roomBus.nodes().size() > 1) {
+                // The bus stops sending this node the room's lines, so the buffer would miss some
+                recentChat.remove(roomId);
             }
         }
     }
 
     private void broadcastToRoom(Long roomId, String message) {
-        Map<Long, WebSocketSession> peers = roomSessions.get(roomId);
-        if (peers != null) {
-            TextMessage textMsg = new TextMessage(message);
-            for (WebSocketSession s : peers.values()) {
-                if (s.isOpen()) {
-                    try {
-                        s.sendMessage(textMsg);
-                    } catch (IOException e) {
-                        System.out.println("Error sending chat: " + e.getMessage());
-                    }
-                }
+        broadcastToRoom(roomId, message, null);
+    }
+
+    // Local sessions first, then players of the room connected to other nodes
+    private void broadcastToRoom(Long roomId, String message, Long excludePlayerId) {
+        deliverToRoom(roomId, message, excludePlayerId);
+        roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.CHAT, roomId, message, excludePlayerId));
+    }
+
+    // This node's sessions only
+    private void deliverToRoom(Long roomId, String message, Long excludePlayerId) {
+        TextMessage textMsg = new TextMessage(message);
+        for (PlayerPresence peer : presenceRegistry.members(roomId)) {
+            WebSocketSession s = peer.session(Channel.CHAT);
+            // Closed sessions are still sent to: a suspended one records what it missed for replay
+            if (s != null && !peer.getPlayerId().equals(excludePlayerId)) {
+                outbound.send(s, textMsg);
             }
         }
     }
 
-    private void broadcastToMeeting(Long roomId, String message) throws IOException {
+    private void broadcastToMeeting(Long roomId, String message) {
         Set<Long> participants = meetingParticipants.get(roomId);
-        Map<Long, WebSocketSession> sessions = roomSessions.get(roomId);
-        if (participants != null && sessions != null) {
+        if (participants != null) {
             TextMessage msg = new TextMessage(message);
             for (Long pid : participants) {
-                WebSocketSession s = sessions.get(pid);
-                if (s != null && s.isOpen()) {
-                    s.sendMessage(msg);
+                WebSocketSession s = chatSession(roomId, pid);
+                if (s != null) {
+                    outbound.send(s, msg);
                 }
             }
         }
     }
+
+    // Meeting participants and the room's roster move with the room when its owner node changes
+
+    @Override
+    public String handoffKey() {
+        return "chat";
+    }
+
+    @Override
+    public Object exportRoom(Long roomId) {
+        Map<String, Object> state = new HashMap<>();
+        Set<Long> participants = meetingParticipants.get(roomId);
+        if (participants != null && !participants.isEmpty()) {
+            state.put("meeting", new ArrayList<>(participants));
+        }
+        Map<String, Object> players = roster.export(roomId);
+        if (players != null) {
+            state.put("roster", players);
+        }
+        return state.isEmpty() ? null : state;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void importRoom(Long roomId, Object state) {
+        Map<String, Object> parts = (Map<String, Object>) state;
+        List<Object> meeting = (List<Object>) parts.get("meeting");
+        if (meeting != null) {
+            Set<Long> participants = meetingParticipants.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet());
+            for (Object playerId : meeting) {
+                participants.add(((Number) playerId).longValue());
+            }
+        }
+        Map<String, Object> players = (Map<String, Object>) parts.get("roster");
+        if (players != null) {
+            roster.importRoom(roomId, players);
+        }
+    }
+
+    @Override
+    public void releaseRoom(Long roomId) {
+        meetingParticipants.remove(roomId);
+        roster.forget(roomId);
+    }
+
+    // The player's chat session, if they are connected to this room
+    private WebSocketSession chatSession(Long roomId, Long playerId) {
+        PlayerPresence target = presenceRegistry.getPlayer(playerId);
+        if (target == null || !roomId.equals(target.getRoomId())) {
+            return null;
+        }
+        return target.session(Channel.CHAT);
+    }
 }
@@ -0,0 +1,64 @@
+package com.offficeVerse.websocket;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Single-node bus: every member is local, so there is nothing to forward.
+ */
+public class InProcessRoomBroadcastBus implements RoomBroadcastBus {
+
+    private final String nodeId;
+
+    public InProcessRoomBroadcastBus(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(RoomBroadcast broadcast) {
+        // Already delivered locally by the publishing socket
+    }
+
+    @Override
+    public void subscribe(Channel channel, Consumer<RoomBroadcast> listener) {
+        // No other nodes publish to us
+    }
+
+    @Override
+    public void send(String toNode, RoomMessage message) {
+        System.err.println("No node " + toNode + " to send " + message.type() + " for room " + message.roomId() + " to");
+    }
+
+    @Override
+    public void onMessage(Channel channel, Consumer<RoomMessage> receiver) {
+        // No other nodes send to us
+    }
+
+    @Override
+    public void updateInterest(Long roomId, int localMembers) {
+    }
+
+    @Override
+    public Set<String> nodes() {
+        return Set.of(nodeId);
+    }
+
+    @Override
+    public void onNodesChanged(Runnable listener) {
+        // Membership never changes
+    }
+
+    @Override
+    public void sendHandoff(RoomHandoff handoff) {
+        System.err.println("No node " + handoff.toNode() + " to hand room " + handoff.roomId() + " to");
+    }
+
+    @Override
+    public void onHandoff(Consumer<RoomHandoff> receiver) {
+    }
+}
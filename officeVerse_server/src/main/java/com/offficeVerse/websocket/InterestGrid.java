@@ -0,0 +1,93 @@
+package com.offficeVerse.websocket;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Uniform grid over a room's map coordinates used for area-of-interest queries.
+ * With the cell size equal to the interest radius a query touches at most a 3x3
+ * block of cells, so fan-out cost depends on local density instead of room size.
+ */
+class InterestGrid {
+
+    private final int cellSize;
+
+    // Map<CellKey, Set<PlayerID>>
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+
+    // Map<PlayerID, CellKey>
+    private final Map<Long, Long> playerCells = new HashMap<>();
+
+    InterestGrid(int cellSize) {
+        this.cellSize = Math.max(1, cellSize);
+    }
+
+    synchronized void update(long playerId, int x, int y) {
+        long cell = cellKey(Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize));
+        Long previous = playerCells.put(playerId, cell);
+        if (previous != null && previous == cell) {
+            return;
+        }
+        if (previous != null) {
+            removeFromCell(previous, playerId);
+        }
+        cells.computeIfAbsent(cell, k -> new HashSet<>()).add(playerId);
+    }
+
+    synchronized void remove(long playerId) {
+        Long previous = playerCells.remove(playerId);
+        if (previous != null) {
+            removeFromCell(previous, playerId);
+        }
+    }
+
+    /**
+     * Adds to out every state within radius of (x, y).
+     */
+    synchronized void query(int x, int y, int radius, Map<Long, MovementState> states,
+            Collection<MovementState> out) {
+        long radiusSquared = (long) radius * radius;
+        int minX = Math.floorDiv(x - radius, cellSize);
+        int maxX = Math.floorDiv(x + radius, cellSize);
+        int minY = Math.floorDiv(y - radius, cellSize);
+        int maxY = Math.floorDiv(y + radius, cellSize);
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                Set<Long> players = cells.get(cellKey(cx, cy));
+                if (players == null) {
+                    continue;
+                }
+                for (Long playerId : players) {
+                    MovementState state = states.get(playerId);
+                    if (state != null && distanceSquared(state, x, y) <= radiusSquared) {
+                        out.add(state);
+                    }
+                }
+            }
+        }
+    }
+
+    static long distanceSquared(MovementState state, int x, int y) {
+        long dx = state.x - x;
+        long dy = state.y - y;
+        return dx * dx + dy * dy;
+    }
+
+    private void removeFromCell(long cell, long playerId) {
+        Set<Long> players = cells.get(cell);
+        if (players != null) {
+            players.remove(playerId);
+            if (players.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
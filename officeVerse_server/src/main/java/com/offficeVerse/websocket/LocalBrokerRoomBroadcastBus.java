@@ -0,0 +1,118 @@
+package com.offficeVerse.websocket;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Bus backed by a {@link LocalRoomBroker}. Several nodes in one JVM that use the same
+ * broker name see each other's room broadcasts, which is enough to run a cluster
+ * locally or in tests without external infrastructure.
+ */
+public class LocalBrokerRoomBroadcastBus implements RoomBroadcastBus {
+
+    private final String nodeId;
+    private final LocalRoomBroker broker;
+
+    private final Map<Channel, Consumer<RoomBroadcast>> listeners = new ConcurrentHashMap<>();
+    private final Map<Channel, Consumer<RoomMessage>> messageReceivers = new ConcurrentHashMap<>();
+
+    private volatile Consumer<RoomHandoff> handoffReceiver;
+    private volatile Runnable nodesListener;
+
+    public LocalBrokerRoomBroadcastBus(String nodeId, LocalRoomBroker broker) {
+        this.nodeId = nodeId;
+        this.broker = broker;
+        broker.attach(nodeId, this::receive, this::receiveMessage, this::receiveHandoff, this::nodesChanged);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(RoomBroadcast broadcast) {
+        broker.route(broadcast);
+    }
+
+    @Override
+    public void subscribe(Channel channel, Consumer<RoomBroadcast> listener) {
+        listeners.put(channel, listener);
+    }
+
+    @Override
+    public void send(String toNode, RoomMessage message) {
+        broker.send(toNode, message);
+    }
+
+    @Override
+    public void onMessage(Channel channel, Consumer<RoomMessage> receiver) {
+        messageReceivers.put(channel, receiver);
+    }
+
+    @Override
+    public void updateInterest(Long roomId, int localMembers) {
+        broker.setInterest(roomId, nodeId, localMembers);
+    }
+
+    @Override
+    public Set<String> nodes() {
+        return broker.nodes();
+    }
+
+    @Override
+    public void onNodesChanged(Runnable listener) {
+        this.nodesListener = listener;
+    }
+
+    @Override
+    public void sendHandoff(RoomHandoff handoff) {
+        broker.handoff(handoff);
+    }
+
+    @Override
+    public void onHandoff(Consumer<RoomHandoff> receiver) {
+        this.handoffReceiver = receiver;
+    }
+
+    private void receive(RoomBroadcast broadcast) {
+        Consumer<RoomBroadcast> listener = listeners.get(broadcast.channel());
+        if (listener != null) {
+            listener.accept(broadcast);
+        }
+    }
+
+    private void receiveMessage(RoomMessage message) {
+        Consumer<RoomMessage> receiver = messageReceivers.get(message.channel());
+        if (receiver != null) {
+            receiver.accept(message);
+        } else {
+            System.err.println("No handler for " + message.channel().key() + " message " + message.type());
+        }
+    }
+
+    private void receiveHandoff(RoomHandoff handoff) {
+        Consumer<RoomHandoff> receiver = handoffReceiver;
+        if (receiver != null) {
+            receiver.accept(handoff);
+        } else {
+            System.err.println("Room handoff for " + handoff.roomId() + " arrived before this node was ready");
+        }
+    }
+
+    private void nodesChanged() {
+        Runnable listener = nodesListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        broker.detach(nodeId);
+    }
+}
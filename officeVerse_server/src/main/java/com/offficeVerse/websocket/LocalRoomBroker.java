@@ -0,0 +1,125 @@
+package com.offficeVerse.websocket;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * In-memory stand-in for an external message broker, shared by every node in the JVM
+ * that connects to the same broker name. Lets several application contexts (or bus
+ * instances in a test) behave like separate servers without any infrastructure.
+ *
+ * Routing is per room: a broadcast goes only to nodes that reported members in it.
+ * Each node receives on its own ordered lane, asynchronously, like a network hop.
+ * Directed messages, handoffs and membership notifications travel on the same lanes.
+ */
+public class LocalRoomBroker {
+
+    private static final int MAX_PENDING_PER_NODE = 10_000;
+
+    private static final Map<String, LocalRoomBroker> BROKERS = new ConcurrentHashMap<>();
+
+    // Map<NodeID, delivery lane>
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+    // Map<RoomID, Map<NodeID, member count>>
+    private final Map<Long, Map<String, Integer>> interest = new ConcurrentHashMap<>();
+
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+
+    public static LocalRoomBroker named(String name) {
+        return BROKERS.computeIfAbsent(name, k -> new LocalRoomBroker());
+    }
+
+    /**
+     * Connects a node; its receivers are called for broadcasts, messages and handoffs from other nodes.
+     * Every node, including the new one, is told that membership changed.
+     */
+    void attach(String nodeId, Consumer<RoomBroadcast> receiver, Consumer<RoomMessage> messages,
+            Consumer<RoomHandoff> handoffs, Runnable nodesChanged) {
+        nodes.put(nodeId, new Node(receiver, messages, handoffs, nodesChanged,
+                new SerialExecutor(deliveries, MAX_PENDING_PER_NODE)));
+        notifyNodesChanged();
+    }
+
+    void detach(String nodeId) {
+        nodes.remove(nodeId);
+        for (Long roomId : interest.keySet()) {
+            setInterest(roomId, nodeId, 0);
+        }
+        notifyNodesChanged();
+    }
+
+    Set<String> nodes() {
+        return Set.copyOf(nodes.keySet());
+    }
+
+    void handoff(RoomHandoff handoff) {
+        Node node = nodes.get(handoff.toNode());
+        if (node == null) {
+            System.err.println("Room " + handoff.roomId() + " handoff to unknown node " + handoff.toNode());
+            return;
+        }
+        submit(handoff.toNode(), node, () -> node.handoffs.accept(handoff));
+    }
+
+    void send(String toNode, RoomMessage message) {
+        Node node = nodes.get(toNode);
+        if (node == null) {
+            System.err.println("Room " + message.roomId() + " " + message.type() + " to unknown node " + toNode);
+            return;
+        }
+        submit(toNode, node, () -> node.messages.accept(message));
+    }
+
+    void route(RoomBroadcast broadcast) {
+        Map<String, Integer> holders = interest.get(broadcast.roomId());
+        if (holders == null) {
+            return;
+        }
+        for (String nodeId : holders.keySet()) {
+            if (nodeId.equals(broadcast.originNode())) {
+                continue;
+            }
+            Node node = nodes.get(nodeId);
+            if (node == null) {
+                continue;
+            }
+            submit(nodeId, node, () -> node.receiver.accept(broadcast));
+        }
+    }
+
+    private void notifyNodesChanged() {
+        nodes.forEach((nodeId, node) -> submit(nodeId, node, node.nodesChanged));
+    }
+
+    private void submit(String nodeId, Node node, Runnable task) {
+        try {
+            node.lane.execute(task);
+        } catch (RejectedExecutionException e) {
+            System.err.println("Delivery to node " + nodeId + " dropped: " + e.getMessage());
+        }
+    }
+
+    void setInterest(Long roomId, String nodeId, int localMembers) {
+        interest.compute(roomId, (id, holders) -> {
+            if (localMembers > 0) {
+                if (holders == null) {
+                    holders = new ConcurrentHashMap<>();
+                }
+                holders.put(nodeId, localMembers);
+            } else if (holders != null) {
+                holders.remove(nodeId);
+            }
+            return holders == null || holders.isEmpty() ? null : holders;
+        });
+    }
+
+    private record Node(Consumer<RoomBroadcast> receiver, Consumer<RoomMessage> messages,
+            Consumer<RoomHandoff> handoffs, Runnable nodesChanged, SerialExecutor lane) {
+    }
+}
@@ -0,0 +1,297 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Wire formats for the /movement channel.
+ *
+ * Text (default): "roomId:playerId:x:y:name:skin:character:anim:flip" in,
+ * "Snapshot:tick:baseTick" followed by Broadcast/Delta lines out.
+ *
+ * Binary (sub-protocol "officeverse.movement.binary"), big-endian:
+ * <pre>
+ * in  STATE    0x01 room:u32 player:u32 x:i16 y:i16 character:u8 anim:u8 flags:u8 skin:i32 [nameLen:u8 name]
+ *              flags bit0 = flip, bit1 = name follows (otherwise the session's last name is kept)
+ * in  ACK      0x02 tick:u32
+ * in  RESYNC   0x03
+ * out SNAPSHOT 0x10 tick:u32 baseTick:u32 count:u16 then per entry
+ *              FULL  0x00 player:u32 x:i16 y:i16 character:u8 anim:u8 flags:u8 skin:i32 nameLen:u8 name
+ *              DELTA 0x01 player:u32 dx:i16 dy:i16 mask:u8 [anim:u8]
+ *                    mask bit0 = anim follows, bit1 = flip changed, bit2 = new flip value
+ *              LEAVE 0x02 player:u32 (player left this session's area of interest)
+ * out LEFT     0x11 player:u32
+ * </pre>
+ * Binary parsing reads straight from the inbound buffer and encoding writes into
+ * pooled buffers; each finished frame is copied once into an exact-size buffer
+ * for the asynchronous outbound queue.
+ */
+final class MovementCodec {
+
+    static final String BINARY_SUBPROTOCOL = "officeverse.movement.binary";
+
+    static final byte IN_STATE = 0x01;
+    static final byte IN_ACK = 0x02;
+    static final byte IN_RESYNC = 0x03;
+    static final byte OUT_SNAPSHOT = 0x10;
+    static final byte OUT_LEFT = 0x11;
+
+    private static final byte ENTRY_FULL = 0x00;
+    private static final byte ENTRY_DELTA = 0x01;
+    private static final byte ENTRY_LEAVE = 0x02;
+
+    private static final int FLAG_FLIP = 0x01;
+    private static final int FLAG_NAME = 0x02;
+
+    // Code tables for the binary protocol; unknown values fall back to index 0
+    static final String[] CHARACTERS = { "owlet", "dude", "pink" };
+    static final String[] ANIMS = { "idle", "walk" };
+
+    private static final int DEFAULT_SKIN = 0xffffff;
+
+    private MovementCodec() {
+    }
+
+    static int code(String[] table, String value) {
+        for (int i = 0; i < table.length; i++) {
+            if (table[i].equals(value)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    static String decode(String[] table, int code) {
+        return code < table.length ? table[code] : table[0];
+    }
+
+    // Accepts decimal ("16777215") and hex ("0xffffff") skins as sent by the client
+    static int parseSkin(String skin) {
+        try {
+            return (int) (long) Long.decode(skin);
+        } catch (NumberFormatException e) {
+            return DEFAULT_SKIN;
+        }
+    }
+
+    /**
+     * Reads the remainder of a binary STATE frame, after the type byte and room/player IDs.
+     * Without a name the previous state's name is kept.
+     */
+    static MovementState readState(ByteBuffer in, long playerId, MovementState previous) {
+        int x = in.getShort();
+        int y = in.getShort();
+        String character = decode(CHARACTERS, in.get() & 0xff);
+        String anim = decode(ANIMS, in.get() & 0xff);
+        int flags = in.get() & 0xff;
+        int skin = in.getInt();
+
+        String name = previous != null ? previous.name : "Unknown";
+        if ((flags & FLAG_NAME) != 0) {
+            int length = in.get() & 0xff;
+            if (previous != null && matches(in, previous.nameUtf8, length)) {
+                in.position(in.position() + length);
+            } else {
+                byte[] bytes = new byte[length];
+                in.get(bytes);
+                name = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return new MovementState(playerId, x, y, name, skin, character, anim, (flags & FLAG_FLIP) != 0, previous);
+    }
+
+    private static boolean matches(ByteBuffer in, byte[] bytes, int length) {
+        if (bytes.length != length) {
+            return false;
+        }
+        int start = in.position();
+        for (int i = 0; i < length; i++) {
+            if (in.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Length of the longest prefix of at most max bytes that ends on a character boundary,
+     * so a long name is never cut inside a multi-byte character.
+     */
+    static int utf8Prefix(byte[] utf8, int max) {
+        if (utf8.length <= max) {
+            return utf8.length;
+        }
+        int length = max;
+        // Step back over continuation bytes (10xxxxxx) to the start of the cut character
+        while (length > 0 && (utf8[length] & 0xc0) == 0x80) {
+            length--;
+        }
+        return length;
+    }
+
+    /**
+     * Reads a Broadcast line written by {@link TextSnapshotWriter#full}. Only the name may contain ':',
+     * so the fields after it are taken from the end.
+     */
+    static MovementState parseFull(String line, MovementState previous) {
+        String[] parts = line.split(":", -1);
+        int n = parts.length;
+        if (n < 9 || !parts[0].equals("Broadcast")) {
+            throw new IllegalArgumentException("Not a Broadcast line: " + line);
+        }
+        String name = String.join(":", Arrays.copyOfRange(parts, 4, n - 4));
+        return new MovementState(Long.parseLong(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                name, Integer.parseInt(parts[n - 4]), parts[n - 3], parts[n - 2], parts[n - 1].equals("1"), previous);
+    }
+
+    static BinaryMessage playerLeft(long playerId) {
+        ByteBuffer buffer = ByteBuffer.allocate(5);
+        buffer.put(OUT_LEFT).putInt((int) playerId).flip();
+        return new BinaryMessage(buffer);
+    }
+
+    /**
+     * Receives the entries of one snapshot; implemented once per wire format.
+     */
+    interface SnapshotWriter {
+        void begin(long tick, long baseTick);
+
+        void full(MovementState state);
+
+        void delta(MovementState state, MovementState base);
+
+        void leave(long playerId);
+    }
+
+    /**
+     * Text snapshot builder. The StringBuilder is reused across ticks.
+     */
+    static final class TextSnapshotWriter implements SnapshotWriter {
+        private final StringBuilder sb = new StringBuilder(1024);
+
+        @Override
+        public void begin(long tick, long baseTick) {
+            sb.setLength(0);
+            sb.append("Snapshot:").append(tick).append(':').append(baseTick);
+        }
+
+        // Broadcast:playerId:x:y:name:skin:character:anim:flip
+        @Override
+        public void full(MovementState state) {
+            sb.append('\n').append("Broadcast:").append(state.playerId).append(':').append(state.x)
+                    .append(':').append(state.y).append(':').append(state.name).append(':').append(state.skin)
+                    .append(':').append(state.character).append(':').append(state.anim)
+                    .append(':').append(state.flip ? '1' : '0');
+        }
+
+        // Delta:playerId:dx:dy:anim:flip (anim/flip left empty when unchanged)
+        @Override
+        public void delta(MovementState state, MovementState base) {
+            sb.append('\n').append("Delta:").append(state.playerId).append(':').append(state.x - base.x)
+                    .append(':').append(state.y - base.y).append(':');
+            if (!state.anim.equals(base.anim)) {
+                sb.append(state.anim);
+            }
+            sb.append(':');
+            if (state.flip != base.flip) {
+                sb.append(state.flip ? '1' : '0');
+            }
+        }
+
+        // Leave:playerId
+        @Override
+        public void leave(long playerId) {
+            sb.append('\n').append("Leave:").append(playerId);
+        }
+
+        TextMessage toMessage() {
+            return new TextMessage(sb.toString());
+        }
+    }
+
+    /**
+     * Binary snapshot builder writing into a pooled buffer.
+     * The caller sends the finished buffer and hands it back with {@link #release()}.
+     */
+    static final class BinarySnapshotWriter implements SnapshotWriter {
+        private final ByteBufferPool pool;
+        private ByteBuffer buffer;
+        private int countPosition;
+        private int count;
+
+        BinarySnapshotWriter(ByteBufferPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void begin(long tick, long baseTick) {
+            buffer = pool.acquire();
+            buffer.put(OUT_SNAPSHOT).putInt((int) tick).putInt((int) baseTick);
+            countPosition = buffer.position();
+            buffer.putShort((short) 0);
+            count = 0;
+        }
+
+        @Override
+        public void full(MovementState state) {
+            int nameLength = utf8Prefix(state.nameUtf8, 255);
+            ensureRemaining(19 + nameLength);
+            buffer.put(ENTRY_FULL).putInt((int) state.playerId)
+                    .putShort((short) state.x).putShort((short) state.y)
+                    .put((byte) code(CHARACTERS, state.character)).put((byte) code(ANIMS, state.anim))
+                    .put((byte) (state.flip ? FLAG_FLIP : 0)).putInt(state.skin)
+                    .put((byte) nameLength).put(state.nameUtf8, 0, nameLength);
+            count++;
+        }
+
+        @Override
+        public void delta(MovementState state, MovementState base) {
+            ensureRemaining(11);
+            boolean animChanged = !state.anim.equals(base.anim);
+            int mask = (animChanged ? 0x01 : 0) | (state.flip != base.flip ? 0x02 : 0) | (state.flip ? 0x04 : 0);
+            buffer.put(ENTRY_DELTA).putInt((int) state.playerId)
+                    .putShort((short) (state.x - base.x)).putShort((short) (state.y - base.y))
+                    .put((byte) mask);
+            if (animChanged) {
+                buffer.put((byte) code(ANIMS, state.anim));
+            }
+            count++;
+        }
+
+        @Override
+        public void leave(long playerId) {
+            ensureRemaining(5);
+            buffer.put(ENTRY_LEAVE).putInt((int) playerId);
+            count++;
+        }
+
+        /**
+         * Finishes the frame and returns a read-only view ready to send.
+         */
+        ByteBuffer finish() {
+            buffer.putShort(countPosition, (short) count);
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        }
+
+        void release() {
+            if (buffer != null) {
+                pool.release(buffer);
+                buffer = null;
+            }
+        }
+
+        private void ensureRemaining(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2 + bytes);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+}
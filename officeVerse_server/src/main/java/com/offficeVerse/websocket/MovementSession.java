@@ -0,0 +1,198 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-session movement bookkeeping for delta compression.
+ *
+ * Sessions start in legacy mode and receive full entries for players that moved
+ * during the tick. Their first frame in a room, and the frame after one that was dropped,
+ * lists every player in the room instead. Once a client acknowledges a snapshot (text "Ack:tick" or a
+ * binary ACK frame) it switches to delta mode: every later snapshot is encoded against
+ * the states the client has acknowledged, and players without an acknowledged
+ * baseline are sent in full.
+ */
+class MovementSession {
+
+    /**
+     * What a snapshot carries. A snapshot with leave entries must reach the client; one with
+     * only states may be dropped, followed by {@link #resync()}.
+     */
+    enum Encoded { NOTHING, STATES, LEAVES }
+
+    // Unacknowledged snapshots beyond this are treated as a lost client and trigger a keyframe
+    private static final int MAX_PENDING_SNAPSHOTS = 64;
+
+    final WebSocketSession session;
+    final Long playerId;
+    final Long roomId;
+    final boolean binary;
+
+    // Last state received from this session, reused for unchanged names
+    volatile MovementState lastState;
+
+    private volatile boolean deltaMode;
+
+    // Legacy mode: the next frame lists every player in the room, not only those that moved
+    private final AtomicBoolean fullFrame = new AtomicBoolean(true);
+
+    // Last state the client has confirmed per player (its baseline)
+    private final Map<Long, MovementState> acked = new HashMap<>();
+
+    // Snapshots sent but not yet acknowledged, oldest first
+    private final Deque<SentSnapshot> pending = new ArrayDeque<>();
+
+    // Players currently inside this session's area of interest: Map<PlayerID, last tick seen>
+    private final Map<Long, Long> visible = new HashMap<>();
+
+    private long ackedTick;
+    private long lastKeyframeTick;
+
+    private static class SentSnapshot {
+        final long tick;
+        final Map<Long, MovementState> states;
+
+        SentSnapshot(long tick, Map<Long, MovementState> states) {
+            this.tick = tick;
+            this.states = states;
+        }
+    }
+
+    MovementSession(WebSocketSession session, Long playerId, Long roomId) {
+        this.session = session;
+        this.playerId = playerId;
+        this.roomId = roomId;
+        this.binary = MovementCodec.BINARY_SUBPROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    /**
+     * The same connection in another room: it keeps its protocol mode, and its first snapshot
+     * there is a full one.
+     */
+    MovementSession movedTo(Long roomId) {
+        MovementSession moved = new MovementSession(session, playerId, roomId);
+        moved.deltaMode = deltaMode;
+        moved.lastState = lastState;
+        return moved;
+    }
+
+    boolean isDeltaMode() {
+        return deltaMode;
+    }
+
+    // A legacy frame was dropped, so the client missed the latest state of whoever was in it
+    void needFullFrame() {
+        fullFrame.set(true);
+    }
+
+    boolean takeFullFrame() {
+        return fullFrame.getAndSet(false);
+    }
+
+    synchronized void acknowledge(long tick) {
+        deltaMode = true;
+        ackedTick = Math.max(ackedTick, tick);
+        while (!pending.isEmpty() && pending.peekFirst().tick <= tick) {
+            acked.putAll(pending.pollFirst().states);
+        }
+    }
+
+    // Client lost track of remote players, or a snapshot to it was dropped; the next
+    // snapshot carries full states and no unacknowledged snapshot becomes a baseline
+    synchronized void resync() {
+        acked.clear();
+        pending.clear();
+    }
+
+    synchronized void forget(Long otherPlayerId) {
+        visible.remove(otherPlayerId);
+        acked.remove(otherPlayerId);
+        for (SentSnapshot snapshot : pending) {
+            snapshot.states.remove(otherPlayerId);
+        }
+    }
+
+    /**
+     * Writes this session's snapshot for the tick: one full or delta entry per player
+     * that differs from the acknowledged baseline. Deltas are relative to each player's
+     * latest state the client received at or before the snapshot's base tick.
+     *
+     * Candidates are the players within the leave radius. A player not yet visible only
+     * enters once within enterRadius of the viewer (and is sent in full); visible players
+     * missing from the candidates get a leave entry. A null viewer or enterRadius of 0
+     * disables the interest filter.
+     *
+     * @return NOTHING when nothing changed for this session
+     */
+    synchronized Encoded encodeSnapshot(long tick, Collection<MovementState> candidates, MovementState viewer,
+            int enterRadius, int keyframeInterval, MovementCodec.SnapshotWriter out) {
+        if (pending.size() >= MAX_PENDING_SNAPSHOTS) {
+            acked.clear();
+            pending.clear();
+        }
+
+        boolean keyframe = tick - lastKeyframeTick >= keyframeInterval;
+        if (keyframe) {
+            lastKeyframeTick = tick;
+        }
+
+        out.begin(tick, keyframe ? 0 : ackedTick);
+
+        boolean filter = viewer != null && enterRadius > 0;
+        long enterRadiusSquared = (long) enterRadius * enterRadius;
+        boolean leaves = false;
+        Map<Long, MovementState> sent = new HashMap<>();
+        for (MovementState state : candidates) {
+            if (state.playerId == playerId) {
+                continue;
+            }
+            if (filter && !visible.containsKey(state.playerId)
+                    && InterestGrid.distanceSquared(state, viewer.x, viewer.y) > enterRadiusSquared) {
+                continue;
+            }
+            visible.put(state.playerId, tick);
+
+            MovementState base = keyframe ? null : acked.get(state.playerId);
+            if (base == state) {
+                continue;
+            }
+            if (base == null || !state.sameAppearance(base)) {
+                out.full(state);
+            } else {
+                out.delta(state, base);
+            }
+            sent.put(state.playerId, state);
+        }
+
+        Iterator<Map.Entry<Long, Long>> it = visible.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Long> entry = it.next();
+            if (entry.getValue() != tick) {
+                Long leftPlayerId = entry.getKey();
+                it.remove();
+                acked.remove(leftPlayerId);
+                for (SentSnapshot snapshot : pending) {
+                    snapshot.states.remove(leftPlayerId);
+                }
+                out.leave(leftPlayerId);
+                leaves = true;
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            pending.addLast(new SentSnapshot(tick, sent));
+        }
+        if (leaves) {
+            return Encoded.LEAVES;
+        }
+        return sent.isEmpty() ? Encoded.NOTHING : Encoded.STATES;
+    }
+}
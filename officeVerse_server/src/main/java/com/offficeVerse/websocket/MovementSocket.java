@@ -1,46 +1,142 @@
 package com.offficeVerse.websocket;
 
+import com.offficeVerse.service.PositionService;
+import com.offficeVerse.service.RoomStateParticipant;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Movement channel. Clients speak the text protocol by default; clients that request
+ * the "officeverse.movement.binary" sub-protocol on connect use the packed binary
+ * format described in {@link MovementCodec}. Both end up in the same room state.
+ *
+ * Each node ticks the players connected to it. States that changed in a tick are also
+ * published on the {@link RoomBroadcastBus} as Broadcast lines, so nodes sharing a room send
+ * each other's players to their sessions on their next tick. A node whose first movement
+ * session enters a room publishes Sync and the others answer with their players' latest
+ * states; PlayerLeft:ID follows a player out of the room.
+ */
 @Component
-public class MovementSocket extends TextWebSocketHandler {
+public class MovementSocket extends AbstractWebSocketHandler implements SubProtocolCapable, RoomStateParticipant {
 
-    // Track sessions by Room ID: Map<RoomID, Map<SessionID, WebSocketSession>>
-    private final Map<Long, Map<String, WebSocketSession>> roomSessions = new ConcurrentHashMap<>();
+    // Sessions and room membership live in PresenceRegistry; each player's MovementSession
+    // is kept there as the MOVEMENT channel attachment
 
-    // Track player info per session: Map<SessionID, PlayerInfo>
-    private final Map<String, PlayerSessionInfo> sessionInfo = new ConcurrentHashMap<>();
+    // Latest reported state per player since the last tick: Map<RoomID, Map<PlayerID, MovementState>>
+    // Newer updates overwrite older ones, so each player appears at most once per snapshot.
+    private final Map<Long, Map<Long, MovementState>> pendingStates = new ConcurrentHashMap<>();
 
-    private static class PlayerSessionInfo {
-        Long playerId;
-        Long roomId;
+    // Current state of every player, used as the source for delta snapshots and keyframes
+    private final Map<Long, Map<Long, MovementState>> roomStates = new ConcurrentHashMap<>();
 
-        PlayerSessionInfo(Long playerId, Long roomId) {
-            this.playerId = playerId;
-            this.roomId = roomId;
-        }
+    // States of players connected to other nodes, received since the last tick: Map<RoomID, Map<PlayerID, MovementState>>
+    private final Map<Long, Map<Long, MovementState>> remoteStates = new ConcurrentHashMap<>();
+
+    // Spatial index per room for area-of-interest filtering: Map<RoomID, InterestGrid>
+    private final Map<Long, InterestGrid> roomGrids = new ConcurrentHashMap<>();
+
+    // The tick has its own thread so write-behind flushes on Spring's scheduler never delay snapshots
+    private final ScheduledExecutorService tickExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("movement-tick").daemon().factory());
+
+    // Outbound encoders, only touched from the tick thread
+    private final ByteBufferPool bufferPool = new ByteBufferPool(64, 16 * 1024);
+    private final MovementCodec.TextSnapshotWriter textWriter = new MovementCodec.TextSnapshotWriter();
+    private final MovementCodec.BinarySnapshotWriter binaryWriter = new MovementCodec.BinarySnapshotWriter(bufferPool);
+    private final MovementCodec.BinarySnapshotWriter legacyBinaryWriter = new MovementCodec.BinarySnapshotWriter(bufferPool);
+    private final List<MovementState> changed = new ArrayList<>();
+    // Legacy frames of the room being ticked, built at most once each: text/binary x moved/everyone
+    private final WebSocketMessage<?>[] legacyFrames = new WebSocketMessage<?>[4];
+    private final List<MovementState> candidates = new ArrayList<>();
+    private long tickCount;
+
+    @Value("${movement.tick-rate-hz:20}")
+    private int tickRateHz;
+
+    @Value("${movement.keyframe-interval-ticks:100}")
+    private int keyframeInterval;
+
+    // Players farther than this (in map pixels) are not sent to a session; 0 sends everyone
+    @Value("${movement.interest-radius:480}")
+    private int interestRadius;
+
+    // Extra distance a visible player may move away before it leaves, to avoid flapping at the edge
+    @Value("${movement.interest-hysteresis:64}")
+    private int interestHysteresis;
+
+    private final OutboundDispatcher outbound;
+    private final PresenceRegistry presenceRegistry;
+    private final PositionService positionService;
+    private final RoomBroadcastBus roomBus;
+
+    public MovementSocket(OutboundDispatcher outbound, PresenceRegistry presenceRegistry,
+            PositionService positionService, RoomBroadcastBus roomBus) {
+        this.outbound = outbound;
+        this.presenceRegistry = presenceRegistry;
+        this.positionService = positionService;
+        this.roomBus = roomBus;
+        presenceRegistry.onLeave(this::followPresence);
+        roomBus.subscribe(Channel.MOVEMENT, this::receiveRemote);
     }
 
-    public MovementSocket() {
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(MovementCodec.BINARY_SUBPROTOCOL);
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        System.out.println("Movement WebSocket connected: " + session.getId());
+        System.out.println("Movement WebSocket connected: " + session.getId()
+                + (MovementCodec.BINARY_SUBPROTOCOL.equals(session.getAcceptedProtocol()) ? " (binary)" : ""));
+        outbound.register(session, Channel.MOVEMENT);
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        String payload = message.getPayload();
+
+        // Ack:tick confirms a snapshot; Resync asks for full states on the next tick
+        if (payload.startsWith("Ack:")) {
+            MovementSession movementSession = movementSession(session);
+            if (movementSession != null) {
+                try {
+                    movementSession.acknowledge(Long.parseLong(payload.substring(4)));
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid ack: " + payload);
+                }
+            }
+            return;
+        }
+        if (payload.equals("Resync")) {
+            MovementSession movementSession = movementSession(session);
+            if (movementSession != null) {
+                movementSession.resync();
+            }
+            return;
+        }
 
-        String[] parts = message.getPayload().split(":");
+        String[] parts = payload.split(":");
         // Format: roomId:playerId:x:y:name:skin:character:anim:flip
         if (parts.length < 4 || parts.length > 9) {
-            session.sendMessage(new TextMessage("Invalid format. Use roomId:playerId:x:y[:name][:skin][:character][:anim][:flip]"));
+            outbound.send(session, new TextMessage("Invalid format. Use roomId:playerId:x:y[:name][:skin][:character][:anim][:flip]"));
             return;
         }
 
@@ -50,63 +146,459 @@ public class MovementSocket extends TextWebSocketHandler {
             int x = Integer.parseInt(parts[2]);
             int y = Integer.parseInt(parts[3]);
             String name = (parts.length >= 5) ? parts[4] : "Unknown";
-            String skin = (parts.length >= 6) ? parts[5] : "0xffffff";
+            int skin = (parts.length >= 6) ? MovementCodec.parseSkin(parts[5]) : 0xffffff;
             String character = (parts.length >= 7) ? parts[6] : "owlet";
             String anim = (parts.length >= 8) ? parts[7] : "idle";
-            String flip = (parts.length == 9) ? parts[8] : "0";
-
-            // Register session in room if not already
-            if (!sessionInfo.containsKey(session.getId())) {
-                sessionInfo.put(session.getId(), new PlayerSessionInfo(playerId, roomId));
-                roomSessions.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>()).put(session.getId(), session);
-            }
-
-            // Broadcast only to players in the same room
-            Map<String, WebSocketSession> peers = roomSessions.get(roomId);
-            if (peers != null) {
-                TextMessage broadcastMsg = new TextMessage("Broadcast:" + playerId + ":" + x + ":" + y + ":" + name
-                        + ":" + skin + ":" + character + ":" + anim + ":" + flip);
-                for (WebSocketSession s : peers.values()) {
-                    if (s.isOpen()) {
-                        try {
-                            s.sendMessage(broadcastMsg);
-                        } catch (Exception e) {
-                            System.out.println("Error broadcasting movement: " + e.getMessage());
-                        }
-                    }
-                }
-            }
+            boolean flip = (parts.length == 9) && parts[8].equals("1");
+
+            MovementSession movementSession = register(session, roomId, playerId);
+            MovementState state = new MovementState(playerId, x, y, name, skin, character, anim, flip,
+                    movementSession.lastState);
+            update(movementSession, state);
 
         } catch (NumberFormatException e) {
             System.out.println("Error parsing numbers: " + e.getMessage());
-            session.sendMessage(new TextMessage("Invalid numbers"));
+            outbound.send(session, new TextMessage("Invalid numbers"));
         } catch (Exception e) {
             System.out.println("Error in handleTextMessage: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        ByteBuffer in = message.getPayload();
+        try {
+            byte type = in.get();
+            if (type == MovementCodec.IN_STATE) {
+                // Unsigned on the wire, like the tick
+                long roomId = in.getInt() & 0xffffffffL;
+                long playerId = in.getInt() & 0xffffffffL;
+                MovementSession movementSession = register(session, roomId, playerId);
+                update(movementSession, MovementCodec.readState(in, playerId, movementSession.lastState));
+            } else if (type == MovementCodec.IN_ACK) {
+                MovementSession movementSession = movementSession(session);
+                if (movementSession != null) {
+                    movementSession.acknowledge(in.getInt() & 0xffffffffL);
+                }
+            } else if (type == MovementCodec.IN_RESYNC) {
+                MovementSession movementSession = movementSession(session);
+                if (movementSession != null) {
+                    movementSession.resync();
+                }
+            } else {
+                System.out.println("Unknown binary movement frame type: " + type);
+            }
+        } catch (BufferUnderflowException e) {
+            System.out.println("Truncated binary movement frame from " + session.getId());
+        }
+    }
+
+    // Register session in room if not already
+    private MovementSession register(WebSocketSession session, Long roomId, Long playerId) {
+        MovementSession movementSession = movementSession(session);
+        if (movementSession == null) {
+            PlayerPresence presence = presenceRegistry.bind(Channel.MOVEMENT, session, playerId, roomId, null);
+            movementSession = new MovementSession(session, playerId, roomId);
+            presence.attach(Channel.MOVEMENT, movementSession);
+            requestRemoteStates(roomId);
+        }
+        return movementSession;
+    }
+
+    private MovementSession movementSession(WebSocketSession session) {
+        PlayerPresence presence = presenceRegistry.get(session);
+        return presence != null ? presence.attachment(Channel.MOVEMENT) : null;
+    }
+
+    // Keep only the latest state; it goes out with the next room snapshot and
+    // becomes the player's last known position
+    private void update(MovementSession movementSession, MovementState state) {
+        movementSession.lastState = state;
+        positionService.record(state.playerId, state.x, state.y);
+        pendingStates.computeIfAbsent(movementSession.roomId, k -> new ConcurrentHashMap<>())
+                .put(state.playerId, state);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startTicking() {
+        long periodMs = 1000 / Math.max(1, tickRateHz);
+        tickExecutor.scheduleAtFixedRate(() -> {
+            // An exception escaping would cancel every later tick
+            try {
+                tick();
+            } catch (Exception e) {
+                System.err.println("Error in movement tick: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopTicking() {
+        tickExecutor.shutdownNow();
+    }
+
+    /**
+     * Fixed-rate simulation tick (movement.tick-rate-hz, default 20 Hz), run on the movement-tick thread.
+     * Sessions that acknowledge snapshots get a per-session delta against their
+     * acknowledged baseline, with a full keyframe every movement.keyframe-interval-ticks.
+     * Delta sessions only see players within movement.interest-radius of their own position.
+     * Legacy sessions share one frame per format with full entries for players that moved this tick;
+     * a session whose previous frame was dropped gets every player in the room instead.
+     */
+    void tick() {
+        long tick = ++tickCount;
+        boolean shared = roomBus.nodes().size() > 1;
+
+        for (Long roomId : presenceRegistry.activeRooms()) {
+            if (!presenceRegistry.hasChannel(roomId, Channel.MOVEMENT)) {
+                continue;
+            }
+            Map<Long, MovementState> states = roomStates.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>());
+            InterestGrid grid = roomGrids.computeIfAbsent(roomId, k -> new InterestGrid(interestRadius));
+
+            changed.clear();
+            Map<Long, MovementState> pending = pendingStates.get(roomId);
+            if (pending != null) {
+                for (Long playerId : pending.keySet()) {
+                    MovementState state = pending.remove(playerId);
+                    if (state != null) {
+                        states.put(playerId, state);
+                        grid.update(playerId, state.x, state.y);
+                        changed.add(state);
+                    }
+                }
+            }
+            if (shared && !changed.isEmpty()) {
+                writeEntries(textWriter, tick, changed);
+                roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.MOVEMENT, roomId,
+                        textWriter.toMessage().getPayload(), null));
+            }
+            // After publishing, so other nodes' players are not sent back to them
+            Map<Long, MovementState> remote = remoteStates.get(roomId);
+            if (remote != null) {
+                for (Long playerId : remote.keySet()) {
+                    MovementState state = remote.remove(playerId);
+                    if (state != null) {
+                        states.put(playerId, state);
+                        grid.update(playerId, state.x, state.y);
+                        changed.add(state);
+                    }
+                }
+            }
+
+            Arrays.fill(legacyFrames, null);
+            for (PlayerPresence member : presenceRegistry.members(roomId)) {
+                MovementSession movementSession = member.attachment(Channel.MOVEMENT);
+                if (movementSession == null || !roomId.equals(movementSession.roomId)) {
+                    continue;
+                }
+                WebSocketSession s = movementSession.session;
+                if (!s.isOpen()) {
+                    continue;
+                }
+                try {
+                    if (movementSession.isDeltaMode()) {
+                        sendDelta(movementSession, tick, states, grid);
+                    } else {
+                        sendLegacy(movementSession, tick, states);
+                    }
+                } catch (Exception e) {
+                    System.out.println("Error broadcasting movement: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Players that moved this tick, or everyone in the room when the session's previous frame was
+    // dropped (or it has none yet). A dropped frame asks for everyone again on the next tick.
+    private void sendLegacy(MovementSession movementSession, long tick, Map<Long, MovementState> states) {
+        boolean everyone = movementSession.takeFullFrame();
+        if (!everyone && changed.isEmpty()) {
+            return;
+        }
+        int slot = (movementSession.binary ? 2 : 0) + (everyone ? 1 : 0);
+        if (legacyFrames[slot] == null) {
+            Collection<MovementState> entries = everyone ? states.values() : changed;
+            if (movementSession.binary) {
+                try {
+                    writeEntries(legacyBinaryWriter, tick, entries);
+                    legacyFrames[slot] = new BinaryMessage(copyOf(legacyBinaryWriter.finish()));
+                } finally {
+                    legacyBinaryWriter.release();
+                }
+            } else {
+                writeEntries(textWriter, tick, entries);
+                legacyFrames[slot] = textWriter.toMessage();
+            }
+        }
+        WebSocketMessage<?> frame = legacyFrames[slot];
+        if (frame instanceof BinaryMessage binary) {
+            frame = new BinaryMessage(binary.getPayload().duplicate());
+        }
+        outbound.sendDroppable(movementSession.session, frame, movementSession::needFullFrame);
+    }
+
+    private void sendDelta(MovementSession movementSession, long tick, Map<Long, MovementState> states,
+            InterestGrid grid) throws Exception {
+        MovementState viewer = states.get(movementSession.playerId);
+        Collection<MovementState> interest = states.values();
+        if (interestRadius > 0 && viewer != null) {
+            candidates.clear();
+            grid.query(viewer.x, viewer.y, interestRadius + interestHysteresis, states, candidates);
+            interest = candidates;
+        }
+
+        if (movementSession.binary) {
+            try {
+                MovementSession.Encoded encoded = movementSession.encodeSnapshot(tick, interest, viewer,
+                        interestRadius, keyframeInterval, binaryWriter);
+                if (encoded != MovementSession.Encoded.NOTHING) {
+                    sendSnapshot(movementSession, encoded, new BinaryMessage(copyOf(binaryWriter.finish())));
+                }
+            } finally {
+                binaryWriter.release();
+            }
+        } else {
+            MovementSession.Encoded encoded = movementSession.encodeSnapshot(tick, interest, viewer,
+                    interestRadius, keyframeInterval, textWriter);
+            if (encoded != MovementSession.Encoded.NOTHING) {
+                sendSnapshot(movementSession, encoded, textWriter.toMessage());
+            }
+        }
+    }
+
+    // A snapshot with only states may be dropped under backpressure; the session then resyncs so the
+    // client is never treated as having a baseline it did not receive. Leaves are never dropped.
+    private void sendSnapshot(MovementSession movementSession, MovementSession.Encoded encoded,
+            WebSocketMessage<?> frame) {
+        if (encoded == MovementSession.Encoded.LEAVES) {
+            outbound.send(movementSession.session, frame);
+        } else {
+            outbound.sendDroppable(movementSession.session, frame, movementSession::resync);
+        }
+    }
+
+    // Frames are sent asynchronously, so the pooled buffer is copied out before it is released
+    private static ByteBuffer copyOf(ByteBuffer frame) {
+        ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+        copy.put(frame).flip();
+        return copy;
+    }
+
+    private static void writeEntries(MovementCodec.SnapshotWriter writer, long tick,
+            Collection<MovementState> entries) {
+        writer.begin(tick, 0);
+        for (MovementState state : entries) {
+            writer.full(state);
+        }
+    }
+
+    // Last positions move with the room when its owner node changes, so the new owner has every
+    // player's position before their own node publishes it again
+
+    @Override
+    public String handoffKey() {
+        return "positions";
+    }
+
+    @Override
+    public Object exportRoom(Long roomId) {
+        Map<Long, MovementState> states = new HashMap<>();
+        Map<Long, MovementState> current = roomStates.get(roomId);
+        if (current != null) {
+            states.putAll(current);
+        }
+        Map<Long, MovementState> pending = pendingStates.get(roomId);
+        if (pending != null) {
+            states.putAll(pending);
+        }
+        if (states.isEmpty()) {
+            return null;
+        }
+        List<Map<String, Object>> positions = new ArrayList<>();
+        for (MovementState state : states.values()) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", state.playerId);
+            map.put("x", state.x);
+            map.put("y", state.y);
+            map.put("name", state.name);
+            map.put("skin", state.skin);
+            map.put("character", state.character);
+            map.put("anim", state.anim);
+            map.put("flip", state.flip);
+            positions.add(map);
+        }
+        return positions;
+    }
+
+    // Applied as updates so the next tick sends them like any other movement. Players moving on
+    // this node are published to the other nodes; players connected elsewhere are handled like
+    // their node's broadcasts and removed by its PlayerLeft. Without local sessions in the room
+    // nothing here would ever send or clear them, so they are skipped
+    @Override
+    @SuppressWarnings("unchecked")
+    public void importRoom(Long roomId, Object state) {
+        if (!presenceRegistry.hasChannel(roomId, Channel.MOVEMENT)) {
+            return;
+        }
+        Map<Long, MovementState> pending = pendingStates.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>());
+        Map<Long, MovementState> remote = remoteStates.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>());
+        Map<Long, MovementState> current = roomStates.get(roomId);
+        for (Map<String, Object> map : (List<Map<String, Object>>) state) {
+            long playerId = ((Number) map.get("id")).longValue();
+            PlayerPresence presence = presenceRegistry.getPlayer(playerId);
+            MovementSession local = presence != null ? presence.attachment(Channel.MOVEMENT) : null;
+            boolean here = local != null && roomId.equals(local.roomId);
+            if (!here && current != null && current.containsKey(playerId)) {
+                // Already heard from the player's own node, which is newer
+                continue;
+            }
+            MovementState imported = new MovementState(playerId, ((Number) map.get("x")).intValue(),
+                    ((Number) map.get("y")).intValue(), (String) map.get("name"),
+                    ((Number) map.get("skin")).intValue(), (String) map.get("character"),
+                    (String) map.get("anim"), Boolean.TRUE.equals(map.get("flip")), null);
+            (here ? pending : remote).putIfAbsent(playerId, imported);
+        }
+    }
+
+    @Override
+    public void releaseRoom(Long roomId) {
+        pendingStates.remove(roomId);
+        remoteStates.remove(roomId);
+        roomStates.remove(roomId);
+        roomGrids.remove(roomId);
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         System.out.println("Movement WebSocket disconnected: " + session.getId());
+        outbound.unregister(session);
 
-        PlayerSessionInfo info = sessionInfo.remove(session.getId());
-        if (info != null) {
-            Map<String, WebSocketSession> peers = roomSessions.get(info.roomId);
-            if (peers != null) {
-                peers.remove(session.getId());
-                if (peers.isEmpty()) {
-                    roomSessions.remove(info.roomId);
-                } else {
-                    // Notify others in room
-                    TextMessage leftMsg = new TextMessage("PlayerLeft:" + info.playerId);
-                    for (WebSocketSession s : peers.values()) {
-                        if (s.isOpen()) {
-                            s.sendMessage(leftMsg);
-                        }
-                    }
+        MovementSession info = movementSession(session);
+        if (info != null && presenceRegistry.unbind(Channel.MOVEMENT, session) != null) {
+            positionService.forget(info.playerId);
+            removeFromRoom(info);
+        }
+    }
+
+    // The player's room changed through another channel; their movement session moves with them
+    private void followPresence(PlayerPresence presence, Long leftRoomId) {
+        MovementSession info = presence.attachment(Channel.MOVEMENT);
+        if (info == null || !leftRoomId.equals(info.roomId)) {
+            return;
+        }
+        removeFromRoom(info);
+        Long roomId = presence.getRoomId();
+        // Without a room the next movement frame registers the session again
+        boolean moved = roomId != null && !roomId.equals(leftRoomId);
+        presence.attach(Channel.MOVEMENT, moved ? info.movedTo(roomId) : null);
+        if (moved) {
+            requestRemoteStates(roomId);
+        }
+    }
+
+    // Drops the player from their room's movement state and tells the others, on every node, they left
+    private void removeFromRoom(MovementSession info) {
+        roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.MOVEMENT, info.roomId,
+                "PlayerLeft:" + info.playerId, null));
+        forgetPlayer(info.roomId, info.playerId);
+    }
+
+    private void forgetPlayer(Long roomId, long playerId) {
+        Map<Long, MovementState> pending = pendingStates.get(roomId);
+        if (pending != null) {
+            pending.remove(playerId);
+        }
+        Map<Long, MovementState> remote = remoteStates.get(roomId);
+        if (remote != null) {
+            remote.remove(playerId);
+        }
+        Map<Long, MovementState> states = roomStates.get(roomId);
+        if (states != null) {
+            states.remove(playerId);
+        }
+        InterestGrid grid = roomGrids.get(roomId);
+        if (grid != null) {
+            grid.remove(playerId);
+        }
+
+        if (!presenceRegistry.hasChannel(roomId, Channel.MOVEMENT)) {
+            releaseRoom(roomId);
+        } else {
+            // Notify others in room
+            TextMessage leftMsg = new TextMessage("PlayerLeft:" + playerId);
+            BinaryMessage leftBinary = MovementCodec.playerLeft(playerId);
+            for (PlayerPresence member : presenceRegistry.members(roomId)) {
+                MovementSession peer = member.attachment(Channel.MOVEMENT);
+                if (peer == null) {
+                    continue;
                 }
+                peer.forget(playerId);
+                outbound.send(peer.session, peer.binary
+                        ? new BinaryMessage(leftBinary.getPayload().duplicate())
+                        : leftMsg);
             }
         }
     }
+
+    // Asks the other nodes in the room for their players' latest states
+    private void requestRemoteStates(Long roomId) {
+        roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.MOVEMENT, roomId, "Sync", null));
+    }
+
+    // Runs on the bus's delivery thread; states are handed to the tick through remoteStates
+    private void receiveRemote(RoomBroadcast broadcast) {
+        Long roomId = broadcast.roomId();
+        String payload = broadcast.payload();
+        if (payload.startsWith("PlayerLeft:")) {
+            forgetPlayer(roomId, Long.parseLong(payload.substring("PlayerLeft:".length())));
+            return;
+        }
+        if (!presenceRegistry.hasChannel(roomId, Channel.MOVEMENT)) {
+            return;
+        }
+        if (payload.equals("Sync")) {
+            publishLocalStates(roomId);
+            return;
+        }
+
+        Map<Long, MovementState> current = roomStates.get(roomId);
+        Map<Long, MovementState> remote = remoteStates.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>());
+        for (String line : payload.split("\n")) {
+            if (!line.startsWith("Broadcast:")) {
+                continue;
+            }
+            try {
+                long playerId = Long.parseLong(line.substring("Broadcast:".length(), line.indexOf(':', "Broadcast:".length())));
+                MovementState previous = current != null ? current.get(playerId) : null;
+                MovementState state = MovementCodec.parseFull(line, previous);
+                // Sync answers repeat states this node already has; resending them would cost every session a frame
+                if (previous == null || !state.sameAs(previous)) {
+                    remote.put(playerId, state);
+                }
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid movement line from node " + broadcast.originNode() + ": " + line);
+            }
+        }
+    }
+
+    // Latest state of every player moving in the room on this node, answering another node's Sync
+    private void publishLocalStates(Long roomId) {
+        MovementCodec.TextSnapshotWriter writer = new MovementCodec.TextSnapshotWriter();
+        writer.begin(tickCount, 0);
+        int count = 0;
+        for (PlayerPresence member : presenceRegistry.members(roomId)) {
+            MovementSession movementSession = member.attachment(Channel.MOVEMENT);
+            if (movementSession != null && roomId.equals(movementSession.roomId) && movementSession.lastState != null) {
+                writer.full(movementSession.lastState);
+                count++;
+            }
+        }
+        if (count > 0) {
+            roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.MOVEMENT, roomId,
+                    writer.toMessage().getPayload(), null));
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.offficeVerse.websocket;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Immutable snapshot of one player's movement state.
+ * A new instance is created for every inbound update, so reference equality
+ * is enough to tell whether a player changed since a given baseline.
+ */
+class MovementState {
+    final long playerId;
+    final int x;
+    final int y;
+    final String name;
+    final int skin;
+    final String character;
+    final String anim;
+    final boolean flip;
+
+    // UTF-8 name for the binary protocol, carried over from the previous state while the name is unchanged
+    final byte[] nameUtf8;
+
+    MovementState(long playerId, int x, int y, String name, int skin, String character, String anim,
+            boolean flip, MovementState previous) {
+        this.playerId = playerId;
+        this.x = x;
+        this.y = y;
+        this.skin = skin;
+        this.character = character;
+        this.anim = anim;
+        this.flip = flip;
+        if (previous != null && previous.name.equals(name)) {
+            this.name = previous.name;
+            this.nameUtf8 = previous.nameUtf8;
+        } else {
+            this.name = name;
+            this.nameUtf8 = name.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    // Name, skin and character only change on re-login, so a change forces a full entry
+    boolean sameAppearance(MovementState other) {
+        return skin == other.skin && name.equals(other.name) && character.equals(other.character);
+    }
+
+    boolean sameAs(MovementState other) {
+        return x == other.x && y == other.y && flip == other.flip && anim.equals(other.anim) && sameAppearance(other);
+    }
+}
@@ -0,0 +1,187 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single /ws endpoint carrying the chat, movement, room and zone channels over one connection.
+ *
+ * Framing: every data frame starts with its channel tag ({@link Channel#tag()}: c, m, r, z)
+ * followed by exactly what the channel's own endpoint would carry - the rest of the text for
+ * text frames, the remaining bytes for binary frames. Text frames starting with '@' are control:
+ *
+ *   @open:Tag[:SubProtocol]  client opens a channel (optional; data on a closed channel opens it)
+ *   @opened:Tag[:Protocol]   server reply with the accepted sub-protocol, if any
+ *   @close:Tag               client closes a channel
+ *
+ * Each channel is handed to the existing handler as a {@link ChannelSession}, so handler
+ * logic, outbound queues and per-session ordering are the same as on the separate endpoints.
+ */
+public class MultiplexSocket extends AbstractWebSocketHandler implements SubProtocolCapable {
+
+    public static final String SUBPROTOCOL = "officeverse.mux";
+
+    private final Map<Channel, WebSocketHandler> handlers;
+
+    // Map<SessionID, Connection>
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    private static class Connection {
+        final ReentrantLock sendLock = new ReentrantLock();
+        // Only touched from the connection's own callbacks, which the container delivers one at a time
+        final Map<Channel, ChannelSession> channels = new EnumMap<>(Channel.class);
+    }
+
+    public MultiplexSocket(Map<Channel, WebSocketHandler> handlers) {
+        this.handlers = new EnumMap<>(handlers);
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(SUBPROTOCOL);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        System.out.println("Multiplexed WebSocket connected: " + session.getId());
+        connections.put(session.getId(), new Connection());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        Connection connection = connections.get(session.getId());
+        String payload = message.getPayload();
+        if (connection == null || payload.isEmpty()) {
+            return;
+        }
+
+        if (payload.charAt(0) == '@') {
+            handleControl(session, connection, payload);
+            return;
+        }
+
+        Channel channel = Channel.fromTag(payload.charAt(0));
+        if (channel == null) {
+            System.out.println("Unknown channel tag on " + session.getId() + ": " + payload.charAt(0));
+            return;
+        }
+        ChannelSession channelSession = open(session, connection, channel, null);
+        if (channelSession != null) {
+            handlers.get(channel).handleMessage(channelSession, new TextMessage(payload.substring(1)));
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        Connection connection = connections.get(session.getId());
+        ByteBuffer payload = message.getPayload();
+        if (connection == null || !payload.hasRemaining()) {
+            return;
+        }
+
+        Channel channel = Channel.fromTag((char) payload.get());
+        if (channel == null) {
+            System.out.println("Unknown binary channel tag on " + session.getId());
+            return;
+        }
+        ChannelSession channelSession = open(session, connection, channel, null);
+        if (channelSession != null) {
+            handlers.get(channel).handleMessage(channelSession, new BinaryMessage(payload.slice()));
+        }
+    }
+
+    private void handleControl(WebSocketSession session, Connection connection, String payload) throws Exception {
+        String[] parts = payload.substring(1).split(":", 3);
+        Channel channel = parts.length > 1 && parts[1].length() == 1 ? Channel.fromTag(parts[1].charAt(0)) : null;
+        if (channel == null) {
+            System.out.println("Invalid multiplex control frame: " + payload);
+            return;
+        }
+
+        if (parts[0].equals("open")) {
+            ChannelSession channelSession = open(session, connection, channel, parts.length > 2 ? parts[2] : null);
+            if (channelSession != null) {
+                String accepted = channelSession.getAcceptedProtocol();
+                send(session, connection, "@opened:" + channel.tag() + (accepted != null ? ":" + accepted : ""));
+            }
+        } else if (parts[0].equals("close")) {
+            ChannelSession channelSession = connection.channels.remove(channel);
+            if (channelSession != null) {
+                handlers.get(channel).afterConnectionClosed(channelSession, CloseStatus.NORMAL);
+            }
+        }
+    }
+
+    // Opens the channel on first use; the requested sub-protocol only counts on the first open
+    private ChannelSession open(WebSocketSession session, Connection connection, Channel channel,
+            String requestedProtocol) throws Exception {
+        ChannelSession existing = connection.channels.get(channel);
+        if (existing != null) {
+            return existing;
+        }
+        WebSocketHandler handler = handlers.get(channel);
+        if (handler == null) {
+            return null;
+        }
+
+        String accepted = null;
+        if (requestedProtocol != null && subProtocols(handler).contains(requestedProtocol)) {
+            accepted = requestedProtocol;
+        }
+        ChannelSession channelSession = new ChannelSession(session, channel, connection.sendLock, accepted);
+        connection.channels.put(channel, channelSession);
+        handler.afterConnectionEstablished(channelSession);
+        return channelSession;
+    }
+
+    private static List<String> subProtocols(WebSocketHandler handler) {
+        WebSocketHandler target = handler;
+        while (target instanceof WebSocketHandlerDecorator decorator) {
+            target = decorator.getDelegate();
+        }
+        return target instanceof SubProtocolCapable capable ? capable.getSubProtocols() : List.of();
+    }
+
+    private void send(WebSocketSession session, Connection connection, String text) throws Exception {
+        connection.sendLock.lock();
+        try {
+            session.sendMessage(new TextMessage(text));
+        } finally {
+            connection.sendLock.unlock();
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        Connection connection = connections.get(session.getId());
+        if (connection != null) {
+            for (Map.Entry<Channel, ChannelSession> entry : connection.channels.entrySet()) {
+                handlers.get(entry.getKey()).handleTransportError(entry.getValue(), exception);
+            }
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        System.out.println("Multiplexed WebSocket disconnected: " + session.getId());
+        Connection connection = connections.remove(session.getId());
+        if (connection != null) {
+            for (Map.Entry<Channel, ChannelSession> entry : connection.channels.entrySet()) {
+                try {
+                    handlers.get(entry.getKey()).afterConnectionClosed(entry.getValue(), status);
+                } catch (Exception e) {
+                    System.err.println("Error closing " + entry.getKey().key() + " channel: " + e.getMessage());
+                }
+            }
+            connection.channels.clear();
+        }
+    }
+}
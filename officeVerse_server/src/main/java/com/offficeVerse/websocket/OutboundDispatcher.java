@@ -0,0 +1,113 @@
+package com.offficeVerse.websocket;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared outbound path for all socket handlers.
+ *
+ * Each session gets a bounded queue drained on a virtual thread, so a broadcast
+ * loop only enqueues and one slow client cannot stall the rest of the room.
+ * Capacity and overflow policy default per {@link Channel} and can be overridden with
+ * websocket.outbound.{channel}.capacity / websocket.outbound.{channel}.policy.
+ * Sessions that can be resumed also get every message numbered in a {@link ReplayLog},
+ * which keeps recording while the session is suspended.
+ */
+@Component
+public class OutboundDispatcher {
+
+    // Map<SessionID, SessionOutbox>
+    private final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+
+    // Map<SessionID, ReplayLog> for resumable sessions, including suspended ones
+    private final Map<String, ReplayLog> replayLogs = new ConcurrentHashMap<>();
+
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Environment environment;
+
+    public OutboundDispatcher(Environment environment) {
+        this.environment = environment;
+    }
+
+    public void register(WebSocketSession session, Channel channel) {
+        int capacity = environment.getProperty("websocket.outbound." + channel.key() + ".capacity",
+                Integer.class, channel.defaultCapacity());
+        Channel.OverflowPolicy policy = environment.getProperty("websocket.outbound." + channel.key() + ".policy",
+                Channel.OverflowPolicy.class, channel.defaultPolicy());
+        outboxes.put(session.getId(), new SessionOutbox(session, channel, policy, capacity, writers));
+    }
+
+    public void unregister(WebSocketSession session) {
+        SessionOutbox outbox = outboxes.remove(session.getId());
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    /**
+     * Queues a message for the session. Never blocks on the network.
+     */
+    public void send(WebSocketSession session, WebSocketMessage<?> message) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        ReplayLog replayLog = replayLogs.get(session.getId());
+        if (replayLog != null) {
+            replayLog.record(message, outbox);
+        } else if (outbox != null) {
+            outbox.enqueue(message);
+        } else {
+            System.out.println("No outbound queue for session " + session.getId() + ", message dropped");
+        }
+    }
+
+    void attachReplay(WebSocketSession session, ReplayLog replayLog) {
+        replayLogs.put(session.getId(), replayLog);
+    }
+
+    void detachReplay(WebSocketSession session) {
+        replayLogs.remove(session.getId());
+    }
+
+    /**
+     * Queues the acknowledgement and the messages after lastSeen on the session.
+     *
+     * @return false if the session has no queue or the log no longer has those messages
+     */
+    boolean replay(WebSocketSession session, ReplayLog replayLog, long lastSeen, WebSocketMessage<?> ack) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        return outbox != null && replayLog.replay(lastSeen, ack, outbox);
+    }
+
+    /**
+     * @return whether {@link #replay} could currently succeed, without queueing anything
+     */
+    boolean canReplay(WebSocketSession session, ReplayLog replayLog, long lastSeen) {
+        return outboxes.containsKey(session.getId()) && replayLog.covers(lastSeen);
+    }
+
+    /**
+     * Queues a message that may be discarded if the session falls behind (DROP_OLDEST channels only).
+     * onDropped runs when it is discarded, so the caller can resend what the client missed.
+     */
+    public void sendDroppable(WebSocketSession session, WebSocketMessage<?> message, Runnable onDropped) {
+        SessionOutbox outbox = outboxes.get(session.getId());
+        ReplayLog replayLog = replayLogs.get(session.getId());
+        if (replayLog != null) {
+            replayLog.record(message, outbox);
+        } else if (outbox != null) {
+            outbox.enqueue(message, true, onDropped);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+}
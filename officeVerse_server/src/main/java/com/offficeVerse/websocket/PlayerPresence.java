@@ -0,0 +1,59 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * One connected player: their room and their session on each {@link Channel}.
+ * A channel handler can keep its per-session state here as an attachment.
+ * Bindings change only through {@link PresenceRegistry}; reads take no locks.
+ */
+public class PlayerPresence {
+
+    private final Long playerId;
+    private volatile String name;
+    private volatile Long roomId;
+
+    // Indexed by Channel.ordinal()
+    private final AtomicReferenceArray<WebSocketSession> sessions = new AtomicReferenceArray<>(Channel.values().length);
+    private final AtomicReferenceArray<Object> attachments = new AtomicReferenceArray<>(Channel.values().length);
+
+    PlayerPresence(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public Long getPlayerId() { return playerId; }
+    public String getName() { return name; }
+    public Long getRoomId() { return roomId; }
+
+    public WebSocketSession session(Channel channel) {
+        return sessions.get(channel.ordinal());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T attachment(Channel channel) {
+        return (T) attachments.get(channel.ordinal());
+    }
+
+    public void attach(Channel channel, Object attachment) {
+        attachments.set(channel.ordinal(), attachment);
+    }
+
+    void setName(String name) { this.name = name; }
+    void setRoomId(Long roomId) { this.roomId = roomId; }
+
+    void bind(Channel channel, WebSocketSession session) {
+        sessions.set(channel.ordinal(), session);
+        attachments.set(channel.ordinal(), null);
+    }
+
+    boolean hasSessions() {
+        for (int i = 0; i < sessions.length(); i++) {
+            if (sessions.get(i) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
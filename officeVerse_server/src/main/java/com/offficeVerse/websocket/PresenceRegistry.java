@@ -0,0 +1,199 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Who is connected, in which room, on which channels. Shared by the chat, movement,
+ * room and zone sockets so membership is tracked once per player instead of once per channel.
+ *
+ * Handlers bind a session when the client identifies itself and unbind it in
+ * afterConnectionClosed; a player is dropped once their last session is gone.
+ * Reads are lock-free; binds and unbinds are serialized. Room member counts are
+ * reported to the {@link RoomBroadcastBus} so other nodes know where to forward broadcasts.
+ *
+ * Room membership belongs to the player, not to one channel: a bind with a room id moves
+ * every channel, and a player leaves a room only when they move elsewhere or their last
+ * session closes. Handlers follow those moves through {@link #onJoin} and {@link #onLeave}.
+ */
+@Component
+public class PresenceRegistry {
+
+    // Map<PlayerID, PlayerPresence>
+    private final Map<Long, PlayerPresence> players = new ConcurrentHashMap<>();
+
+    // Map<SessionID, PlayerPresence> for looking up the player behind a socket callback
+    private final Map<String, PlayerPresence> bySession = new ConcurrentHashMap<>();
+
+    // Map<RoomID, Set<PlayerPresence>>
+    private final Map<Long, Set<PlayerPresence>> rooms = new ConcurrentHashMap<>();
+
+    // Told about every player leaving a room, while the registry is still locked
+    private final List<BiConsumer<PlayerPresence, Long>> leaveListeners = new CopyOnWriteArrayList<>();
+
+    // Told about every player entering a room, while the registry is still locked
+    private final List<BiConsumer<PlayerPresence, Long>> joinListeners = new CopyOnWriteArrayList<>();
+
+    private final RoomBroadcastBus roomBus;
+
+    public PresenceRegistry(RoomBroadcastBus roomBus) {
+        this.roomBus = roomBus;
+    }
+
+    /**
+     * Calls the listener with the player and the room they left, after they are out of it.
+     * A player who moved has their new room id (or null); one whose last session closed still
+     * holds the room they left. Runs while binds and unbinds are blocked, so the listener must
+     * only update state and queue sends.
+     */
+    public void onLeave(BiConsumer<PlayerPresence, Long> listener) {
+        leaveListeners.add(listener);
+    }
+
+    /**
+     * Calls the listener with the player and the room they entered, after the leave listeners for
+     * the room they came from. The player's session on the channel being bound is already
+     * attached. Runs while binds and unbinds are blocked, like {@link #onLeave}.
+     */
+    public void onJoin(BiConsumer<PlayerPresence, Long> listener) {
+        joinListeners.add(listener);
+    }
+
+    /**
+     * Binds the session as the player's connection on this channel and places the player in the room.
+     * A session the player previously had on this channel is detached, so its later close is a no-op.
+     *
+     * @param roomId null keeps the player's current room
+     * @param name null keeps the player's current name
+     */
+    public synchronized PlayerPresence bind(Channel channel, WebSocketSession session, Long playerId, Long roomId,
+            String name) {
+        PlayerPresence presence = players.computeIfAbsent(playerId, PlayerPresence::new);
+        if (name != null) {
+            presence.setName(name);
+        }
+
+        WebSocketSession previous = presence.session(channel);
+        if (previous != null && !previous.getId().equals(session.getId())) {
+            bySession.remove(previous.getId());
+        }
+        presence.bind(channel, session);
+        bySession.put(session.getId(), presence);
+
+        if (roomId != null) {
+            moveTo(presence, roomId);
+        }
+        return presence;
+    }
+
+    /**
+     * Moves the player (all of their channels) to another room, or out of any room if roomId is null.
+     */
+    public synchronized void moveTo(PlayerPresence presence, Long roomId) {
+        Long current = presence.getRoomId();
+        if (Objects.equals(current, roomId)) {
+            return;
+        }
+        if (current != null) {
+            removeFromRoom(presence, current);
+        }
+        presence.setRoomId(roomId);
+        if (roomId != null) {
+            Set<PlayerPresence> members = rooms.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet());
+            members.add(presence);
+            roomBus.updateInterest(roomId, members.size());
+        }
+        if (current != null) {
+            fire(leaveListeners, presence, current, "leaving");
+        }
+        if (roomId != null) {
+            fire(joinListeners, presence, roomId, "entering");
+        }
+    }
+
+    /**
+     * The single cleanup path for a closed session.
+     *
+     * @return the player the session belonged to (still holding its room id), or null if it was
+     *         never bound or has been replaced by a newer session
+     */
+    public synchronized PlayerPresence unbind(Channel channel, WebSocketSession session) {
+        PlayerPresence presence = bySession.get(session.getId());
+        WebSocketSession bound = presence != null ? presence.session(channel) : null;
+        if (bound == null || !bound.getId().equals(session.getId())) {
+            return null;
+        }
+        bySession.remove(session.getId());
+        presence.bind(channel, null);
+
+        if (!presence.hasSessions()) {
+            players.remove(presence.getPlayerId());
+            Long roomId = presence.getRoomId();
+            if (roomId != null) {
+                removeFromRoom(presence, roomId);
+                fire(leaveListeners, presence, roomId, "leaving");
+            }
+        }
+        return presence;
+    }
+
+    public PlayerPresence get(WebSocketSession session) {
+        return bySession.get(session.getId());
+    }
+
+    public PlayerPresence getPlayer(Long playerId) {
+        return playerId != null ? players.get(playerId) : null;
+    }
+
+    public Collection<PlayerPresence> members(Long roomId) {
+        Set<PlayerPresence> members = roomId != null ? rooms.get(roomId) : null;
+        return members != null ? members : Collections.emptySet();
+    }
+
+    /**
+     * Rooms with at least one connected player.
+     */
+    public Set<Long> activeRooms() {
+        return rooms.keySet();
+    }
+
+    /**
+     * @return whether any player in the room still has a session on the channel
+     */
+    public boolean hasChannel(Long roomId, Channel channel) {
+        for (PlayerPresence presence : members(roomId)) {
+            if (presence.session(channel) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void fire(List<BiConsumer<PlayerPresence, Long>> listeners, PlayerPresence presence, Long roomId,
+            String what) {
+        for (BiConsumer<PlayerPresence, Long> listener : listeners) {
+            try {
+                listener.accept(presence, roomId);
+            } catch (Exception e) {
+                System.err.println("Error handling player " + presence.getPlayerId() + " " + what + " room " + roomId
+                        + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void removeFromRoom(PlayerPresence presence, Long roomId) {
+        Set<PlayerPresence> members = rooms.get(roomId);
+        if (members != null) {
+            members.remove(presence);
+            if (members.isEmpty()) {
+                rooms.remove(roomId);
+            }
+            roomBus.updateInterest(roomId, members.size());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.offficeVerse.websocket;
+
+import com.offficeVerse.model.ChatHistoryEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of a room's most recent chat messages, replayed to players as they register.
+ * Older messages come from the persisted history.
+ */
+class RecentChatBuffer {
+
+    private final ChatHistoryEntry[] entries;
+    private int next;
+    private int size;
+
+    RecentChatBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Recent chat buffer needs room for at least one message: " + capacity);
+        }
+        this.entries = new ChatHistoryEntry[capacity];
+    }
+
+    synchronized void add(ChatHistoryEntry entry) {
+        entries[next] = entry;
+        next = (next + 1) % entries.length;
+        if (size < entries.length) {
+            size++;
+        }
+    }
+
+    /**
+     * @return buffered messages, oldest first
+     */
+    synchronized List<ChatHistoryEntry> snapshot() {
+        List<ChatHistoryEntry> result = new ArrayList<>(size);
+        int start = (next - size + entries.length) % entries.length;
+        for (int i = 0; i < size; i++) {
+            result.add(entries[(start + i) % entries.length]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The last few messages sent to one player on one channel, numbered from 1 in send order.
+ * Clients count the messages they receive, so after a reconnect they can ask for
+ * everything after the last one they saw.
+ *
+ * Recording and replaying both enqueue while holding this log's lock, so a replay is
+ * never interleaved with live messages.
+ */
+class ReplayLog {
+
+    private final int capacity;
+
+    // Guarded by this
+    private final Deque<WebSocketMessage<?>> messages = new ArrayDeque<>();
+    private long lastSeq;
+
+    ReplayLog(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Numbers and keeps the message, and queues it for the session if it is connected.
+     */
+    synchronized void record(WebSocketMessage<?> message, SessionOutbox outbox) {
+        lastSeq++;
+        messages.addLast(message);
+        if (messages.size() > capacity) {
+            messages.pollFirst();
+        }
+        if (outbox != null) {
+            outbox.enqueue(message);
+        }
+    }
+
+    /**
+     * Queues the acknowledgement followed by every message after lastSeen.
+     *
+     * @return false if some of those messages are no longer kept
+     */
+    synchronized boolean replay(long lastSeen, WebSocketMessage<?> ack, SessionOutbox outbox) {
+        if (!covers(lastSeen)) {
+            return false;
+        }
+        outbox.enqueue(ack);
+        long seq = lastSeq - messages.size() + 1;
+        for (WebSocketMessage<?> message : messages) {
+            if (seq++ > lastSeen) {
+                outbox.enqueue(message);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether every message after lastSeen is still kept
+     */
+    synchronized boolean covers(long lastSeen) {
+        long firstKept = lastSeq - messages.size() + 1;
+        return lastSeen >= 0 && lastSeen <= lastSeq && lastSeen + 1 >= firstKept;
+    }
+}
@@ -0,0 +1,10 @@
+package com.offficeVerse.websocket;
+
+/**
+ * One room broadcast as it travels between nodes.
+ *
+ * @param originNode      node that published it; that node has already delivered it locally
+ * @param excludePlayerId player that should not receive it (usually the sender), or null
+ */
+public record RoomBroadcast(String originNode, Channel channel, Long roomId, String payload, Long excludePlayerId) {
+}
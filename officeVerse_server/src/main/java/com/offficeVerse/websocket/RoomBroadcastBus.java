@@ -0,0 +1,70 @@
+package com.offficeVerse.websocket;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Carries room broadcasts between server nodes, so players of one office can be
+ * connected to different instances.
+ *
+ * Sockets always deliver to their own sessions first and then publish; the bus only
+ * forwards to other nodes that currently have members in the room. Nodes report that
+ * through {@link #updateInterest}, which {@link PresenceRegistry} calls on every
+ * membership change.
+ *
+ * Messages that must reach one particular node, whether or not it has members in the
+ * room (typically the room's owner), go through {@link #send} instead.
+ *
+ * The bus also tracks which nodes are up and carries {@link RoomHandoff}s, so
+ * {@link RoomShardManager} can move room ownership between them.
+ */
+public interface RoomBroadcastBus {
+
+    String nodeId();
+
+    /**
+     * Forwards a broadcast to the other nodes with members in its room. Never blocks on the network.
+     */
+    void publish(RoomBroadcast broadcast);
+
+    /**
+     * Registers the handler that delivers broadcasts from other nodes to this node's sessions on the channel.
+     */
+    void subscribe(Channel channel, Consumer<RoomBroadcast> listener);
+
+    /**
+     * Delivers a message to one node. Never blocks on the network; messages from one node
+     * arrive at another in the order they were sent, together with its broadcasts.
+     */
+    void send(String toNode, RoomMessage message);
+
+    /**
+     * Registers the handler for messages sent to this node on the channel.
+     */
+    void onMessage(Channel channel, Consumer<RoomMessage> receiver);
+
+    /**
+     * Records how many players this node has in the room (0 once the last one leaves).
+     */
+    void updateInterest(Long roomId, int localMembers);
+
+    /**
+     * Nodes currently connected, including this one.
+     */
+    Set<String> nodes();
+
+    /**
+     * Called whenever a node joins or leaves.
+     */
+    void onNodesChanged(Runnable listener);
+
+    /**
+     * Delivers a room's state to handoff.toNode().
+     */
+    void sendHandoff(RoomHandoff handoff);
+
+    /**
+     * Registers the handler for room state handed to this node.
+     */
+    void onHandoff(Consumer<RoomHandoff> receiver);
+}
@@ -0,0 +1,12 @@
+package com.offficeVerse.websocket;
+
+import java.util.Map;
+
+/**
+ * A room's in-memory state on its way to the room's new owner node.
+ *
+ * @param parts exported state by {@link com.offficeVerse.service.RoomStateParticipant#handoffKey()};
+ *              plain maps, lists and numbers so any broker can carry it
+ */
+public record RoomHandoff(Long roomId, String fromNode, String toNode, Map<String, Object> parts) {
+}
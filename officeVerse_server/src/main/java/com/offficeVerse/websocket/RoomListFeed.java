@@ -0,0 +1,168 @@
+package com.offficeVerse.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offficeVerse.service.RoomEntry;
+import com.offficeVerse.service.RoomRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.*;
+
+/**
+ * Versioned lobby room list for the /rooms socket.
+ *
+ * Subscribers get one page of the current list (roomListUpdated) tagged with a version.
+ * After that they only get roomListDelta messages: rooms added, rooms removed and
+ * changed player counts, collected from {@link RoomRegistry} and coalesced over
+ * room.list.coalesce-ms. Every delta bumps the version by one. A client that sees a gap
+ * re-subscribes to get a fresh snapshot.
+ */
+@Component
+public class RoomListFeed {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final RoomRegistry roomRegistry;
+    private final OutboundDispatcher outbound;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Everything below is guarded by "this"
+    private final Set<WebSocketSession> subscribers = new HashSet<>();
+
+    // The list as subscribers currently know it, ordered by room id: Map<RoomID, room map>
+    private final TreeMap<Long, Map<String, Object>> published = new TreeMap<>();
+
+    // Values of "published" in order, rebuilt only after a delta
+    private List<Map<String, Object>> cachedList = new ArrayList<>();
+    private boolean cacheValid = true;
+
+    private long version;
+
+    public RoomListFeed(RoomRegistry roomRegistry, OutboundDispatcher outbound) {
+        this.roomRegistry = roomRegistry;
+        this.outbound = outbound;
+    }
+
+    /**
+     * Adds the session as a subscriber and sends it the requested page at the current version.
+     */
+    public synchronized void subscribe(WebSocketSession session, int page, int pageSize) throws Exception {
+        subscribers.add(session);
+
+        if (pageSize <= 0) {
+            pageSize = DEFAULT_PAGE_SIZE;
+        }
+        pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+        page = Math.max(page, 0);
+
+        List<Map<String, Object>> rooms = snapshot();
+        int from = Math.min(page * pageSize, rooms.size());
+        int to = Math.min(from + pageSize, rooms.size());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "roomListUpdated");
+        Map<String, Object> data = new HashMap<>();
+        data.put("version", version);
+        data.put("page", page);
+        data.put("pageSize", pageSize);
+        data.put("total", rooms.size());
+        data.put("rooms", rooms.subList(from, to));
+        response.put("data", data);
+
+        outbound.send(session, new TextMessage(objectMapper.writeValueAsString(response)));
+    }
+
+    public synchronized void unsubscribe(WebSocketSession session) {
+        subscribers.remove(session);
+    }
+
+    /**
+     * Collects registry changes since the last run and publishes them as one delta.
+     */
+    @Scheduled(fixedDelayString = "${room.list.coalesce-ms:100}")
+    public synchronized void flush() {
+        Set<Long> changes = roomRegistry.drainChanges();
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<Map<String, Object>> added = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (Long roomId : changes) {
+            RoomEntry entry = roomRegistry.get(roomId);
+            Map<String, Object> known = published.get(roomId);
+            if (entry == null) {
+                if (known != null) {
+                    published.remove(roomId);
+                    removed.add(roomId);
+                }
+            } else if (known == null) {
+                Map<String, Object> room = describe(entry);
+                published.put(roomId, room);
+                added.add(room);
+            } else if (!known.get("playerCount").equals(entry.getPlayerCount())) {
+                known.put("playerCount", entry.getPlayerCount());
+                counts.put(String.valueOf(roomId), entry.getPlayerCount());
+            }
+        }
+
+        if (added.isEmpty() && removed.isEmpty() && counts.isEmpty()) {
+            return;
+        }
+        version++;
+        cacheValid = false;
+
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, Object> delta = new HashMap<>();
+            delta.put("type", "roomListDelta");
+            Map<String, Object> data = new HashMap<>();
+            data.put("version", version);
+            data.put("added", added);
+            data.put("removed", removed);
+            data.put("counts", counts);
+            delta.put("data", data);
+
+            TextMessage message = new TextMessage(objectMapper.writeValueAsString(delta));
+            for (WebSocketSession session : subscribers) {
+                if (session.isOpen()) {
+                    outbound.send(session, message);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error publishing room list delta: " + e.getMessage());
+        }
+    }
+
+    private List<Map<String, Object>> snapshot() {
+        if (!cacheValid) {
+            List<Map<String, Object>> rooms = new ArrayList<>(published.size());
+            for (Map<String, Object> room : published.values()) {
+                rooms.add(new HashMap<>(room));
+            }
+            cachedList = rooms;
+            cacheValid = true;
+        }
+        return cachedList;
+    }
+
+    static Map<String, Object> describe(RoomEntry room) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", room.getId());
+        map.put("name", room.getName());
+        map.put("maxPlayers", room.getMaxPlayers());
+        map.put("playerCount", room.getPlayerCount());
+        map.put("isPrivate", room.isPrivate());
+        map.put("joinCode", room.getJoinCode());
+        return map;
+    }
+}
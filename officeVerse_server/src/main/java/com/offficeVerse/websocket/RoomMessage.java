@@ -0,0 +1,13 @@
+package com.offficeVerse.websocket;
+
+import java.util.Map;
+
+/**
+ * A message addressed to one node about a room, such as a change sent to the room's
+ * owner or the owner's answer.
+ *
+ * @param type what the receiver should do with it, interpreted by the channel's handler
+ * @param data plain maps, lists, strings and numbers so any broker can carry it
+ */
+public record RoomMessage(String fromNode, Channel channel, Long roomId, String type, Map<String, Object> data) {
+}
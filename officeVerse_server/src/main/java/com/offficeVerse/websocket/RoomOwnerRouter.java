@@ -0,0 +1,173 @@
+package com.offficeVerse.websocket;
+
+import com.offficeVerse.service.RoomRegistry;
+import com.offficeVerse.service.RoomService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies room membership changes (join, leave, ready) on the room's owner node.
+ *
+ * On the owner a change goes straight to {@link RoomService}. Any other node sends it to
+ * the owner over the {@link RoomBroadcastBus} and waits for the answer. After every change
+ * the owner sends its copy of the room to all other nodes and only then answers, so the
+ * asking node's copy is up to date when the call returns. Other nodes never change their
+ * copy themselves, which keeps membership, host and ready flags the same everywhere.
+ *
+ * A node applies a change sent to it even if it no longer thinks it owns the room: while
+ * nodes join or leave, their rings can briefly disagree, and the copy it sends out still
+ * keeps every node in step.
+ */
+@Component
+public class RoomOwnerRouter {
+
+    private final RoomService roomService;
+    private final RoomRegistry roomRegistry;
+    private final RoomBroadcastBus roomBus;
+    private final RoomShardManager roomShards;
+    private final long timeoutMs;
+
+    private final AtomicLong requests = new AtomicLong();
+    // Map<RequestID, Answer> for changes waiting on another node
+    private final Map<Long, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+
+    // Changes are applied and sent out one at a time, so copies arrive in the order they were made
+    private final Object applyLock = new Object();
+
+    public RoomOwnerRouter(RoomService roomService, RoomRegistry roomRegistry, RoomBroadcastBus roomBus,
+            RoomShardManager roomShards, @Value("${room.route.timeout-ms:3000}") long timeoutMs) {
+        this.roomService = roomService;
+        this.roomRegistry = roomRegistry;
+        this.roomBus = roomBus;
+        this.roomShards = roomShards;
+        this.timeoutMs = timeoutMs;
+        roomBus.onMessage(Channel.ROOM, this::receive);
+    }
+
+    /**
+     * @return false if the room does not exist, is full, or its owner did not answer in time
+     */
+    public boolean join(Long roomId, Long playerId, String playerName) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("playerId", playerId);
+        data.put("name", playerName);
+        return route(roomId, "join", data);
+    }
+
+    public void leave(Long roomId, Long playerId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("playerId", playerId);
+        route(roomId, "leave", data);
+    }
+
+    public void setReady(Long roomId, Long playerId, boolean ready) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("playerId", playerId);
+        data.put("ready", ready);
+        route(roomId, "ready", data);
+    }
+
+    /**
+     * Sends a room just created on this node to the other nodes, its owner included.
+     */
+    public void created(Long roomId) {
+        synchronized (applyLock) {
+            sendState(roomId, roomRegistry.exportRoom(roomId));
+        }
+    }
+
+    private boolean route(Long roomId, String type, Map<String, Object> data) {
+        if (roomId == null || data.get("playerId") == null) {
+            return false;
+        }
+        String owner = roomShards.ownerOf(roomId);
+        if (roomBus.nodeId().equals(owner)) {
+            return apply(roomId, type, data, null);
+        }
+
+        Long request = requests.incrementAndGet();
+        CompletableFuture<Boolean> answer = new CompletableFuture<>();
+        pending.put(request, answer);
+        data.put("request", request);
+        try {
+            roomBus.send(owner, new RoomMessage(roomBus.nodeId(), Channel.ROOM, roomId, type, data));
+            return answer.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("Room " + roomId + " owner " + owner + " did not apply " + type + ": " + e);
+            return false;
+        } finally {
+            pending.remove(request);
+        }
+    }
+
+    // On the owner: changes the room, then sends every other node its new copy
+    private boolean apply(Long roomId, String type, Map<String, Object> data, String fromNode) {
+        Long playerId = ((Number) data.get("playerId")).longValue();
+        synchronized (applyLock) {
+            boolean applied = true;
+            switch (type) {
+                case "join":
+                    applied = roomService.addPlayerToRoom(roomId, playerId, (String) data.get("name"));
+                    break;
+                case "leave":
+                    roomService.removePlayerFromRoom(roomId, playerId);
+                    break;
+                case "ready":
+                    roomService.setPlayerReady(roomId, playerId, Boolean.TRUE.equals(data.get("ready")));
+                    break;
+                default:
+                    System.err.println("Unknown room change " + type + " from node " + fromNode);
+                    return false;
+            }
+            // A refused join still refreshes the copies (the room may be full), unless the room is unknown here
+            Object room = roomRegistry.exportRoom(roomId);
+            if (applied || room != null) {
+                sendState(roomId, room);
+            }
+            return applied;
+        }
+    }
+
+    // Sent before the answer, which arrives after it on the asking node's lane; a null room was removed
+    private void sendState(Long roomId, Object room) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("room", room);
+        for (String node : roomBus.nodes()) {
+            if (!node.equals(roomBus.nodeId())) {
+                roomBus.send(node, new RoomMessage(roomBus.nodeId(), Channel.ROOM, roomId, "state", data));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void receive(RoomMessage message) {
+        Map<String, Object> data = message.data();
+        switch (message.type()) {
+            case "state":
+                roomRegistry.replaceRoom(message.roomId(), (Map<String, Object>) data.get("room"));
+                break;
+            case "answer": {
+                CompletableFuture<Boolean> answer = pending.get(((Number) data.get("request")).longValue());
+                if (answer != null) {
+                    answer.complete(Boolean.TRUE.equals(data.get("ok")));
+                }
+                break;
+            }
+            default: {
+                boolean ok = apply(message.roomId(), message.type(), data, message.fromNode());
+                Map<String, Object> answer = new HashMap<>();
+                answer.put("request", data.get("request"));
+                answer.put("ok", ok);
+                roomBus.send(message.fromNode(), new RoomMessage(roomBus.nodeId(), Channel.ROOM, message.roomId(),
+                        "answer", answer));
+            }
+        }
+    }
+}
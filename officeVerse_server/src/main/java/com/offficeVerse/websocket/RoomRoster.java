@@ -0,0 +1,289 @@
+package com.offficeVerse.websocket;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Versioned list of the players in each room, the same on every node serving the room.
+ *
+ * The room's owner node numbers every join and leave: it applies the change, delivers
+ * PLAYER_JOINED:Version:ID:Name or PLAYER_LEFT:Version:ID to its own sessions and publishes
+ * the same line to the other nodes with members in the room. The other nodes send their
+ * players' joins and leaves to the owner and keep a replica updated from the owner's lines,
+ * so clients see one sequence of versions per room whichever node they are connected to.
+ * A joiner gets PLAYER_SNAPSHOT at (or after) the version of its own join, and a node that
+ * sees a gap in the versions asks the owner for a snapshot.
+ *
+ * Lines are delivered and published while holding the room's lock, so versions go out in order.
+ */
+class RoomRoster {
+
+    /**
+     * Sends roster lines to this node's sessions.
+     */
+    interface Delivery {
+        void toRoom(Long roomId, String message, Long excludePlayerId);
+
+        void toPlayer(Long playerId, String message);
+    }
+
+    private static class Roster {
+        long version;
+        // Map<PlayerID, Name> in join order
+        final Map<Long, String> players = new LinkedHashMap<>();
+    }
+
+    // Map<RoomID, Roster>; authoritative for owned rooms, a replica otherwise
+    private final Map<Long, Roster> rooms = new ConcurrentHashMap<>();
+
+    private final RoomBroadcastBus roomBus;
+    private final Function<Long, String> ownerOf;
+    private final Delivery delivery;
+
+    RoomRoster(RoomBroadcastBus roomBus, Function<Long, String> ownerOf, Delivery delivery) {
+        this.roomBus = roomBus;
+        this.ownerOf = ownerOf;
+        this.delivery = delivery;
+    }
+
+    /**
+     * A player connected to this node entered the room.
+     */
+    void join(Long roomId, Long playerId, String name) {
+        String owner = ownerOf.apply(roomId);
+        if (isSelf(owner)) {
+            applyJoin(roomId, playerId, name, roomBus.nodeId());
+        } else {
+            Map<String, Object> data = new HashMap<>();
+            data.put("playerId", playerId);
+            data.put("name", name);
+            roomBus.send(owner, message(roomId, "join", data));
+        }
+    }
+
+    /**
+     * A player connected to this node left the room.
+     */
+    void leave(Long roomId, Long playerId) {
+        String owner = ownerOf.apply(roomId);
+        if (isSelf(owner)) {
+            applyLeave(roomId, playerId);
+        } else {
+            Map<String, Object> data = new HashMap<>();
+            data.put("playerId", playerId);
+            roomBus.send(owner, message(roomId, "leave", data));
+        }
+    }
+
+    /**
+     * Sends this node's current PLAYER_SNAPSHOT of the room to a local player.
+     */
+    void sendSnapshot(Long roomId, Long playerId) {
+        Roster roster = roster(roomId);
+        synchronized (roster) {
+            delivery.toPlayer(playerId, snapshotLine(roster));
+        }
+    }
+
+    /**
+     * Applies a roster line published by the room's owner and delivers it to this node's sessions.
+     *
+     * @return false if the broadcast is not a roster line
+     */
+    boolean receive(RoomBroadcast broadcast) {
+        String payload = broadcast.payload();
+        boolean joined = payload.startsWith("PLAYER_JOINED:");
+        if (!joined && !payload.startsWith("PLAYER_LEFT:")) {
+            return false;
+        }
+        String[] parts = payload.split(":", 4);
+        long version = Long.parseLong(parts[1]);
+        Long playerId = Long.parseLong(parts[2]);
+
+        Roster roster = roster(broadcast.roomId());
+        synchronized (roster) {
+            if (version <= roster.version) {
+                // Already covered by a snapshot
+                return true;
+            }
+            boolean gap = version > roster.version + 1;
+            if (joined) {
+                roster.players.put(playerId, parts.length > 3 ? parts[3] : "Unknown");
+            } else {
+                roster.players.remove(playerId);
+            }
+            roster.version = version;
+            delivery.toRoom(broadcast.roomId(), payload, broadcast.excludePlayerId());
+            if (gap) {
+                roomBus.send(broadcast.originNode(), message(broadcast.roomId(), "sync", new HashMap<>()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handles a change sent to this node as the room's owner, or the owner's snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    void receive(RoomMessage message) {
+        Map<String, Object> data = message.data();
+        switch (message.type()) {
+            case "join":
+                applyJoin(message.roomId(), ((Number) data.get("playerId")).longValue(), (String) data.get("name"),
+                        message.fromNode());
+                break;
+            case "leave":
+                applyLeave(message.roomId(), ((Number) data.get("playerId")).longValue());
+                break;
+            case "sync": {
+                Roster roster = roster(message.roomId());
+                synchronized (roster) {
+                    roomBus.send(message.fromNode(), message(message.roomId(), "snapshot", export(roster, null)));
+                }
+                break;
+            }
+            case "snapshot": {
+                Roster roster = roster(message.roomId());
+                synchronized (roster) {
+                    replaceIfNewer(roster, data);
+                    Object joiner = data.get("playerId");
+                    if (joiner != null) {
+                        delivery.toPlayer(((Number) joiner).longValue(), snapshotLine(roster));
+                    }
+                }
+                break;
+            }
+            default:
+                System.err.println("Unknown roster message " + message.type() + " from node " + message.fromNode());
+        }
+    }
+
+    private void applyJoin(Long roomId, Long playerId, String name, String fromNode) {
+        Roster roster = roster(roomId);
+        synchronized (roster) {
+            roster.version++;
+            roster.players.put(playerId, name);
+            String line = "PLAYER_JOINED:" + roster.version + ":" + playerId + ":" + name;
+            delivery.toRoom(roomId, line, playerId);
+            roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.CHAT, roomId, line, playerId));
+            // After the line, so the joiner's node has applied it when the snapshot arrives
+            if (isSelf(fromNode)) {
+                delivery.toPlayer(playerId, snapshotLine(roster));
+            } else {
+                roomBus.send(fromNode, message(roomId, "snapshot", export(roster, playerId)));
+            }
+        }
+    }
+
+    private void applyLeave(Long roomId, Long playerId) {
+        Roster roster = roster(roomId);
+        synchronized (roster) {
+            if (roster.players.remove(playerId) == null) {
+                return;
+            }
+            roster.version++;
+            String line = "PLAYER_LEFT:" + roster.version + ":" + playerId;
+            delivery.toRoom(roomId, line, null);
+            roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.CHAT, roomId, line, null));
+        }
+    }
+
+    /**
+     * The player's name as listed in this node's copy of the room, or null if not listed.
+     */
+    String name(Long roomId, Long playerId) {
+        Roster roster = rooms.get(roomId);
+        if (roster == null) {
+            return null;
+        }
+        synchronized (roster) {
+            return roster.players.get(playerId);
+        }
+    }
+
+    /**
+     * The room's roster for a handoff, or null if this node has none.
+     */
+    Map<String, Object> export(Long roomId) {
+        Roster roster = rooms.get(roomId);
+        if (roster == null) {
+            return null;
+        }
+        synchronized (roster) {
+            return export(roster, null);
+        }
+    }
+
+    /**
+     * Takes over a roster handed off by the room's previous owner, unless this node's copy is newer.
+     */
+    void importRoom(Long roomId, Map<String, Object> state) {
+        Roster roster = roster(roomId);
+        synchronized (roster) {
+            replaceIfNewer(roster, state);
+        }
+    }
+
+    /**
+     * Drops this node's replica once none of the room's players are connected here. The owner
+     * keeps its roster so versions never go back.
+     */
+    void forget(Long roomId) {
+        if (!isSelf(ownerOf.apply(roomId))) {
+            rooms.remove(roomId);
+        }
+    }
+
+    // PLAYER_SNAPSHOT:Version:ID,Name,ID,Name...
+    private static String snapshotLine(Roster roster) {
+        List<String> items = new ArrayList<>();
+        for (Map.Entry<Long, String> player : roster.players.entrySet()) {
+            items.add(player.getKey().toString());
+            items.add(player.getValue());
+        }
+        return "PLAYER_SNAPSHOT:" + roster.version + ":" + String.join(",", items);
+    }
+
+    private static Map<String, Object> export(Roster roster, Long joiner) {
+        List<Map<String, Object>> players = new ArrayList<>();
+        for (Map.Entry<Long, String> player : roster.players.entrySet()) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", player.getKey());
+            map.put("name", player.getValue());
+            players.add(map);
+        }
+        Map<String, Object> state = new HashMap<>();
+        state.put("version", roster.version);
+        state.put("players", players);
+        if (joiner != null) {
+            state.put("playerId", joiner);
+        }
+        return state;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void replaceIfNewer(Roster roster, Map<String, Object> state) {
+        long version = ((Number) state.get("version")).longValue();
+        if (version < roster.version) {
+            return;
+        }
+        roster.players.clear();
+        for (Map<String, Object> player : (List<Map<String, Object>>) state.get("players")) {
+            roster.players.put(((Number) player.get("id")).longValue(), (String) player.get("name"));
+        }
+        roster.version = version;
+    }
+
+    private Roster roster(Long roomId) {
+        return rooms.computeIfAbsent(roomId, k -> new Roster());
+    }
+
+    private RoomMessage message(Long roomId, String type, Map<String, Object> data) {
+        return new RoomMessage(roomBus.nodeId(), Channel.CHAT, roomId, type, data);
+    }
+
+    private boolean isSelf(String node) {
+        return roomBus.nodeId().equals(node);
+    }
+}
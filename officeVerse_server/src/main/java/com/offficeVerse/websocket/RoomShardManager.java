@@ -0,0 +1,171 @@
+package com.offficeVerse.websocket;
+
+import com.offficeVerse.service.RoomEntry;
+import com.offficeVerse.service.RoomRegistry;
+import com.offficeVerse.service.RoomStateParticipant;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every room an owner node by consistent hashing on the room id and moves a room's
+ * in-memory state when its owner changes.
+ *
+ * When a node joins, each node hands the rooms it no longer owns to their new owner. When a
+ * node shuts down it first hands all of its rooms to the remaining nodes. Players are not
+ * disconnected by a handoff: broadcasts still reach them through the {@link RoomBroadcastBus},
+ * the old node keeps its copy until its last local player of the room has gone, and the
+ * owner is returned to clients as the room's preferred node.
+ *
+ * Joins, leaves and ready changes are applied on the owner through {@link RoomOwnerRouter},
+ * which keeps every other node's copy of the room in step.
+ */
+@Component
+public class RoomShardManager {
+
+    private final RoomBroadcastBus roomBus;
+    private final RoomRegistry roomRegistry;
+    private final PresenceRegistry presenceRegistry;
+    // Resolved on use: the chat socket is a participant and also asks for room owners
+    private final ObjectProvider<RoomStateParticipant> participants;
+    private final int virtualNodes;
+
+    private volatile RoomShardRing ring;
+
+    // Rooms handed to another node whose local state is kept until their local players leave
+    private final Set<Long> movedAway = ConcurrentHashMap.newKeySet();
+
+    public RoomShardManager(RoomBroadcastBus roomBus, RoomRegistry roomRegistry, PresenceRegistry presenceRegistry,
+            ObjectProvider<RoomStateParticipant> participants,
+            @Value("${room.shard.virtual-nodes:128}") int virtualNodes) {
+        this.roomBus = roomBus;
+        this.roomRegistry = roomRegistry;
+        this.presenceRegistry = presenceRegistry;
+        this.participants = participants;
+        this.virtualNodes = virtualNodes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ring = new RoomShardRing(roomBus.nodes(), virtualNodes);
+        roomBus.onHandoff(this::receive);
+        roomBus.onNodesChanged(this::rebalance);
+        rebalance();
+    }
+
+    public String ownerOf(Long roomId) {
+        RoomShardRing current = ring;
+        String owner = current != null ? current.ownerOf(roomId) : null;
+        return owner != null ? owner : roomBus.nodeId();
+    }
+
+    public boolean owns(Long roomId) {
+        return roomBus.nodeId().equals(ownerOf(roomId));
+    }
+
+    /**
+     * Rebuilds the ring from the bus's current nodes and hands off rooms this node no longer owns.
+     */
+    public synchronized void rebalance() {
+        RoomShardRing previous = ring;
+        RoomShardRing next = new RoomShardRing(roomBus.nodes(), virtualNodes);
+        if (previous != null && previous.nodes().equals(next.nodes())) {
+            return;
+        }
+        ring = next;
+        System.out.println("Room shard ring now has nodes " + next.nodes());
+        if (previous != null) {
+            handOffMovedRooms(previous, next);
+        }
+    }
+
+    /**
+     * Gives every room this node owns to the remaining nodes before the node goes away.
+     */
+    @PreDestroy
+    public synchronized void drain() {
+        RoomShardRing current = ring;
+        if (current == null) {
+            return;
+        }
+        RoomShardRing next = current.without(roomBus.nodeId(), virtualNodes);
+        if (next.nodes().isEmpty()) {
+            return;
+        }
+        handOffMovedRooms(current, next);
+        ring = next;
+    }
+
+    private void handOffMovedRooms(RoomShardRing previous, RoomShardRing next) {
+        String self = roomBus.nodeId();
+        int moved = 0;
+        for (RoomEntry room : roomRegistry.all()) {
+            Long roomId = room.getId();
+            String owner = next.ownerOf(roomId);
+            if (self.equals(previous.ownerOf(roomId)) && owner != null && !self.equals(owner)) {
+                handOff(roomId, owner);
+                moved++;
+            }
+        }
+        if (moved > 0) {
+            System.out.println("Handed " + moved + " rooms to other nodes");
+        }
+    }
+
+    private void handOff(Long roomId, String owner) {
+        Map<String, Object> parts = new HashMap<>();
+        for (RoomStateParticipant participant : participants.orderedStream().toList()) {
+            try {
+                Object state = participant.exportRoom(roomId);
+                if (state != null) {
+                    parts.put(participant.handoffKey(), state);
+                }
+            } catch (Exception e) {
+                System.err.println("Error exporting " + participant.handoffKey() + " for room " + roomId + ": "
+                        + e.getMessage());
+            }
+        }
+        movedAway.add(roomId);
+        roomBus.sendHandoff(new RoomHandoff(roomId, roomBus.nodeId(), owner, parts));
+    }
+
+    private void receive(RoomHandoff handoff) {
+        for (RoomStateParticipant participant : participants.orderedStream().toList()) {
+            Object state = handoff.parts().get(participant.handoffKey());
+            if (state == null) {
+                continue;
+            }
+            try {
+                participant.importRoom(handoff.roomId(), state);
+            } catch (Exception e) {
+                System.err.println("Error importing " + participant.handoffKey() + " for room " + handoff.roomId()
+                        + ": " + e.getMessage());
+            }
+        }
+        movedAway.remove(handoff.roomId());
+        System.out.println("Took over room " + handoff.roomId() + " from node " + handoff.fromNode());
+    }
+
+    /**
+     * Drops the local copy of rooms that moved away once none of their players are connected here.
+     */
+    @Scheduled(fixedDelayString = "${room.shard.release-check-ms:5000}")
+    public void releaseMovedRooms() {
+        for (Long roomId : movedAway) {
+            if (owns(roomId)) {
+                movedAway.remove(roomId);
+            } else if (presenceRegistry.members(roomId).isEmpty() && movedAway.remove(roomId)) {
+                for (RoomStateParticipant participant : participants.orderedStream().toList()) {
+                    participant.releaseRoom(roomId);
+                }
+            }
+        }
+    }
+}
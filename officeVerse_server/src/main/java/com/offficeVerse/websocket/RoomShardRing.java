@@ -0,0 +1,57 @@
+package com.offficeVerse.websocket;
+
+import java.util.*;
+
+/**
+ * Consistent-hash ring mapping room ids to node ids. Each node is placed at a number of
+ * virtual points so rooms spread evenly, and adding or removing a node only moves the
+ * rooms between it and its neighbours.
+ *
+ * Immutable; a membership change builds a new ring.
+ */
+class RoomShardRing {
+
+    private final TreeMap<Long, String> points = new TreeMap<>();
+    private final Set<String> nodes;
+
+    RoomShardRing(Collection<String> nodes, int virtualNodes) {
+        this.nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+        for (String node : this.nodes) {
+            long seed = (long) node.hashCode() << 32;
+            for (int i = 0; i < virtualNodes; i++) {
+                points.put(mix(seed | i), node);
+            }
+        }
+    }
+
+    /**
+     * @return the owning node, or null if the ring is empty
+     */
+    String ownerOf(Long roomId) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(mix(roomId));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    Set<String> nodes() {
+        return nodes;
+    }
+
+    RoomShardRing without(String node, int virtualNodes) {
+        Set<String> remaining = new TreeSet<>(nodes);
+        remaining.remove(node);
+        return new RoomShardRing(remaining, virtualNodes);
+    }
+
+    // 64-bit finalizer from MurmurHash3; spreads sequential ids around the ring
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb93fe53e4b87L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
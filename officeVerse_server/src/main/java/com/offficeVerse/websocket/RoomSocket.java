@@ -1,8 +1,8 @@
 package com.offficeVerse.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.offficeVerse.model.Room;
 import com.offficeVerse.model.Player;
+import com.offficeVerse.service.RoomEntry;
 import com.offficeVerse.service.RoomService;
 import com.offficeVerse.service.PlayerService;
 import org.springframework.stereotype.Component;
@@ -10,7 +10,6 @@ import org.springframework.web.socket.*;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class RoomSocket extends TextWebSocketHandler {
@@ -19,27 +18,38 @@ public class RoomSocket extends TextWebSocketHandler {
     private final PlayerService playerService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    // All connected sessions (for broadcasting room list updates)
-    private final Set<WebSocketSession> allSessions = ConcurrentHashMap.newKeySet();
+    // Session -> player and room membership are tracked in PresenceRegistry (ROOM channel)
 
-    // Map: roomId -> set of sessions in that room
-    private final Map<Long, Set<WebSocketSession>> roomSessions = new ConcurrentHashMap<>();
+    private final OutboundDispatcher outbound;
+    private final RoomListFeed roomListFeed;
+    private final PresenceRegistry presenceRegistry;
+    private final RoomBroadcastBus roomBus;
+    private final RoomShardManager roomShards;
+    private final SessionResumption resumption;
+    // Membership changes go through the room's owner node
+    private final RoomOwnerRouter roomRouter;
 
-    // Map: sessionId -> current roomId (if in a room)
-    private final Map<String, Long> sessionRoomMap = new ConcurrentHashMap<>();
-
-    // Map: sessionId -> playerId
-    private final Map<String, Long> sessionPlayerMap = new ConcurrentHashMap<>();
-
-    public RoomSocket(RoomService roomService, PlayerService playerService) {
+    public RoomSocket(RoomService roomService, PlayerService playerService, OutboundDispatcher outbound,
+            RoomListFeed roomListFeed, PresenceRegistry presenceRegistry, RoomBroadcastBus roomBus,
+            RoomShardManager roomShards, SessionResumption resumption, RoomOwnerRouter roomRouter) {
         this.roomService = roomService;
         this.playerService = playerService;
+        this.outbound = outbound;
+        this.roomListFeed = roomListFeed;
+        this.presenceRegistry = presenceRegistry;
+        this.roomBus = roomBus;
+        this.roomShards = roomShards;
+        this.resumption = resumption;
+        this.roomRouter = roomRouter;
+        resumption.onExpire(Channel.ROOM, this::release);
+        roomBus.subscribe(Channel.ROOM,
+                broadcast -> deliverToRoom(broadcast.roomId(), broadcast.payload(), broadcast.excludePlayerId()));
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         System.out.println("Room WebSocket connected: " + session.getId());
-        allSessions.add(session);
+        outbound.register(session, Channel.ROOM);
     }
 
     @Override
@@ -53,8 +63,14 @@ public class RoomSocket extends TextWebSocketHandler {
                 case "join":
                     handleJoin(session, data);
                     break;
+                case "resume":
+                    handleResume(session, data);
+                    break;
                 case "subscribeRoomList":
-                    handleSubscribeRoomList(session);
+                    handleSubscribeRoomList(session, data);
+                    break;
+                case "unsubscribeRoomList":
+                    roomListFeed.unsubscribe(session);
                     break;
                 case "createRoom":
                     handleCreateRoom(session, data);
@@ -89,11 +105,12 @@ public class RoomSocket extends TextWebSocketHandler {
     private void handleJoin(WebSocketSession session, Map<String, Object> data) throws Exception {
         String playerName = data.containsKey("playerName") ? data.get("playerName").toString() : "Anonymous";
 
-        // Create player in database to get a valid ID
-        Player player = playerService.createPlayer(playerName, null);
+        // Same player as last time if the client kept its identity token, otherwise a new one
+        Player player = playerService.resolvePlayer((String) data.get("identityToken"), playerName);
         Long playerId = player.getId();
 
-        sessionPlayerMap.put(session.getId(), playerId);
+        presenceRegistry.bind(Channel.ROOM, session, playerId, null, player.getName());
+        String resumeToken = resumption.track(Channel.ROOM, session, playerId);
         System.out.println("Player " + playerName + " (ID: " + playerId + ") connected to room socket");
 
         // Send back the confirmed playerId to the client
@@ -101,19 +118,33 @@ public class RoomSocket extends TextWebSocketHandler {
         response.put("type", "registered");
         Map<String, Object> responseData = new HashMap<>();
         responseData.put("playerId", playerId);
+        responseData.put("resumeToken", resumeToken);
+        responseData.put("identityToken", player.getIdentityToken());
         response.put("data", responseData);
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+        outbound.send(session, new TextMessage(objectMapper.writeValueAsString(response)));
     }
 
-    private void handleSubscribeRoomList(WebSocketSession session) throws Exception {
-        // Send current room list to this session
-        List<Room> rooms = roomService.getAllRooms();
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("type", "roomListUpdated");
-        response.put("data", convertRoomsToList(rooms));
+    // Reattach after a dropped connection: replays missed messages instead of creating a new player
+    private void handleResume(WebSocketSession session, Map<String, Object> data) throws Exception {
+        String token = (String) data.get("token");
+        long lastSeq = data.containsKey("lastSeq") ? ((Number) data.get("lastSeq")).longValue() : 0;
+
+        Map<String, Object> ack = new HashMap<>();
+        ack.put("type", "resumed");
+        PlayerPresence presence = resumption.resume(Channel.ROOM, session, token, lastSeq,
+                new TextMessage(objectMapper.writeValueAsString(ack)));
+        if (presence == null) {
+            Map<String, Object> failed = new HashMap<>();
+            failed.put("type", "resumeFailed");
+            outbound.send(session, new TextMessage(objectMapper.writeValueAsString(failed)));
+        }
+    }
 
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+    private void handleSubscribeRoomList(WebSocketSession session, Map<String, Object> data) throws Exception {
+        // Send one page of the cached room list; changes follow as roomListDelta messages
+        int page = data.containsKey("page") ? ((Number) data.get("page")).intValue() : 0;
+        int pageSize = data.containsKey("pageSize") ? ((Number) data.get("pageSize")).intValue() : 0;
+        roomListFeed.subscribe(session, page, pageSize);
     }
 
     private void handleCreateRoom(WebSocketSession session, Map<String, Object> data) throws Exception {
@@ -121,36 +152,37 @@ public class RoomSocket extends TextWebSocketHandler {
         int maxPlayers = data.containsKey("maxPlayers") ? (int) data.get("maxPlayers") : 20;
         boolean isPrivate = data.containsKey("isPrivate") ? (boolean) data.get("isPrivate") : false;
 
-        Long playerId = sessionPlayerMap.get(session.getId());
+        Long playerId = playerId(session);
 
         // Create room (you'll need to implement this in RoomService)
-        Room room = roomService.createRoom(roomName, maxPlayers, isPrivate, playerId);
+        RoomEntry room = roomService.createRoom(roomName, maxPlayers, isPrivate, playerId);
+        roomRouter.created(room.getId());
 
-        // Broadcast new room to all subscribers
-        Map<String, Object> broadcast = new HashMap<>();
-        broadcast.put("type", "roomCreated");
+        // Confirm to the creator; room list subscribers see it in the next roomListDelta
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "roomCreated");
         Map<String, Object> roomData = new HashMap<>();
         roomData.put("room", convertRoomToMap(room));
-        broadcast.put("data", roomData);
+        response.put("data", roomData);
 
-        broadcastToAll(objectMapper.writeValueAsString(broadcast));
+        outbound.send(session, new TextMessage(objectMapper.writeValueAsString(response)));
 
         System.out.println("Room created: " + roomName);
     }
 
     private void handleJoinRoom(WebSocketSession session, Map<String, Object> data) throws Exception {
         Long roomId = Long.parseLong(data.get("roomId").toString());
-        Long playerId = sessionPlayerMap.get(session.getId());
+        Long playerId = playerId(session);
 
-        Room room = roomService.getRoom(roomId);
+        RoomEntry room = roomService.getRoom(roomId);
         if (room == null) {
             sendError(session, "Room not found");
             return;
         }
 
         // Add player to room
-        // You'll need to implement addPlayerToRoom in RoomService
-        boolean success = roomService.addPlayerToRoom(roomId, playerId, playerService);
+        String playerName = playerName(session);
+        boolean success = roomRouter.join(roomId, playerId, playerName);
 
         if (!success) {
             sendError(session, "Failed to join room (might be full)");
@@ -158,8 +190,10 @@ public class RoomSocket extends TextWebSocketHandler {
         }
 
         // Track session in room
-        roomSessions.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(session);
-        sessionRoomMap.put(session.getId(), roomId);
+        PlayerPresence presence = presenceRegistry.get(session);
+        if (presence != null) {
+            presenceRegistry.moveTo(presence, roomId);
+        }
 
         // Send success to player
         Map<String, Object> response = new HashMap<>();
@@ -167,32 +201,35 @@ public class RoomSocket extends TextWebSocketHandler {
         Map<String, Object> responseData = new HashMap<>();
         responseData.put("room", convertRoomToMap(room));
         responseData.put("players", roomService.getPlayersInRoom(roomId));
+        // Affinity hint: the room's owner node, for sticky routing
+        responseData.put("preferredNode", roomShards.ownerOf(roomId));
         response.put("data", responseData);
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+        outbound.send(session, new TextMessage(objectMapper.writeValueAsString(response)));
 
         // Notify others in room
         Map<String, Object> broadcast = new HashMap<>();
         broadcast.put("type", "playerJoinedRoom");
         Map<String, Object> broadcastData = new HashMap<>();
         broadcastData.put("playerId", playerId);
-        broadcastData.put("playerName", playerService.getPlayer(playerId).getName());
+        broadcastData.put("playerName", playerName);
         broadcast.put("data", broadcastData);
 
-        broadcastToRoom(roomId, objectMapper.writeValueAsString(broadcast), session.getId());
+        broadcastToRoom(roomId, objectMapper.writeValueAsString(broadcast), playerId(session));
     }
 
     private void handleJoinRoomByCode(WebSocketSession session, Map<String, Object> data) throws Exception {
         String code = (String) data.get("joinCode");
-        Long playerId = sessionPlayerMap.get(session.getId());
+        Long playerId = playerId(session);
 
-        Room room = roomService.getRoomByCode(code);
+        RoomEntry room = roomService.getRoomByCode(code);
         if (room == null) {
             sendError(session, "Invalid join code");
             return;
         }
 
         Long roomId = room.getId();
-        boolean success = roomService.addPlayerToRoom(roomId, playerId, playerService);
+        String playerName = playerName(session);
+        boolean success = roomRouter.join(roomId, playerId, playerName);
 
         if (!success) {
             sendError(session, "Failed to join room (might be full)");
@@ -200,8 +237,10 @@ public class RoomSocket extends TextWebSocketHandler {
         }
 
         // Track session in room
-        roomSessions.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(session);
-        sessionRoomMap.put(session.getId(), roomId);
+        PlayerPresence presence = presenceRegistry.get(session);
+        if (presence != null) {
+            presenceRegistry.moveTo(presence, roomId);
+        }
 
         // Send success to player
         Map<String, Object> response = new HashMap<>();
@@ -209,32 +248,33 @@ public class RoomSocket extends TextWebSocketHandler {
         Map<String, Object> responseData = new HashMap<>();
         responseData.put("room", convertRoomToMap(room));
         responseData.put("players", roomService.getPlayersInRoom(roomId));
+        // Affinity hint: the room's owner node, for sticky routing
+        responseData.put("preferredNode", roomShards.ownerOf(roomId));
         response.put("data", responseData);
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+        outbound.send(session, new TextMessage(objectMapper.writeValueAsString(response)));
 
         // Notify others in room
         Map<String, Object> broadcast = new HashMap<>();
         broadcast.put("type", "playerJoinedRoom");
         Map<String, Object> broadcastData = new HashMap<>();
         broadcastData.put("playerId", playerId);
-        broadcastData.put("playerName", playerService.getPlayer(playerId).getName());
+        broadcastData.put("playerName", playerName);
         broadcast.put("data", broadcastData);
 
-        broadcastToRoom(roomId, objectMapper.writeValueAsString(broadcast), session.getId());
+        broadcastToRoom(roomId, objectMapper.writeValueAsString(broadcast), playerId(session));
     }
 
     private void handleLeaveRoom(WebSocketSession session, Map<String, Object> data) throws Exception {
         Long roomId = Long.parseLong(data.get("roomId").toString());
-        Long playerId = sessionPlayerMap.get(session.getId());
+        Long playerId = playerId(session);
 
-        roomService.removePlayerFromRoom(roomId, playerId);
+        roomRouter.leave(roomId, playerId);
 
         // Remove from tracking
-        Set<WebSocketSession> sessions = roomSessions.get(roomId);
-        if (sessions != null) {
-            sessions.remove(session);
+        PlayerPresence presence = presenceRegistry.get(session);
+        if (presence != null && roomId.equals(presence.getRoomId())) {
+            presenceRegistry.moveTo(presence, null);
         }
-        sessionRoomMap.remove(session.getId());
 
         // Notify others
         Map<String, Object> broadcast = new HashMap<>();
@@ -249,10 +289,10 @@ public class RoomSocket extends TextWebSocketHandler {
     private void handleSetReady(WebSocketSession session, Map<String, Object> data) throws Exception {
         Long roomId = Long.parseLong(data.get("roomId").toString());
         boolean isReady = (boolean) data.get("ready");
-        Long playerId = sessionPlayerMap.get(session.getId());
+        Long playerId = playerId(session);
 
         // Update ready status (implement in RoomService)
-        roomService.setPlayerReady(roomId, playerId, isReady);
+        roomRouter.setReady(roomId, playerId, isReady);
 
         // Notify room
         Map<String, Object> broadcast = new HashMap<>();
@@ -267,7 +307,7 @@ public class RoomSocket extends TextWebSocketHandler {
 
     private void handleStartGame(WebSocketSession session, Map<String, Object> data) throws Exception {
         Long roomId = Long.parseLong(data.get("roomId").toString());
-        Long playerId = sessionPlayerMap.get(session.getId());
+        Long playerId = playerId(session);
 
         // Check if player is host (implement in RoomService)
         if (!roomService.isHost(roomId, playerId)) {
@@ -296,7 +336,7 @@ public class RoomSocket extends TextWebSocketHandler {
     private void handlePing(WebSocketSession session) throws Exception {
         Map<String, Object> pong = new HashMap<>();
         pong.put("type", "pong");
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(pong)));
+        outbound.send(session, new TextMessage(objectMapper.writeValueAsString(pong)));
     }
 
     private void sendError(WebSocketSession session, String errorMessage) throws Exception {
@@ -305,64 +345,56 @@ public class RoomSocket extends TextWebSocketHandler {
         Map<String, Object> errorData = new HashMap<>();
         errorData.put("message", errorMessage);
         error.put("data", errorData);
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(error)));
+        outbound.send(session, new TextMessage(objectMapper.writeValueAsString(error)));
     }
 
-    private void broadcastToAll(String message) {
-        for (WebSocketSession session : allSessions) {
-            if (session.isOpen()) {
-                try {
-                    session.sendMessage(new TextMessage(message));
-                } catch (Exception e) {
-                    System.err.println("Error broadcasting to all: " + e.getMessage());
-                }
-            }
-        }
+    // Local sessions first, then players of the room connected to other nodes
+    private void broadcastToRoom(Long roomId, String message, Long excludePlayerId) {
+        deliverToRoom(roomId, message, excludePlayerId);
+        roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.ROOM, roomId, message, excludePlayerId));
     }
 
-    private void broadcastToRoom(Long roomId, String message, String excludeSessionId) {
-        Set<WebSocketSession> sessions = roomSessions.get(roomId);
-        if (sessions != null) {
-            for (WebSocketSession session : sessions) {
-                if (session.isOpen() && !session.getId().equals(excludeSessionId)) {
-                    try {
-                        session.sendMessage(new TextMessage(message));
-                    } catch (Exception e) {
-                        System.err.println("Error broadcasting to room: " + e.getMessage());
-                    }
-                }
+    private void deliverToRoom(Long roomId, String message, Long excludePlayerId) {
+        TextMessage textMsg = new TextMessage(message);
+        for (PlayerPresence member : presenceRegistry.members(roomId)) {
+            WebSocketSession session = member.session(Channel.ROOM);
+            // Closed sessions are still sent to: a suspended one records what it missed for replay
+            if (session != null && !member.getPlayerId().equals(excludePlayerId)) {
+                outbound.send(session, textMsg);
             }
         }
     }
 
-    private List<Map<String, Object>> convertRoomsToList(List<Room> rooms) {
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Room room : rooms) {
-            result.add(convertRoomToMap(room));
-        }
-        return result;
+    private Long playerId(WebSocketSession session) {
+        PlayerPresence presence = presenceRegistry.get(session);
+        return presence != null ? presence.getPlayerId() : null;
     }
 
-    private Map<String, Object> convertRoomToMap(Room room) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", room.getId());
-        map.put("name", room.getName());
-        map.put("maxPlayers", room.getMaxPlayers());
-        map.put("playerCount", room.getPlayers() != null ? room.getPlayers().size() : 0);
-        map.put("isPrivate", room.isPrivate());
-        map.put("joinCode", room.getJoinCode());
-        return map;
+    private String playerName(WebSocketSession session) {
+        PlayerPresence presence = presenceRegistry.get(session);
+        return presence != null && presence.getName() != null ? presence.getName() : "Anonymous";
+    }
+
+    private Map<String, Object> convertRoomToMap(RoomEntry room) {
+        return RoomListFeed.describe(room);
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         System.out.println("Room WebSocket disconnected: " + session.getId());
+        outbound.unregister(session);
+        roomListFeed.unsubscribe(session);
+        if (!resumption.suspend(Channel.ROOM, session, status)) {
+            release(session);
+        }
+    }
 
-        allSessions.remove(session);
-
-        Long roomId = sessionRoomMap.get(session.getId());
-        if (roomId != null) {
-            Long playerId = sessionPlayerMap.get(session.getId());
+    // Disconnect handling, run on close or once a dropped session was not resumed in time
+    private void release(WebSocketSession session) {
+        PlayerPresence presence = presenceRegistry.unbind(Channel.ROOM, session);
+        if (presence != null && presence.getRoomId() != null) {
+            Long roomId = presence.getRoomId();
+            Long playerId = presence.getPlayerId();
             if (playerId != null) {
                 // DO NOT remove player from room here. RoomSocket is ephemeral for login.
                 // Gameplay handles presence via other sockets.
@@ -387,17 +419,6 @@ public class RoomSocket extends TextWebSocketHandler {
                  * }
                  */
             }
-
-            Set<WebSocketSession> sessions = roomSessions.get(roomId);
-            if (sessions != null) {
-                sessions.remove(session);
-                if (sessions.isEmpty()) {
-                    roomSessions.remove(roomId);
-                }
-            }
         }
-
-        sessionRoomMap.remove(session.getId());
-        sessionPlayerMap.remove(session.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.offficeVerse.websocket;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks one at a time, in submission order, on a shared backing executor.
+ * Used to give each session its own ordered lane on the virtual-thread pool.
+ */
+class SerialExecutor implements Executor {
+
+    private final Executor backing;
+    private final int maxPending;
+
+    // Guarded by this
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private boolean running;
+
+    SerialExecutor(Executor backing, int maxPending) {
+        this.backing = backing;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (this) {
+            if (tasks.size() >= maxPending) {
+                throw new RejectedExecutionException("Too many pending tasks (" + maxPending + ")");
+            }
+            tasks.addLast(task);
+            if (running) {
+                return;
+            }
+            running = true;
+        }
+        backing.execute(this::runAll);
+    }
+
+    private void runAll() {
+        while (true) {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.pollFirst();
+                if (task == null) {
+                    running = false;
+                    return;
+                }
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                System.err.println("Error in session task: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+
+/**
+ * Bounded outbound queue for one session. Messages are written by a single
+ * drain task at a time, so callers never block on a slow client and never
+ * write to the same session concurrently.
+ *
+ * Under DROP_OLDEST only messages queued as droppable are ever discarded, oldest first,
+ * and their onDropped callback runs so the sender can repair its state. When nothing
+ * queued is droppable, the session is disconnected as under DISCONNECT.
+ */
+class SessionOutbox {
+
+    private final WebSocketSession session;
+    private final Channel channel;
+    private final Channel.OverflowPolicy policy;
+    private final int capacity;
+    private final Executor writer;
+
+    private record Outgoing(WebSocketMessage<?> message, boolean droppable, Runnable onDropped) {
+    }
+
+    // Guarded by this
+    private final Deque<Outgoing> queue = new ArrayDeque<>();
+    private boolean draining;
+    private boolean closed;
+    private long dropped;
+
+    SessionOutbox(WebSocketSession session, Channel channel, Channel.OverflowPolicy policy, int capacity,
+            Executor writer) {
+        this.session = session;
+        this.channel = channel;
+        this.policy = policy;
+        this.capacity = capacity;
+        this.writer = writer;
+    }
+
+    void enqueue(WebSocketMessage<?> message) {
+        enqueue(message, false, null);
+    }
+
+    /**
+     * @param droppable  true if the message may be discarded when the queue is full
+     * @param onDropped  run (outside the queue lock) if the message is discarded; may be null
+     */
+    void enqueue(WebSocketMessage<?> message, boolean droppable, Runnable onDropped) {
+        Outgoing outgoing = new Outgoing(message, droppable, onDropped);
+        Outgoing discarded = null;
+        boolean overflow = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= capacity) {
+                if (policy == Channel.OverflowPolicy.DROP_OLDEST) {
+                    discarded = removeOldestDroppable();
+                    if (discarded == null && droppable) {
+                        discarded = outgoing;
+                    }
+                }
+                if (discarded != null) {
+                    dropped++;
+                } else {
+                    closed = true;
+                    queue.clear();
+                    overflow = true;
+                }
+            }
+            if (!overflow && discarded != outgoing) {
+                queue.addLast(outgoing);
+                if (!draining) {
+                    draining = true;
+                    writer.execute(this::drain);
+                }
+            }
+        }
+
+        if (discarded != null && discarded.onDropped() != null) {
+            discarded.onDropped().run();
+        }
+
+        if (overflow) {
+            System.out.println("Outbound queue full for " + channel.key() + " session " + session.getId()
+                    + ", disconnecting");
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (Exception e) {
+                System.out.println("Error closing slow session: " + e.getMessage());
+            }
+        }
+    }
+
+    private Outgoing removeOldestDroppable() {
+        Iterator<Outgoing> it = queue.iterator();
+        while (it.hasNext()) {
+            Outgoing queued = it.next();
+            if (queued.droppable()) {
+                it.remove();
+                return queued;
+            }
+        }
+        return null;
+    }
+
+    synchronized long droppedCount() {
+        return dropped;
+    }
+
+    void close() {
+        synchronized (this) {
+            closed = true;
+            queue.clear();
+        }
+        if (dropped > 0) {
+            System.out.println("Dropped " + dropped + " outbound " + channel.key() + " messages for session "
+                    + session.getId());
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            WebSocketMessage<?> message;
+            synchronized (this) {
+                Outgoing next = queue.pollFirst();
+                if (next == null) {
+                    draining = false;
+                    return;
+                }
+                message = next.message();
+            }
+            if (!session.isOpen()) {
+                close();
+                continue;
+            }
+            try {
+                session.sendMessage(message);
+            } catch (Exception e) {
+                System.out.println("Error sending " + channel.key() + " message: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lets a client that lost its connection reattach to its player within
+ * websocket.resume.grace-seconds instead of registering again.
+ *
+ * A player gets one resume token, returned when they first join on the room socket.
+ * Every message sent to them on the chat, room and zone channels is numbered in a short
+ * {@link ReplayLog}. When a connection drops abnormally, the player stays bound
+ * (no leave is broadcast) and their log keeps recording. A new connection that sends the
+ * token and the number of messages it had received is bound in place of the old one and
+ * gets only what it missed. If the grace window runs out, the channel's normal
+ * disconnect handling runs.
+ */
+@Component
+public class SessionResumption {
+
+    @Value("${websocket.resume.grace-seconds:30}")
+    private int graceSeconds;
+
+    @Value("${websocket.resume.replay-size:200}")
+    private int replaySize;
+
+    private final OutboundDispatcher outbound;
+    private final PresenceRegistry presenceRegistry;
+    private final SecureRandom random = new SecureRandom();
+
+    // Map<Token, PlayerID>
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+
+    // Map<PlayerID, ResumeState>
+    private final Map<Long, ResumeState> states = new ConcurrentHashMap<>();
+
+    // Closed sessions waiting to be resumed: Map<SessionID, Suspension>
+    private final Map<String, Suspension> suspended = new ConcurrentHashMap<>();
+
+    // Disconnect handling to run once a suspension expires
+    private final Map<Channel, Consumer<WebSocketSession>> expiryHandlers = new EnumMap<>(Channel.class);
+
+    private static class ResumeState {
+        final String token;
+        // Indexed by Channel.ordinal()
+        final AtomicReferenceArray<ReplayLog> logs = new AtomicReferenceArray<>(Channel.values().length);
+        // When the player was first seen with no sessions, 0 while connected
+        long goneSince;
+
+        ResumeState(String token) {
+            this.token = token;
+        }
+    }
+
+    private record Suspension(Channel channel, WebSocketSession session, Long playerId, long deadline) {
+    }
+
+    public SessionResumption(OutboundDispatcher outbound, PresenceRegistry presenceRegistry) {
+        this.outbound = outbound;
+        this.presenceRegistry = presenceRegistry;
+    }
+
+    public synchronized void onExpire(Channel channel, Consumer<WebSocketSession> handler) {
+        expiryHandlers.put(channel, handler);
+    }
+
+    /**
+     * Starts numbering messages for a freshly registered session. Call right after binding it,
+     * before anything is sent; the client counts from zero at the same point.
+     *
+     * @return the player's resume token
+     */
+    public synchronized String track(Channel channel, WebSocketSession session, Long playerId) {
+        ResumeState state = states.computeIfAbsent(playerId, id -> {
+            String token = newToken();
+            tokens.put(token, id);
+            return new ResumeState(token);
+        });
+        ReplayLog log = new ReplayLog(replaySize);
+        state.logs.set(channel.ordinal(), log);
+        outbound.attachReplay(session, log);
+        return state.token;
+    }
+
+    /**
+     * Keeps a dropped session's player bound for the grace window. Clean closes
+     * (the client left on purpose) are not suspended.
+     *
+     * @return true if the session was suspended and the caller must skip its disconnect handling
+     */
+    public synchronized boolean suspend(Channel channel, WebSocketSession session, CloseStatus status) {
+        boolean clean = status != null
+                && (status.getCode() == CloseStatus.NORMAL.getCode() || status.getCode() == CloseStatus.GOING_AWAY.getCode());
+        PlayerPresence presence = presenceRegistry.get(session);
+        WebSocketSession bound = presence != null ? presence.session(channel) : null;
+        if (clean || graceSeconds <= 0 || bound == null || !bound.getId().equals(session.getId())
+                || !states.containsKey(presence.getPlayerId())) {
+            outbound.detachReplay(session);
+            return false;
+        }
+        suspended.put(session.getId(), new Suspension(channel, session, presence.getPlayerId(),
+                System.currentTimeMillis() + graceSeconds * 1000L));
+        return true;
+    }
+
+    /**
+     * Binds the new session in place of the player's previous one on this channel and replays
+     * the messages after lastSeen, preceded by ack.
+     *
+     * @return the player, or null if the token is unknown, the grace window has passed or the
+     *         missed messages are no longer kept; the client must then register again
+     */
+    public synchronized PlayerPresence resume(Channel channel, WebSocketSession session, String token, long lastSeen,
+            WebSocketMessage<?> ack) {
+        Long playerId = token != null ? tokens.get(token) : null;
+        ResumeState state = playerId != null ? states.get(playerId) : null;
+        ReplayLog log = state != null ? state.logs.get(channel.ordinal()) : null;
+        PlayerPresence presence = playerId != null ? presenceRegistry.getPlayer(playerId) : null;
+        if (log == null || presence == null) {
+            return null;
+        }
+
+        // Checked before anything changes, so a refused resume leaves the old session suspended
+        if (!outbound.canReplay(session, log, lastSeen)) {
+            return null;
+        }
+
+        // Until the replay is queued, messages still go to either session through the same log
+        WebSocketSession previous = presence.session(channel);
+        presenceRegistry.bind(channel, session, playerId, null, null);
+        outbound.attachReplay(session, log);
+
+        if (!outbound.replay(session, log, lastSeen, ack)) {
+            // The log moved past lastSeen since the check: put the old session back as it was
+            outbound.detachReplay(session);
+            if (previous != null) {
+                presenceRegistry.bind(channel, previous, playerId, null, null);
+            } else {
+                presenceRegistry.unbind(channel, session);
+            }
+            return null;
+        }
+        if (previous != null && !previous.getId().equals(session.getId())) {
+            suspended.remove(previous.getId());
+            outbound.detachReplay(previous);
+        }
+        System.out.println("Resumed " + channel.key() + " session for player " + playerId);
+        return presence;
+    }
+
+    /**
+     * Runs disconnect handling for suspensions past their grace window and forgets tokens
+     * of players who have been gone for longer than that. The token outlives a clean close
+     * for the same window, so a client moving from the lobby to the game keeps it.
+     */
+    @Scheduled(fixedDelayString = "${websocket.resume.sweep-ms:1000}")
+    public void expire() {
+        long now = System.currentTimeMillis();
+        List<Suspension> expired = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<Suspension> it = suspended.values().iterator(); it.hasNext();) {
+                Suspension suspension = it.next();
+                if (suspension.deadline() <= now) {
+                    it.remove();
+                    outbound.detachReplay(suspension.session());
+                    expired.add(suspension);
+                }
+            }
+        }
+
+        for (Suspension suspension : expired) {
+            Consumer<WebSocketSession> handler = expiryHandlers.get(suspension.channel());
+            if (handler != null) {
+                try {
+                    handler.accept(suspension.session());
+                } catch (Exception e) {
+                    System.err.println("Error expiring " + suspension.channel().key() + " session: " + e.getMessage());
+                }
+            }
+        }
+
+        synchronized (this) {
+            Set<Long> waiting = new HashSet<>();
+            for (Suspension suspension : suspended.values()) {
+                waiting.add(suspension.playerId());
+            }
+            for (Iterator<Map.Entry<Long, ResumeState>> it = states.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<Long, ResumeState> entry = it.next();
+                ResumeState state = entry.getValue();
+                if (presenceRegistry.getPlayer(entry.getKey()) != null || waiting.contains(entry.getKey())) {
+                    state.goneSince = 0;
+                } else if (state.goneSince == 0) {
+                    state.goneSince = now;
+                } else if (now - state.goneSince > graceSeconds * 1000L) {
+                    tokens.remove(state.token);
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,96 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Moves handler callbacks off the container's WebSocket I/O threads onto virtual threads.
+ *
+ * Every callback for a session (connect, messages, errors, close) goes through that
+ * session's {@link SerialExecutor}, so handlers still see them one at a time and in
+ * order, while blocking work such as JPA calls no longer holds an I/O thread.
+ */
+public class VirtualThreadHandlerDecorator extends WebSocketHandlerDecorator {
+
+    private final Executor executor;
+    private final int maxPending;
+
+    // Map<SessionID, SerialExecutor>
+    private final Map<String, SerialExecutor> lanes = new ConcurrentHashMap<>();
+
+    public VirtualThreadHandlerDecorator(WebSocketHandler delegate, Executor executor, int maxPending) {
+        super(delegate);
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        SerialExecutor lane = new SerialExecutor(executor, maxPending);
+        lanes.put(session.getId(), lane);
+        dispatch(session, lane, () -> getDelegate().afterConnectionEstablished(session));
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        SerialExecutor lane = lanes.get(session.getId());
+        if (lane != null) {
+            dispatch(session, lane, () -> getDelegate().handleMessage(session, message));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        SerialExecutor lane = lanes.get(session.getId());
+        if (lane != null) {
+            dispatch(session, lane, () -> getDelegate().handleTransportError(session, exception));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        SerialExecutor lane = lanes.remove(session.getId());
+        if (lane == null) {
+            getDelegate().afterConnectionClosed(session, closeStatus);
+            return;
+        }
+        // Cleanup must run even if the lane is saturated, after any queued messages
+        try {
+            lane.execute(() -> invoke(() -> getDelegate().afterConnectionClosed(session, closeStatus)));
+        } catch (RejectedExecutionException e) {
+            executor.execute(() -> invoke(() -> getDelegate().afterConnectionClosed(session, closeStatus)));
+        }
+    }
+
+    private void dispatch(WebSocketSession session, SerialExecutor lane, Callback callback) {
+        try {
+            lane.execute(() -> invoke(callback));
+        } catch (RejectedExecutionException e) {
+            System.out.println("Session " + session.getId() + " is flooding the server, closing: " + e.getMessage());
+            try {
+                session.close(CloseStatus.POLICY_VIOLATION);
+            } catch (Exception closeError) {
+                System.out.println("Error closing session: " + closeError.getMessage());
+            }
+        }
+    }
+
+    private static void invoke(Callback callback) {
+        try {
+            callback.call();
+        } catch (Exception e) {
+            System.err.println("Error handling WebSocket callback: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Callback {
+        void call() throws Exception;
+    }
+}
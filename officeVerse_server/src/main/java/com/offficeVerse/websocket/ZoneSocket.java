@@ -2,13 +2,13 @@ package com.offficeVerse.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.offficeVerse.model.Player;
+import com.offficeVerse.service.GenAIJobScheduler;
 import com.offficeVerse.service.PlayerService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class ZoneSocket extends TextWebSocketHandler {
@@ -16,19 +16,33 @@ public class ZoneSocket extends TextWebSocketHandler {
     private final PlayerService playerService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    // Map: roomId -> set of sessions
-    private final Map<Long, Set<WebSocketSession>> roomSessions = new ConcurrentHashMap<>();
+    // Session -> player and room membership are tracked in PresenceRegistry (ZONE channel)
 
-    // Map: sessionId -> player info
-    private final Map<String, ZonePlayerInfo> sessionPlayerMap = new ConcurrentHashMap<>();
+    private final OutboundDispatcher outbound;
+    private final PresenceRegistry presenceRegistry;
+    private final RoomBroadcastBus roomBus;
+    private final SessionResumption resumption;
+    private final GenAIJobScheduler aiJobs;
 
-    public ZoneSocket(PlayerService playerService) {
+    // The zone a player is in is kept as their ZONE attachment (zone id)
+
+    public ZoneSocket(PlayerService playerService, OutboundDispatcher outbound, PresenceRegistry presenceRegistry,
+            RoomBroadcastBus roomBus, SessionResumption resumption, GenAIJobScheduler aiJobs) {
         this.playerService = playerService;
+        this.aiJobs = aiJobs;
+        this.outbound = outbound;
+        this.presenceRegistry = presenceRegistry;
+        this.roomBus = roomBus;
+        this.resumption = resumption;
+        resumption.onExpire(Channel.ZONE, this::release);
+        roomBus.subscribe(Channel.ZONE,
+                broadcast -> deliverToRoom(broadcast.roomId(), broadcast.payload(), broadcast.excludePlayerId()));
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         System.out.println("Zone WebSocket connected: " + session.getId());
+        outbound.register(session, Channel.ZONE);
     }
 
     @Override
@@ -42,13 +56,22 @@ public class ZoneSocket extends TextWebSocketHandler {
                 case "join":
                     handleJoin(session, data);
                     break;
+                case "resume":
+                    handleResume(session, data);
+                    break;
                 case "enterZone":
                     handleEnterZone(session, data);
                     break;
-              /*  case "exitZone":
+                case "aiStream":
+                    handleAIStream(session, data);
+                    break;
+                case "aiCancel":
+                    handleAICancel(session, data);
+                    break;
+                case "exitZone":
                     handleExitZone(session, data);
                     break;
-                case "zoneInteraction":
+              /*  case "zoneInteraction":
                     handleZoneInteraction(session, data);
                     break;
                 case "requestMeeting":
@@ -70,24 +93,43 @@ public class ZoneSocket extends TextWebSocketHandler {
         Long playerId = Long.parseLong(data.get("playerId").toString());
         Long roomId = Long.parseLong(data.get("roomId").toString());
 
-        Player player = playerService.getPlayer(playerId);
-        if (player == null) {
-            session.sendMessage(new TextMessage("{\"error\":\"Player not found\"}"));
-            return;
+        // Players already connected on another channel need no lookup
+        PlayerPresence known = presenceRegistry.getPlayer(playerId);
+        String playerName = known != null ? known.getName() : null;
+        if (playerName == null) {
+            Player player = playerService.getPlayer(playerId);
+            if (player == null) {
+                outbound.send(session, new TextMessage("{\"error\":\"Player not found\"}"));
+                return;
+            }
+            playerName = player.getName();
         }
 
-        // Store session info
-        ZonePlayerInfo info = new ZonePlayerInfo(playerId, player.getName(), roomId);
-        sessionPlayerMap.put(session.getId(), info);
+        // Store session info and add to room
+        presenceRegistry.bind(Channel.ZONE, session, playerId, roomId, playerName);
+        resumption.track(Channel.ZONE, session, playerId);
+
+        System.out.println("Player " + playerName + " connected to zones");
+    }
 
-        // Add to room
-        roomSessions.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(session);
+    // Reattach after a dropped connection with the token from the room socket's "registered" message
+    private void handleResume(WebSocketSession session, Map<String, Object> data) throws Exception {
+        String token = (String) data.get("token");
+        long lastSeq = data.containsKey("lastSeq") ? ((Number) data.get("lastSeq")).longValue() : 0;
 
-        System.out.println("Player " + player.getName() + " connected to zones");
+        Map<String, Object> ack = new HashMap<>();
+        ack.put("type", "resumed");
+        PlayerPresence presence = resumption.resume(Channel.ZONE, session, token, lastSeq,
+                new TextMessage(objectMapper.writeValueAsString(ack)));
+        if (presence == null) {
+            Map<String, Object> failed = new HashMap<>();
+            failed.put("type", "resumeFailed");
+            outbound.send(session, new TextMessage(objectMapper.writeValueAsString(failed)));
+        }
     }
 
     private void handleEnterZone(WebSocketSession session, Map<String, Object> data) throws Exception {
-        ZonePlayerInfo info = sessionPlayerMap.get(session.getId());
+        PlayerPresence info = presenceRegistry.get(session);
         if (info == null) {
             return;
         }
@@ -95,23 +137,129 @@ public class ZoneSocket extends TextWebSocketHandler {
         String zoneId = (String) data.get("zoneId");
         String prompt = (String) data.get("prompt");
 
-        System.out.println("AI prompt in zone " + zoneId + ": " + prompt);
+        // Moving to another zone drops what was asked in the previous one
+        String previousZone = info.attachment(Channel.ZONE);
+        if (previousZone != null && !previousZone.equals(zoneId)) {
+            aiJobs.cancelPlayer(info.getPlayerId(), previousZone);
+        }
+        info.attach(Channel.ZONE, zoneId);
+
+        if (prompt != null && !prompt.trim().isEmpty()) {
+            System.out.println("AI prompt in zone " + zoneId + ": " + prompt);
+            submitAIJob(session, info, zoneId, data);
+        }
+    }
+
+    private void handleExitZone(WebSocketSession session, Map<String, Object> data) {
+        PlayerPresence info = presenceRegistry.get(session);
+        if (info == null) {
+            return;
+        }
+
+        String zoneId = data != null && data.get("zoneId") != null
+                ? (String) data.get("zoneId") : info.attachment(Channel.ZONE);
+        if (zoneId != null) {
+            aiJobs.cancelPlayer(info.getPlayerId(), zoneId);
+        }
+        info.attach(Channel.ZONE, null);
+    }
+
+    // Same as a prompt sent with enterZone, in the zone the player is currently in
+    private void handleAIStream(WebSocketSession session, Map<String, Object> data) throws Exception {
+        PlayerPresence info = presenceRegistry.get(session);
+        if (info == null) {
+            return;
+        }
+        String zoneId = data.get("zoneId") != null ? (String) data.get("zoneId") : info.attachment(Channel.ZONE);
+        submitAIJob(session, info, zoneId, data);
+    }
 
-        // Here you would typically call your AI service
-        // For now, just log it
+    private void handleAICancel(WebSocketSession session, Map<String, Object> data) {
+        PlayerPresence info = presenceRegistry.get(session);
+        if (info != null && data.get("jobId") != null) {
+            aiJobs.cancel(((Number) data.get("jobId")).longValue(), info.getPlayerId());
+        }
     }
 
-    private void broadcastToRoom(Long roomId, String message, String excludeSessionId) {
-        Set<WebSocketSession> sessions = roomSessions.get(roomId);
-        if (sessions != null) {
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen() && !s.getId().equals(excludeSessionId)) {
-                    try {
-                        s.sendMessage(new TextMessage(message));
-                    } catch (Exception e) {
-                        System.err.println("Error broadcasting to room: " + e.getMessage());
+    /**
+     * Queues the prompt with the AI job scheduler. The asking session gets:
+     * aiQueued {jobId, requestId, position} while waiting, aiStarted, aiStreamToken {token} for each
+     * piece of the answer, then aiStreamDone {response}, aiStreamError {error} or aiCancelled.
+     */
+    private void submitAIJob(WebSocketSession session, PlayerPresence info, String zoneId, Map<String, Object> data) {
+        Object requestId = data.get("requestId");
+        String prompt = (String) data.get("prompt");
+        boolean useCache = !Boolean.FALSE.equals(data.get("cache"));
+
+        if (prompt == null || prompt.trim().isEmpty() || prompt.length() > 500) {
+            sendAIJob(session, "aiStreamError", -1, requestId, "error", "Prompt must be 1-500 characters");
+            return;
+        }
+
+        aiJobs.submit(info.getRoomId(), info.getPlayerId(), zoneId, prompt, useCache,
+                new GenAIJobScheduler.Listener() {
+                    @Override
+                    public void onQueued(long jobId, int position) {
+                        sendAIJob(session, "aiQueued", jobId, requestId, "position", position);
+                    }
+
+                    @Override
+                    public void onStarted(long jobId) {
+                        sendAIJob(session, "aiStarted", jobId, requestId, null, null);
+                    }
+
+                    @Override
+                    public void onToken(long jobId, String token) {
+                        sendAIJob(session, "aiStreamToken", jobId, requestId, "token", token);
                     }
-                }
+
+                    @Override
+                    public void onDone(long jobId, String response) {
+                        sendAIJob(session, "aiStreamDone", jobId, requestId, "response", response);
+                    }
+
+                    @Override
+                    public void onError(long jobId, String error) {
+                        sendAIJob(session, "aiStreamError", jobId, requestId, "error", error);
+                    }
+
+                    @Override
+                    public void onCancelled(long jobId) {
+                        sendAIJob(session, "aiCancelled", jobId, requestId, null, null);
+                    }
+                });
+    }
+
+    private void sendAIJob(WebSocketSession session, String type, long jobId, Object requestId, String field, Object value) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("type", type);
+            Map<String, Object> data = new HashMap<>();
+            data.put("jobId", jobId);
+            data.put("requestId", requestId);
+            if (field != null) {
+                data.put(field, value);
+            }
+            response.put("data", data);
+            outbound.send(session, new TextMessage(objectMapper.writeValueAsString(response)));
+        } catch (Exception e) {
+            System.err.println("Error sending " + type + ": " + e.getMessage());
+        }
+    }
+
+    // Local sessions first, then players of the room connected to other nodes
+    private void broadcastToRoom(Long roomId, String message, Long excludePlayerId) {
+        deliverToRoom(roomId, message, excludePlayerId);
+        roomBus.publish(new RoomBroadcast(roomBus.nodeId(), Channel.ZONE, roomId, message, excludePlayerId));
+    }
+
+    private void deliverToRoom(Long roomId, String message, Long excludePlayerId) {
+        TextMessage textMsg = new TextMessage(message);
+        for (PlayerPresence member : presenceRegistry.members(roomId)) {
+            WebSocketSession s = member.session(Channel.ZONE);
+            // Closed sessions are still sent to: a suspended one records what it missed for replay
+            if (s != null && !member.getPlayerId().equals(excludePlayerId)) {
+                outbound.send(s, textMsg);
             }
         }
     }
@@ -119,28 +267,20 @@ public class ZoneSocket extends TextWebSocketHandler {
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         System.out.println("Zone WebSocket disconnected: " + session.getId());
+        outbound.unregister(session);
 
-        ZonePlayerInfo info = sessionPlayerMap.remove(session.getId());
+        // AI answers are not kept for a resumed session; the queue slot goes to someone else
+        PlayerPresence info = presenceRegistry.get(session);
         if (info != null) {
-            Set<WebSocketSession> sessions = roomSessions.get(info.roomId);
-            if (sessions != null) {
-                sessions.remove(session);
-                if (sessions.isEmpty()) {
-                    roomSessions.remove(info.roomId);
-                }
-            }
+            aiJobs.cancelPlayer(info.getPlayerId(), null);
         }
-    }
 
-    private static class ZonePlayerInfo {
-        Long playerId;
-        String playerName;
-        Long roomId;
-
-        ZonePlayerInfo(Long playerId, String playerName, Long roomId) {
-            this.playerId = playerId;
-            this.playerName = playerName;
-            this.roomId = roomId;
+        if (!resumption.suspend(Channel.ZONE, session, status)) {
+            release(session);
         }
     }
+
+    private void release(WebSocketSession session) {
+        presenceRegistry.unbind(Channel.ZONE, session);
+    }
 }
\ No newline at end of file
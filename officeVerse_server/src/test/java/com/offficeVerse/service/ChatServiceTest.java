@@ -0,0 +1,110 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.model.ChatHistoryEntry;
+import com.offficeVerse.model.ChatHistoryPage;
+import com.offficeVerse.repository.ChatMessageRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatServiceTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2026, 1, 2, 3, 4, 5, 123_000_000);
+
+    // Repository answering both history queries with the given rows (newest first) and recording the call
+    private final List<Object> lastQuery = new ArrayList<>();
+    private List<ChatHistoryEntry> rows = List.of();
+
+    private ChatService service() {
+        ChatMessageRepository repository = (ChatMessageRepository) Proxy.newProxyInstance(
+                ChatMessageRepository.class.getClassLoader(), new Class<?>[] { ChatMessageRepository.class },
+                (proxy, method, args) -> {
+                    lastQuery.clear();
+                    lastQuery.add(method.getName());
+                    if (method.getName().equals("findBefore")) {
+                        lastQuery.add(args[1]);
+                        lastQuery.add(args[2]);
+                    }
+                    return rows;
+                });
+        return new ChatService(repository, null);
+    }
+
+    private static ChatHistoryEntry entry(long id, LocalDateTime timestamp) {
+        return new ChatHistoryEntry(id, 1L, "Ana", "m" + id, timestamp);
+    }
+
+    @Test
+    void parsesCursorIntoTimestampAndId() {
+        ChatService.HistoryCursor cursor = ChatService.HistoryCursor.parse(T + "_42");
+
+        assertEquals(T, cursor.timestamp());
+        assertEquals(42, cursor.id());
+    }
+
+    @Test
+    void cursorBeforeRoundTripsWithIdZero() {
+        ChatService.HistoryCursor cursor = ChatService.HistoryCursor.parse(ChatService.cursorBefore(T));
+
+        assertEquals(T, cursor.timestamp());
+        assertEquals(0, cursor.id());
+    }
+
+    @Test
+    void missingCursorMeansLatestPage() {
+        assertNull(ChatService.HistoryCursor.parse(null));
+        assertNull(ChatService.HistoryCursor.parse(""));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String cursor : List.of("garbage", "_42", T + "_", T + "_x", "yesterday_42")) {
+            assertThrows(IllegalArgumentException.class, () -> ChatService.HistoryCursor.parse(cursor), cursor);
+        }
+    }
+
+    @Test
+    void parsesLimitsAndRejectsNonNumbers() {
+        assertEquals(20, ChatService.parseLimit("20"));
+        assertEquals(0, ChatService.parseLimit(null));
+        assertEquals(0, ChatService.parseLimit(""));
+        for (String limit : List.of("ten", "2.5", "99999999999")) {
+            assertThrows(IllegalArgumentException.class, () -> ChatService.parseLimit(limit), limit);
+        }
+    }
+
+    @Test
+    void pagesBeforeTheCursorAndHandsOutTheNextOne() {
+        rows = List.of(entry(9, T.plusSeconds(3)), entry(8, T.plusSeconds(2)), entry(7, T.plusSeconds(1)));
+
+        ChatHistoryPage page = service().getHistory(5L, T.plusSeconds(4) + "_10", 2);
+
+        assertEquals(List.of("findBefore", T.plusSeconds(4), 10L), lastQuery);
+        assertEquals(List.of(8L, 9L), List.of(page.messages().get(0).id(), page.messages().get(1).id()));
+        assertEquals(T.plusSeconds(2) + "_8", page.nextCursor());
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        rows = List.of(entry(2, T.plusSeconds(1)), entry(1, T));
+
+        ChatHistoryPage page = service().getHistory(5L, null, 30);
+
+        assertEquals(List.of("findLatest"), lastQuery);
+        assertEquals(2, page.messages().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void malformedCursorIsRejectedBeforeQuerying() {
+        ChatService service = service();
+
+        assertThrows(IllegalArgumentException.class, () -> service.getHistory(5L, "not-a-cursor", 30));
+        assertTrue(lastQuery.isEmpty());
+    }
+}
@@ -0,0 +1,190 @@
+package com.offficeVerse.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenAIJobSchedulerTest {
+
+    // Provider calls stay pending until the test completes them
+    private static class FakeGenAIService extends genAIService {
+        final Map<String, CompletableFuture<String>> calls = new LinkedHashMap<>();
+        final Map<String, Consumer<String>> tokens = new LinkedHashMap<>();
+
+        FakeGenAIService(SimpleMeterRegistry registry) {
+            super(new GenAIResponseCache(registry, false, 60, 10), new GenAIProviderGuard(registry, 10, 60, 5, 30),
+                    registry, 1000, 1000, 1000);
+        }
+
+        @Override
+        public CompletableFuture<String> streamResponseAsync(String prompt, boolean useCache, Consumer<String> onToken) {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.put(prompt, call);
+            tokens.put(prompt, onToken);
+            return call;
+        }
+    }
+
+    private static class RecordingListener implements GenAIJobScheduler.Listener {
+        final List<String> events;
+        final String name;
+
+        RecordingListener(List<String> events, String name) {
+            this.events = events;
+            this.name = name;
+        }
+
+        @Override
+        public void onQueued(long jobId, int position) {
+            events.add(name + " queued " + position);
+        }
+
+        @Override
+        public void onStarted(long jobId) {
+            events.add(name + " started");
+        }
+
+        @Override
+        public void onToken(long jobId, String token) {
+            events.add(name + " token " + token);
+        }
+
+        @Override
+        public void onDone(long jobId, String response) {
+            events.add(name + " done " + response);
+        }
+
+        @Override
+        public void onError(long jobId, String error) {
+            events.add(name + " error");
+        }
+
+        @Override
+        public void onCancelled(long jobId) {
+            events.add(name + " cancelled");
+        }
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FakeGenAIService genai = new FakeGenAIService(registry);
+    private final List<String> events = new ArrayList<>();
+
+    private long submit(GenAIJobScheduler scheduler, Long roomId, Long playerId, String prompt) {
+        return scheduler.submit(roomId, playerId, "zone", prompt, true, new RecordingListener(events, prompt));
+    }
+
+    @Test
+    void freeSlotsGoRoundRobinAcrossRooms() {
+        GenAIJobScheduler scheduler = new GenAIJobScheduler(genai, registry, 1, 10);
+        submit(scheduler, 1L, 10L, "a1");
+        submit(scheduler, 1L, 11L, "a2");
+        submit(scheduler, 1L, 12L, "a3");
+        submit(scheduler, 2L, 20L, "b1");
+
+        genai.calls.get("a1").complete("x");
+        genai.calls.get("a2").complete("x");
+        genai.calls.get("b1").complete("x");
+
+        // Room 2 gets its turn before room 1's third prompt
+        assertEquals(List.of("a1", "a2", "b1", "a3"), new ArrayList<>(genai.calls.keySet()));
+    }
+
+    @Test
+    void followUpPromptsWaitBehindOtherPlayersFirstPrompts() {
+        GenAIJobScheduler scheduler = new GenAIJobScheduler(genai, registry, 1, 10);
+        submit(scheduler, 1L, 10L, "running");
+        submit(scheduler, 1L, 11L, "first");
+        submit(scheduler, 1L, 11L, "follow-up");
+        submit(scheduler, 1L, 12L, "other");
+
+        assertTrue(events.contains("other queued 2"));
+        assertTrue(events.contains("follow-up queued 3"));
+
+        genai.calls.get("running").complete("x");
+        genai.calls.get("first").complete("x");
+        assertEquals(List.of("running", "first", "other"), new ArrayList<>(genai.calls.keySet()));
+    }
+
+    @Test
+    void fullRoomQueueRejectsWithoutTouchingOtherRooms() {
+        GenAIJobScheduler scheduler = new GenAIJobScheduler(genai, registry, 1, 1);
+        submit(scheduler, 1L, 10L, "running");
+        submit(scheduler, 1L, 11L, "queued");
+
+        assertEquals(-1, submit(scheduler, 1L, 12L, "rejected"));
+        assertTrue(events.contains("rejected error"));
+        assertEquals(1.0, registry.find("genai.jobs.rejected").counter().count());
+        assertTrue(submit(scheduler, 2L, 20L, "other room") > 0);
+    }
+
+    @Test
+    void promptWithoutRoomIsRejectedAndLeavesNoState() {
+        GenAIJobScheduler scheduler = new GenAIJobScheduler(genai, registry, 1, 10);
+
+        assertEquals(-1, submit(scheduler, null, 10L, "lobby"));
+        assertEquals(List.of("lobby error"), events);
+        assertEquals(0.0, registry.find("genai.jobs.queued").gauge().value());
+
+        submit(scheduler, 1L, 10L, "a1");
+        assertEquals(List.of("a1"), new ArrayList<>(genai.calls.keySet()));
+    }
+
+    @Test
+    void cancellingQueuedJobFreesItsPlace() {
+        GenAIJobScheduler scheduler = new GenAIJobScheduler(genai, registry, 1, 10);
+        submit(scheduler, 1L, 10L, "running");
+        long queued = submit(scheduler, 1L, 11L, "queued");
+        submit(scheduler, 1L, 12L, "next");
+
+        scheduler.cancel(queued, 12L);
+        assertFalse(events.contains("queued cancelled"));
+
+        scheduler.cancel(queued, 11L);
+        assertTrue(events.contains("queued cancelled"));
+        assertEquals("next queued 1", events.get(events.size() - 1));
+
+        genai.calls.get("running").complete("x");
+        assertEquals(List.of("running", "next"), new ArrayList<>(genai.calls.keySet()));
+    }
+
+    @Test
+    void cancellingRunningJobStopsAtNextTokenAndReportsOnlyCancelled() {
+        GenAIJobScheduler scheduler = new GenAIJobScheduler(genai, registry, 1, 10);
+        submit(scheduler, 1L, 10L, "running");
+        submit(scheduler, 1L, 11L, "waiting");
+
+        genai.tokens.get("running").accept("partial");
+        scheduler.cancelPlayer(10L, null);
+        assertThrows(RuntimeException.class, () -> genai.tokens.get("running").accept("more"));
+        genai.calls.get("running").completeExceptionally(new RuntimeException("stopped"));
+
+        assertTrue(events.contains("running token partial"));
+        assertTrue(events.contains("running cancelled"));
+        assertFalse(events.contains("running error"));
+        assertFalse(events.contains("running token more"));
+        assertTrue(genai.calls.containsKey("waiting"));
+    }
+
+    @Test
+    void cancellingRunningJobClosesItsCallAndFreesTheSlotAtOnce() {
+        GenAIJobScheduler scheduler = new GenAIJobScheduler(genai, registry, 1, 10);
+        submit(scheduler, 1L, 10L, "silent");
+        submit(scheduler, 1L, 11L, "waiting");
+
+        // The provider has sent nothing, so there is no next token to stop at
+        scheduler.cancel(1L, 10L);
+
+        assertTrue(genai.calls.get("silent").isCancelled());
+        assertEquals(List.of("silent", "waiting"), new ArrayList<>(genai.calls.keySet()));
+        assertTrue(events.contains("silent cancelled"));
+        assertFalse(events.contains("silent error"));
+    }
+}
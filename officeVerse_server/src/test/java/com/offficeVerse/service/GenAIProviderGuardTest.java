@@ -0,0 +1,109 @@
+package com.offficeVerse.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenAIProviderGuardTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger providerCalls = new AtomicInteger();
+
+    private CompletableFuture<String> ok() {
+        providerCalls.incrementAndGet();
+        return CompletableFuture.completedFuture("answer");
+    }
+
+    private CompletableFuture<String> failing(int status) {
+        providerCalls.incrementAndGet();
+        return CompletableFuture.failedFuture(new GenAIProviderException("provider failed", status));
+    }
+
+    private static int statusOf(CompletableFuture<String> result) {
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        return ((GenAIProviderException) e.getCause()).getStatus();
+    }
+
+    @Test
+    void callsOverTheBurstAreRefusedWithoutReachingTheProvider() {
+        GenAIProviderGuard guard = new GenAIProviderGuard(registry, 2, 1, 5, 30);
+
+        assertEquals("answer", guard.call(this::ok).join());
+        assertEquals("answer", guard.call(this::ok).join());
+        assertEquals(429, statusOf(guard.call(this::ok)));
+        assertEquals(2, providerCalls.get());
+    }
+
+    @Test
+    void providerRateLimitEmptiesTheBucket() {
+        GenAIProviderGuard guard = new GenAIProviderGuard(registry, 5, 1, 5, 30);
+
+        assertEquals(429, statusOf(guard.call(() -> failing(429))));
+        assertEquals(429, statusOf(guard.call(this::ok)));
+        assertEquals(1, providerCalls.get());
+    }
+
+    @Test
+    void breakerOpensAfterConsecutiveFailures() {
+        GenAIProviderGuard guard = new GenAIProviderGuard(registry, 10, 60, 3, 30);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(500, statusOf(guard.call(() -> failing(500))));
+        }
+        assertEquals(GenAIProviderGuard.State.OPEN, guard.getState());
+        assertEquals(503, statusOf(guard.call(this::ok)));
+        assertEquals(3, providerCalls.get());
+        assertEquals(1.0, registry.find("genai.breaker.opened").counter().count());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        GenAIProviderGuard guard = new GenAIProviderGuard(registry, 10, 60, 2, 30);
+
+        statusOf(guard.call(() -> failing(500)));
+        guard.call(this::ok).join();
+        statusOf(guard.call(() -> failing(500)));
+        assertEquals(GenAIProviderGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheBreaker() {
+        GenAIProviderGuard guard = new GenAIProviderGuard(registry, 10, 60, 2, 30);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(401, statusOf(guard.call(() -> failing(401))));
+        }
+        assertEquals(GenAIProviderGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void halfOpenLetsOneTrialThroughAndClosesOnSuccess() {
+        // open-seconds 0: the next call after opening is the trial
+        GenAIProviderGuard guard = new GenAIProviderGuard(registry, 10, 60, 1, 0);
+        statusOf(guard.call(() -> failing(500)));
+        assertEquals(GenAIProviderGuard.State.OPEN, guard.getState());
+
+        CompletableFuture<String> trial = new CompletableFuture<>();
+        CompletableFuture<String> result = guard.call(() -> trial);
+        assertEquals(GenAIProviderGuard.State.HALF_OPEN, guard.getState());
+        assertEquals(503, statusOf(guard.call(this::ok)));
+
+        trial.complete("answer");
+        assertEquals("answer", result.join());
+        assertEquals(GenAIProviderGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void failedTrialOpensTheBreakerAgain() {
+        GenAIProviderGuard guard = new GenAIProviderGuard(registry, 10, 60, 1, 0);
+        statusOf(guard.call(() -> failing(500)));
+
+        assertEquals(502, statusOf(guard.call(() -> failing(502))));
+        assertEquals(GenAIProviderGuard.State.OPEN, guard.getState());
+    }
+}
@@ -0,0 +1,72 @@
+package com.offficeVerse.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenAIResponseCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void keyNormalizesWhitespaceAndCase() {
+        assertEquals(GenAIResponseCache.key("openai", "gpt", "What is  a\tsprint?"),
+                GenAIResponseCache.key("openai", "gpt", "  what is a SPRINT? "));
+        assertNotEquals(GenAIResponseCache.key("openai", "gpt", "hi"),
+                GenAIResponseCache.key("huggingface", "gpt", "hi"));
+    }
+
+    @Test
+    void returnsStoredAnswerUntilItExpires() {
+        GenAIResponseCache cache = new GenAIResponseCache(registry, true, 600, 10);
+        cache.put("k", "answer");
+
+        assertEquals("answer", cache.get("k"));
+        assertNull(cache.get("other"));
+        assertEquals(1.0, registry.find("genai.cache.hits").counter().count());
+        assertEquals(1.0, registry.find("genai.cache.misses").counter().count());
+    }
+
+    @Test
+    void expiredEntryIsAMissAndIsRemoved() {
+        // A TTL of 0 expires entries as soon as they are stored
+        GenAIResponseCache cache = new GenAIResponseCache(registry, true, 0, 10);
+        cache.put("k", "answer");
+
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        GenAIResponseCache cache = new GenAIResponseCache(registry, true, 600, 2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(1.0, registry.find("genai.cache.evictions").counter().count());
+    }
+
+    @Test
+    void neverStoresEmptyAnswers() {
+        GenAIResponseCache cache = new GenAIResponseCache(registry, true, 600, 10);
+        cache.put("null", null);
+        cache.put("blank", "  ");
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        GenAIResponseCache cache = new GenAIResponseCache(registry, false, 600, 10);
+        cache.put("k", "answer");
+
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.size());
+    }
+}
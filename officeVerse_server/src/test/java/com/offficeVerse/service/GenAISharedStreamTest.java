@@ -0,0 +1,96 @@
+package com.offficeVerse.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenAISharedStreamTest {
+
+    private final GenAISharedStream stream = new GenAISharedStream();
+    private final CompletableFuture<String> call = new CompletableFuture<>();
+
+    @Test
+    void everyCallerGetsEveryTokenAndTheAnswer() throws Exception {
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        CompletableFuture<String> a = stream.join(first::add);
+        CompletableFuture<String> b = stream.join(second::add);
+        stream.start(call);
+
+        stream.token("Hel");
+        stream.token("lo");
+        stream.finish("Hello", null);
+
+        assertEquals(List.of("Hel", "lo"), first);
+        assertEquals(List.of("Hel", "lo"), second);
+        assertEquals("Hello", a.get());
+        assertEquals("Hello", b.get());
+    }
+
+    @Test
+    void lateCallerGetsWhatWasStreamedSoFarFirst() throws Exception {
+        stream.join(token -> { });
+        stream.start(call);
+        stream.token("Hel");
+        stream.token("lo");
+
+        List<String> late = new ArrayList<>();
+        CompletableFuture<String> answer = stream.join(late::add);
+        stream.token(" world");
+        stream.finish("Hello world", null);
+
+        assertEquals(List.of("Hello", " world"), late);
+        assertEquals("Hello world", answer.get());
+        // Joining after the end still sees the whole answer
+        List<String> after = new ArrayList<>();
+        assertEquals("Hello world", stream.join(after::add).get());
+        assertEquals(List.of("Hello world"), after);
+    }
+
+    @Test
+    void aFailingCallerDropsOutAlone() throws Exception {
+        List<String> steady = new ArrayList<>();
+        CompletableFuture<String> broken = stream.join(token -> {
+            throw new IllegalStateException("client gone");
+        });
+        CompletableFuture<String> ok = stream.join(steady::add);
+        stream.start(call);
+
+        stream.token("Hi");
+        stream.finish("Hi", null);
+
+        ExecutionException e = assertThrows(ExecutionException.class, broken::get);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals("Hi", ok.get());
+        assertEquals(List.of("Hi"), steady);
+        assertFalse(call.isCancelled());
+    }
+
+    @Test
+    void providerCallIsCancelledOnceEveryCallerLeft() {
+        CompletableFuture<String> a = stream.join(token -> { });
+        CompletableFuture<String> b = stream.join(token -> { });
+        stream.start(call);
+
+        a.cancel(true);
+        assertFalse(call.isCancelled());
+        b.cancel(true);
+        assertTrue(call.isCancelled());
+    }
+
+    @Test
+    void failureReachesEveryCaller() {
+        CompletableFuture<String> a = stream.join(token -> { });
+        stream.start(call);
+        stream.finish(null, new GenAIProviderException("Rate limit exceeded", 429));
+
+        ExecutionException e = assertThrows(ExecutionException.class, a::get);
+        assertEquals(429, ((GenAIProviderException) e.getCause()).getStatus());
+        assertThrows(ExecutionException.class, () -> stream.join(token -> { }).get());
+    }
+}
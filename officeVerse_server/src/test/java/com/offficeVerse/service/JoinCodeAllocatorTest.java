@@ -0,0 +1,88 @@
+package com.offficeVerse.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinCodeAllocatorTest {
+
+    // Draws each code from the next entry of the script, one character index per call
+    private static class ScriptedRandom extends Random {
+        private final int[] script;
+        private int calls;
+
+        ScriptedRandom(int... script) {
+            this.script = script;
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return script[Math.min(calls++ / 6, script.length - 1)] % bound;
+        }
+    }
+
+    @Test
+    void collidingCodeIsRedrawn() {
+        // First two draws give the same code; the third is different
+        JoinCodeAllocator allocator = new JoinCodeAllocator(new ScriptedRandom(0, 0, 1));
+
+        assertEquals("AAAAAA", allocator.reserve());
+        assertEquals("BBBBBB", allocator.reserve());
+    }
+
+    @Test
+    void boundCodeStaysTakenUntilReleased() {
+        JoinCodeAllocator allocator = new JoinCodeAllocator(new ScriptedRandom(0, 0, 1, 0));
+        String code = allocator.reserve();
+        allocator.bind(code, 7L);
+
+        assertEquals("BBBBBB", allocator.reserve());
+        allocator.release(code);
+        assertEquals("AAAAAA", allocator.reserve());
+    }
+
+    @Test
+    void lookupIgnoresCaseAndSpacesAndHidesReservedCodes() {
+        JoinCodeAllocator allocator = new JoinCodeAllocator();
+        String code = allocator.reserve();
+
+        assertNull(allocator.lookup(code));
+        allocator.bind(code, 42L);
+        assertEquals(Long.valueOf(42), allocator.lookup(" " + code.toLowerCase() + " "));
+        assertNull(allocator.lookup(null));
+        assertNull(allocator.lookup("??????"));
+    }
+
+    @Test
+    void concurrentReservationsAreUnique() throws InterruptedException {
+        // A tiny alphabet slice makes collisions frequent
+        JoinCodeAllocator allocator = new JoinCodeAllocator(new Random(1) {
+            @Override
+            public int nextInt(int bound) {
+                return super.nextInt(2);
+            }
+        });
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 8; i++) {
+                    assertTrue(codes.add(allocator.reserve()));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(32, codes.size());
+    }
+}
@@ -0,0 +1,111 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.model.Player;
+import com.offficeVerse.model.PlayerPosition;
+import com.offficeVerse.model.Position;
+import com.offficeVerse.repository.PlayerRepository;
+import com.offficeVerse.repository.PositionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionWriteBehindTest {
+
+    // Committed rows: Map<PlayerID, "x,y">
+    private final Map<Long, String> table = new TreeMap<>();
+
+    private Set<Long> badPlayers = Set.of();
+    private Runnable duringWrite = () -> { };
+
+    private final PositionWriteBehind writeBehind = new PositionWriteBehind(
+            TestRepositories.fake(PositionRepository.class, this::positions),
+            TestRepositories.fake(PlayerRepository.class, this::players),
+            new TestRepositories.Transactions());
+
+    @SuppressWarnings("unchecked")
+    private Object positions(String method, Object[] args) {
+        if (method.equals("findByPlayerIds")) {
+            duringWrite.run();
+            return new ArrayList<Position>();
+        }
+        // saveAll
+        for (Position row : (Iterable<Position>) args[0]) {
+            if (badPlayers.contains(row.getPlayer().getId())) {
+                throw new IllegalStateException("cannot write position of player " + row.getPlayer().getId());
+            }
+        }
+        for (Position row : (Iterable<Position>) args[0]) {
+            table.put(row.getPlayer().getId(), row.getX() + "," + row.getY());
+        }
+        return args[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object players(String method, Object[] args) {
+        if (method.equals("findExistingIds")) {
+            return new ArrayList<>((Collection<Long>) args[0]);
+        }
+        Player player = new Player();
+        player.setId((Long) args[0]);
+        return player;
+    }
+
+    @Test
+    void writesLatestPositionAndClearsPending() {
+        writeBehind.record(new PlayerPosition(1L, 5, 5));
+        writeBehind.record(new PlayerPosition(1L, 7, 8));
+
+        writeBehind.flush();
+
+        assertEquals(Map.of(1L, "7,8"), table);
+        assertNull(writeBehind.pending(1L));
+    }
+
+    @Test
+    void failedRowStaysPendingForTheNextFlush() {
+        badPlayers = Set.of(2L);
+        writeBehind.record(new PlayerPosition(1L, 1, 1));
+        writeBehind.record(new PlayerPosition(2L, 2, 2));
+        writeBehind.record(new PlayerPosition(3L, 3, 3));
+
+        writeBehind.flush();
+        assertEquals(Map.of(1L, "1,1", 3L, "3,3"), table);
+        assertEquals(new PlayerPosition(2L, 2, 2), writeBehind.pending(2L));
+
+        badPlayers = Set.of();
+        writeBehind.flush();
+        assertEquals("2,2", table.get(2L));
+        assertNull(writeBehind.pending(2L));
+    }
+
+    @Test
+    void positionRecordedDuringTheWriteIsKept() {
+        writeBehind.record(new PlayerPosition(1L, 1, 1));
+        duringWrite = () -> writeBehind.record(new PlayerPosition(1L, 9, 9));
+
+        writeBehind.flush();
+
+        assertEquals("1,1", table.get(1L));
+        assertEquals(new PlayerPosition(1L, 9, 9), writeBehind.pending(1L));
+    }
+
+    @Test
+    void failedFlushKeepsEverythingPending() {
+        badPlayers = Set.of(1L, 2L);
+        writeBehind.record(new PlayerPosition(1L, 1, 1));
+        writeBehind.record(new PlayerPosition(2L, 2, 2));
+
+        writeBehind.flush();
+
+        assertTrue(table.isEmpty());
+        assertEquals(List.of(new PlayerPosition(1L, 1, 1), new PlayerPosition(2L, 2, 2)),
+                List.of(writeBehind.pending(1L), writeBehind.pending(2L)));
+    }
+}
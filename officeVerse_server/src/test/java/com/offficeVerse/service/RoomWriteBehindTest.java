@@ -0,0 +1,112 @@
+package com.offficeVerse.service;
+
+import com.offficeVerse.model.Room;
+import com.offficeVerse.repository.PlayerRepository;
+import com.offficeVerse.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomWriteBehindTest {
+
+    // Committed state: Map<PlayerID, RoomID or null>, and the rooms deleted
+    private final Map<Long, Long> playerRooms = new TreeMap<>();
+    private final List<Long> deleted = new ArrayList<>();
+
+    private Set<Long> badPlayers = Set.of();
+    private Set<Long> badRooms = Set.of();
+
+    private final TestRepositories.Transactions transactions = new TestRepositories.Transactions();
+
+    private final RoomWriteBehind writeBehind = new RoomWriteBehind(
+            TestRepositories.fake(PlayerRepository.class, this::player),
+            TestRepositories.fake(RoomRepository.class, this::room),
+            transactions);
+
+    @SuppressWarnings("unchecked")
+    private Object player(String method, Object[] args) {
+        Collection<Long> ids = (Collection<Long>) args[args.length - 1];
+        for (Long id : ids) {
+            if (badPlayers.contains(id)) {
+                throw new IllegalStateException("constraint violation for player " + id);
+            }
+        }
+        Long roomId = method.equals("assignRoom") ? ((Room) args[0]).getId() : null;
+        for (Long id : ids) {
+            playerRooms.put(id, roomId);
+        }
+        return ids.size();
+    }
+
+    private Object room(String method, Object[] args) {
+        Long roomId = (Long) args[0];
+        if (method.equals("getReferenceById")) {
+            Room room = new Room();
+            room.setId(roomId);
+            return room;
+        }
+        if (badRooms.contains(roomId)) {
+            throw new IllegalStateException("cannot delete room " + roomId);
+        }
+        deleted.add(roomId);
+        return null;
+    }
+
+    @Test
+    void latestAssignmentPerPlayerIsWritten() {
+        writeBehind.assign(1L, 10L);
+        writeBehind.assign(1L, 11L);
+        writeBehind.assign(2L, 10L);
+        writeBehind.unassign(2L);
+
+        writeBehind.flush();
+
+        assertEquals(Long.valueOf(11), playerRooms.get(1L));
+        assertTrue(playerRooms.containsKey(2L));
+        assertNull(playerRooms.get(2L));
+    }
+
+    @Test
+    void assignmentsToDeletedRoomsAreSkipped() {
+        writeBehind.assign(1L, 10L);
+        writeBehind.delete(10L);
+
+        writeBehind.flush();
+
+        assertTrue(playerRooms.isEmpty());
+        assertEquals(List.of(10L), deleted);
+    }
+
+    @Test
+    void failedGroupIsRetriedPlayerByPlayer() {
+        badPlayers = Set.of(2L);
+        writeBehind.assign(1L, 10L);
+        writeBehind.assign(2L, 10L);
+        writeBehind.assign(3L, 10L);
+
+        writeBehind.flush();
+
+        assertEquals(Map.of(1L, 10L, 3L, 10L), playerRooms);
+        assertEquals(2, transactions.rollbacks);
+    }
+
+    @Test
+    void failedDeleteDoesNotLoseOtherChanges() {
+        badRooms = Set.of(20L);
+        writeBehind.assign(1L, 10L);
+        writeBehind.delete(20L);
+        writeBehind.delete(21L);
+
+        writeBehind.flush();
+
+        assertEquals(Map.of(1L, 10L), playerRooms);
+        assertEquals(List.of(21L), deleted);
+    }
+}
@@ -0,0 +1,48 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelSessionTest {
+
+    private final TestSessions.Recorder connection = new TestSessions.Recorder();
+    private final ChannelSession movement = new ChannelSession(TestSessions.session("ws-1", null, connection),
+            Channel.MOVEMENT, new ReentrantLock(), null);
+
+    private static byte[] bytes(WebSocketMessage<?> message) {
+        ByteBuffer payload = ((BinaryMessage) message).getPayload().duplicate();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    void textGetsTheTagPrepended() throws Exception {
+        movement.sendMessage(new TextMessage("Broadcast:1"));
+
+        assertEquals(Channel.MOVEMENT.tag() + "Broadcast:1", connection.sent.get(0).getPayload());
+    }
+
+    @Test
+    void binaryIsSentAsTagThenPayloadFragmentsWithoutConsumingTheFrame() throws Exception {
+        BinaryMessage frame = new BinaryMessage(new byte[] { 1, 2, 3 });
+
+        movement.sendMessage(frame);
+        movement.sendMessage(frame);
+
+        assertEquals(4, connection.sent.size());
+        for (int i = 0; i < 4; i += 2) {
+            assertFalse(connection.sent.get(i).isLast());
+            assertArrayEquals(new byte[] { (byte) Channel.MOVEMENT.tag() }, bytes(connection.sent.get(i)));
+            assertTrue(connection.sent.get(i + 1).isLast());
+            assertArrayEquals(new byte[] { 1, 2, 3 }, bytes(connection.sent.get(i + 1)));
+        }
+    }
+}
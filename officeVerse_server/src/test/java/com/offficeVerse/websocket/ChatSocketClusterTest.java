@@ -0,0 +1,116 @@
+package com.offficeVerse.websocket;
+
+import com.offficeVerse.service.ChatService;
+import com.offficeVerse.service.JoinCodeAllocator;
+import com.offficeVerse.service.RoomRegistry;
+import com.offficeVerse.service.RoomStateParticipant;
+import com.offficeVerse.service.RoomWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes serving one room's chat.
+ */
+class ChatSocketClusterTest {
+
+    private static final Long ROOM = 7L;
+
+    private static class Node {
+        final OutboundDispatcher outbound = new OutboundDispatcher(new StandardEnvironment());
+        final RoomRegistry rooms = new RoomRegistry(null, new RoomWriteBehind(null, null, null),
+                new JoinCodeAllocator());
+        final RoomShardManager shards;
+        final ChatSocket socket;
+
+        Node(String nodeId, LocalRoomBroker broker) {
+            RoomBroadcastBus bus = new LocalBrokerRoomBroadcastBus(nodeId, broker);
+            PresenceRegistry presence = new PresenceRegistry(bus);
+            shards = new RoomShardManager(bus, rooms, presence,
+                    new DefaultListableBeanFactory().getBeanProvider(RoomStateParticipant.class), 128);
+            // Persisting is the write-behind's job, covered elsewhere
+            ChatService chatService = new ChatService(null, null) {
+                @Override
+                public void recordMessage(Long roomId, Long senderId, String senderName, String text,
+                        LocalDateTime timestamp) {
+                }
+            };
+            socket = new ChatSocket(outbound, chatService, presence, bus, new SessionResumption(outbound, presence),
+                    shards, rooms, 50);
+        }
+
+        WebSocketSession register(Long playerId, String name, TestSessions.Recorder recorder) throws Exception {
+            WebSocketSession session = TestSessions.session(name, null, recorder);
+            socket.afterConnectionEstablished(session);
+            socket.handleTextMessage(session, new TextMessage("REGISTER:" + ROOM + ":" + playerId + ":" + name));
+            return session;
+        }
+    }
+
+    private final LocalRoomBroker broker = TestBuses.broker();
+    private final Node a = new Node("node-a", broker);
+    private final Node b = new Node("node-b", broker);
+
+    @AfterEach
+    void shutdown() {
+        a.outbound.shutdown();
+        b.outbound.shutdown();
+    }
+
+    private static String received(TestSessions.Recorder recorder) {
+        List<String> payloads = new ArrayList<>();
+        synchronized (recorder.sent) {
+            for (WebSocketMessage<?> message : recorder.sent) {
+                payloads.add(((TextMessage) message).getPayload());
+            }
+        }
+        return String.join("\n", payloads);
+    }
+
+    @Test
+    void backlogKeepsLinesFromOtherNodesUntilTheRoomIsRemoved() throws Exception {
+        a.shards.start();
+        b.shards.start();
+        Map<String, Object> room = new HashMap<>();
+        room.put("name", "Standup");
+        room.put("maxPlayers", 5);
+        room.put("joinCode", "ABC123");
+        room.put("members", List.of());
+        b.rooms.importRoom(ROOM, room);
+
+        TestSessions.Recorder bo = new TestSessions.Recorder();
+        b.register(2L, "Bo", bo);
+        TestSessions.Recorder ana = new TestSessions.Recorder();
+        WebSocketSession anaSession = a.register(1L, "Ana", ana);
+        TestBuses.await(() -> received(bo).contains(":1:Ana"), "Ana on node-b's roster");
+
+        a.socket.handleTextMessage(anaSession, new TextMessage("GLOBAL:1:hello"));
+        TestBuses.await(() -> received(bo).contains("GLOBAL:1:hello"), "Ana's line on node-b");
+
+        // Served from node-b's buffer, with the sender's name from the roster
+        TestSessions.Recorder cy = new TestSessions.Recorder();
+        b.register(3L, "Cy", cy);
+        TestBuses.await(() -> received(cy).contains("BACKLOG:"), "Cy's backlog");
+        String backlog = received(cy).substring(received(cy).indexOf("BACKLOG:"));
+        assertTrue(backlog.contains("\"message\":\"hello\""), backlog);
+        assertTrue(backlog.contains("\"senderName\":\"Ana\""), backlog);
+
+        b.rooms.remove(ROOM);
+        TestSessions.Recorder dee = new TestSessions.Recorder();
+        b.register(4L, "Dee", dee);
+        TestBuses.await(() -> received(dee).contains("BACKLOG:"), "Dee's backlog");
+        assertFalse(received(dee).contains("hello"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterestGridTest {
+
+    private final InterestGrid grid = new InterestGrid(100);
+    private final Map<Long, MovementState> states = new HashMap<>();
+
+    private MovementState move(long playerId, int x, int y) {
+        MovementState state = new MovementState(playerId, x, y, "P" + playerId, 0, "owlet", "idle", false,
+                states.get(playerId));
+        states.put(playerId, state);
+        grid.update(playerId, x, y);
+        return state;
+    }
+
+    private Set<Long> query(int x, int y, int radius) {
+        List<MovementState> out = new ArrayList<>();
+        grid.query(x, y, radius, states, out);
+        Set<Long> ids = new TreeSet<>();
+        for (MovementState state : out) {
+            ids.add(state.playerId);
+        }
+        return ids;
+    }
+
+    @Test
+    void returnsPlayersWithinTheRadiusAcrossCells() {
+        move(1, 0, 0);
+        move(2, 60, 80);
+        move(3, 99, 99);
+        move(4, 250, 0);
+
+        // (60, 80) is exactly 100 away and counts; (99, 99) is in a queried cell but 140 away
+        assertEquals(Set.of(1L, 2L), query(0, 0, 100));
+        assertEquals(Set.of(1L, 2L, 3L), query(50, 50, 100));
+    }
+
+    @Test
+    void handlesNegativeCoordinates() {
+        move(1, -150, -150);
+        move(2, -10, 5);
+
+        assertEquals(Set.of(2L), query(0, 0, 100));
+        assertEquals(Set.of(1L), query(-120, -120, 50));
+    }
+
+    @Test
+    void movedAndRemovedPlayersLeaveTheirOldCell() {
+        move(1, 0, 0);
+        move(1, 500, 500);
+        assertEquals(Set.of(), query(0, 0, 100));
+        assertEquals(Set.of(1L), query(500, 500, 10));
+
+        grid.remove(1);
+        assertEquals(Set.of(), query(500, 500, 10));
+    }
+
+    @Test
+    void hysteresisKeepsAVisiblePlayerUntilTheLeaveRadius() {
+        // The tick queries at radius + hysteresis and lets players enter only within radius
+        int radius = 100;
+        int leaveRadius = 150;
+        MovementSession session = new MovementSession(
+                TestSessions.session("s1", null, new TestSessions.Recorder()), 1L, 10L);
+        MovementCodec.TextSnapshotWriter writer = new MovementCodec.TextSnapshotWriter();
+        MovementState viewer = move(1, 0, 0);
+
+        long tick = 0;
+        int[] path = { 130, 90, 130, 149, 160, 130 };
+        List<String> seen = new ArrayList<>();
+        for (int x : path) {
+            move(2, x, 0);
+            List<MovementState> candidates = new ArrayList<>();
+            grid.query(viewer.x, viewer.y, leaveRadius, states, candidates);
+            MovementSession.Encoded encoded = session.encodeSnapshot(++tick, candidates, viewer, radius, 1000, writer);
+            seen.add(x + ":" + encoded);
+        }
+
+        // Out of reach at 130 until it came within 100; then visible up to 150; re-entry needs 100 again
+        assertEquals(List.of("130:NOTHING", "90:STATES", "130:STATES", "149:STATES", "160:LEAVES", "130:NOTHING"),
+                seen);
+    }
+}
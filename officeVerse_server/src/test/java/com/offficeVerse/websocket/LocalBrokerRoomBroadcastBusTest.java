@@ -0,0 +1,107 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalBrokerRoomBroadcastBusTest {
+
+    private final LocalRoomBroker broker = TestBuses.broker();
+    private final LocalBrokerRoomBroadcastBus a = new LocalBrokerRoomBroadcastBus("node-a", broker);
+    private final LocalBrokerRoomBroadcastBus b = new LocalBrokerRoomBroadcastBus("node-b", broker);
+    private final LocalBrokerRoomBroadcastBus c = new LocalBrokerRoomBroadcastBus("node-c", broker);
+
+    private static List<RoomBroadcast> received(RoomBroadcastBus bus, Channel channel) {
+        List<RoomBroadcast> received = new CopyOnWriteArrayList<>();
+        bus.subscribe(channel, received::add);
+        return received;
+    }
+
+    @Test
+    void broadcastsReachOnlyOtherNodesWithMembersInTheRoom() {
+        List<RoomBroadcast> atA = received(a, Channel.CHAT);
+        List<RoomBroadcast> atB = received(b, Channel.CHAT);
+        List<RoomBroadcast> atC = received(c, Channel.CHAT);
+        a.updateInterest(7L, 1);
+        b.updateInterest(7L, 2);
+        c.updateInterest(8L, 1);
+
+        a.publish(new RoomBroadcast("node-a", Channel.CHAT, 7L, "GLOBAL:1:hi", 1L));
+        a.publish(new RoomBroadcast("node-a", Channel.CHAT, 7L, "GLOBAL:1:again", null));
+        TestBuses.await(() -> atB.size() == 2, "node-b to receive both lines");
+
+        // In order, with the excluded player carried along for the receiver to skip
+        assertEquals("GLOBAL:1:hi", atB.get(0).payload());
+        assertEquals(1L, atB.get(0).excludePlayerId());
+        assertEquals("GLOBAL:1:again", atB.get(1).payload());
+        assertNull(atB.get(1).excludePlayerId());
+
+        // Sync point on the other lanes: anything routed to them earlier has arrived by now
+        c.updateInterest(9L, 1);
+        a.updateInterest(9L, 1);
+        b.publish(new RoomBroadcast("node-b", Channel.CHAT, 9L, "marker", null));
+        TestBuses.await(() -> atA.size() == 1 && atC.size() == 1, "the marker on node-a and node-c");
+        assertEquals("marker", atA.get(0).payload());
+        assertEquals("marker", atC.get(0).payload());
+    }
+
+    @Test
+    void droppingInterestStopsRouting() {
+        List<RoomBroadcast> atB = received(b, Channel.MOVEMENT);
+        b.updateInterest(7L, 1);
+        a.publish(new RoomBroadcast("node-a", Channel.MOVEMENT, 7L, "first", null));
+        TestBuses.await(() -> atB.size() == 1, "the first broadcast");
+
+        b.updateInterest(7L, 0);
+        a.publish(new RoomBroadcast("node-a", Channel.MOVEMENT, 7L, "second", null));
+        b.updateInterest(8L, 1);
+        a.publish(new RoomBroadcast("node-a", Channel.MOVEMENT, 8L, "marker", null));
+        TestBuses.await(() -> atB.size() == 2, "the marker");
+
+        assertEquals(List.of("first", "marker"), atB.stream().map(RoomBroadcast::payload).toList());
+    }
+
+    @Test
+    void broadcastsArriveOnTheirOwnChannel() {
+        List<RoomBroadcast> chat = received(b, Channel.CHAT);
+        List<RoomBroadcast> movement = received(b, Channel.MOVEMENT);
+        b.updateInterest(7L, 1);
+
+        a.publish(new RoomBroadcast("node-a", Channel.MOVEMENT, 7L, "Sync", null));
+        a.publish(new RoomBroadcast("node-a", Channel.CHAT, 7L, "GLOBAL:1:hi", null));
+        TestBuses.await(() -> chat.size() == 1, "the chat line");
+
+        assertEquals(1, movement.size());
+        assertEquals("Sync", movement.get(0).payload());
+    }
+
+    @Test
+    void directedMessagesReachANodeWithoutMembers() {
+        List<RoomMessage> atB = new CopyOnWriteArrayList<>();
+        List<RoomMessage> atC = new CopyOnWriteArrayList<>();
+        b.onMessage(Channel.CHAT, atB::add);
+        c.onMessage(Channel.CHAT, atC::add);
+
+        a.send("node-b", new RoomMessage("node-a", Channel.CHAT, 7L, "join", Map.of("playerId", 1L)));
+        a.send("node-gone", new RoomMessage("node-a", Channel.CHAT, 7L, "join", Map.of("playerId", 2L)));
+        TestBuses.await(() -> atB.size() == 1, "the message on node-b");
+
+        assertEquals("join", atB.get(0).type());
+        assertEquals(1L, atB.get(0).data().get("playerId"));
+        assertTrue(atC.isEmpty());
+    }
+
+    @Test
+    void everyNodeSeesTheMembership() {
+        assertEquals(Set.of("node-a", "node-b", "node-c"), a.nodes());
+
+        c.close();
+
+        assertEquals(Set.of("node-a", "node-b"), b.nodes());
+    }
+}
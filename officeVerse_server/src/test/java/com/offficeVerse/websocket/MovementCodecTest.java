@@ -0,0 +1,198 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementCodecTest {
+
+    private static MovementState state(long playerId, int x, int y, String name, String anim, boolean flip) {
+        return new MovementState(playerId, x, y, name, 0x123456, "dude", anim, flip, null);
+    }
+
+    // STATE frame body after the type byte and room/player IDs
+    private static ByteBuffer stateBody(int x, int y, int character, int anim, int flags, int skin, String name) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.putShort((short) x).putShort((short) y).put((byte) character).put((byte) anim).put((byte) flags)
+                .putInt(skin);
+        if (name != null) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.put((byte) bytes.length).put(bytes);
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer snapshot(MovementCodec.BinarySnapshotWriter writer, int expectedCount) {
+        ByteBuffer frame = writer.finish();
+        assertEquals(MovementCodec.OUT_SNAPSHOT, frame.get());
+        assertEquals(7, frame.getInt());
+        assertEquals(5, frame.getInt());
+        assertEquals(expectedCount, frame.getShort());
+        return frame;
+    }
+
+    private static String readName(ByteBuffer frame) {
+        byte[] name = new byte[frame.get() & 0xff];
+        frame.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void readsInboundStateWithName() {
+        MovementState state = MovementCodec.readState(stateBody(-12, 340, 2, 1, 0x03, 0xabcdef, "Zoë"), 9, null);
+
+        assertEquals(9, state.playerId);
+        assertEquals(-12, state.x);
+        assertEquals(340, state.y);
+        assertEquals("pink", state.character);
+        assertEquals("walk", state.anim);
+        assertTrue(state.flip);
+        assertEquals(0xabcdef, state.skin);
+        assertEquals("Zoë", state.name);
+    }
+
+    @Test
+    void inboundStateWithoutNameKeepsPreviousNameAndUnknownCodesFallBack() {
+        MovementState previous = state(9, 0, 0, "Ana", "idle", false);
+        MovementState state = MovementCodec.readState(stateBody(1, 2, 99, 99, 0, 0, null), 9, previous);
+
+        assertEquals("Ana", state.name);
+        assertSame(previous.nameUtf8, state.nameUtf8);
+        assertEquals("owlet", state.character);
+        assertEquals("idle", state.anim);
+    }
+
+    @Test
+    void binaryFullEntryRoundTrips() {
+        MovementCodec.BinarySnapshotWriter writer = new MovementCodec.BinarySnapshotWriter(new ByteBufferPool(1, 64));
+        writer.begin(7, 5);
+        writer.full(state(42, 100, -50, "Zoë", "walk", true));
+
+        ByteBuffer frame = snapshot(writer, 1);
+        assertEquals(0x00, frame.get());
+        assertEquals(42, frame.getInt());
+        assertEquals(100, frame.getShort());
+        assertEquals(-50, frame.getShort());
+        assertEquals(MovementCodec.code(MovementCodec.CHARACTERS, "dude"), frame.get());
+        assertEquals(MovementCodec.code(MovementCodec.ANIMS, "walk"), frame.get());
+        assertEquals(0x01, frame.get());
+        assertEquals(0x123456, frame.getInt());
+        assertEquals("Zoë", readName(frame));
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void binaryDeltaAndLeaveEntriesRoundTrip() {
+        MovementCodec.BinarySnapshotWriter writer = new MovementCodec.BinarySnapshotWriter(new ByteBufferPool(1, 64));
+        MovementState base = state(42, 100, 100, "Ana", "idle", false);
+        writer.begin(7, 5);
+        writer.delta(state(42, 90, 103, "Ana", "walk", true), base);
+        writer.delta(state(42, 100, 101, "Ana", "idle", false), base);
+        writer.leave(43);
+
+        ByteBuffer frame = snapshot(writer, 3);
+        assertEquals(0x01, frame.get());
+        assertEquals(42, frame.getInt());
+        assertEquals(-10, frame.getShort());
+        assertEquals(3, frame.getShort());
+        assertEquals(0x07, frame.get());
+        assertEquals(MovementCodec.code(MovementCodec.ANIMS, "walk"), frame.get());
+
+        assertEquals(0x01, frame.get());
+        assertEquals(42, frame.getInt());
+        assertEquals(0, frame.getShort());
+        assertEquals(1, frame.getShort());
+        assertEquals(0x00, frame.get());
+
+        assertEquals(0x02, frame.get());
+        assertEquals(43, frame.getInt());
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void writerGrowsPastThePooledBufferSize() {
+        MovementCodec.BinarySnapshotWriter writer = new MovementCodec.BinarySnapshotWriter(new ByteBufferPool(1, 16));
+        writer.begin(7, 5);
+        for (int i = 0; i < 20; i++) {
+            writer.full(state(i, i, i, "Player " + i, "idle", false));
+        }
+
+        ByteBuffer frame = snapshot(writer, 20);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0x00, frame.get());
+            assertEquals(i, frame.getInt());
+            frame.position(frame.position() + 11);
+            assertEquals("Player " + i, readName(frame));
+        }
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void longNamesAreCutOnACharacterBoundary() {
+        // 200 two-byte characters: 255 bytes would end in the middle of one
+        String name = "é".repeat(200);
+        MovementCodec.BinarySnapshotWriter writer = new MovementCodec.BinarySnapshotWriter(new ByteBufferPool(1, 64));
+        writer.begin(7, 5);
+        writer.full(state(1, 0, 0, name, "idle", false));
+
+        ByteBuffer frame = snapshot(writer, 1);
+        frame.position(frame.position() + 16);
+        assertEquals("é".repeat(127), readName(frame));
+    }
+
+    @Test
+    void utf8PrefixNeverSplitsACharacter() {
+        byte[] emoji = "a😀😀".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(9, MovementCodec.utf8Prefix(emoji, 255));
+        assertEquals(5, MovementCodec.utf8Prefix(emoji, 8));
+        assertEquals(5, MovementCodec.utf8Prefix(emoji, 5));
+        assertEquals(1, MovementCodec.utf8Prefix(emoji, 4));
+        assertEquals(0, MovementCodec.utf8Prefix("😀".getBytes(StandardCharsets.UTF_8), 3));
+    }
+
+    @Test
+    void textSnapshotFormat() {
+        MovementCodec.TextSnapshotWriter writer = new MovementCodec.TextSnapshotWriter();
+        MovementState base = state(42, 100, 100, "Ana", "idle", false);
+        writer.begin(7, 5);
+        writer.full(base);
+        writer.delta(state(42, 98, 100, "Ana", "idle", true), base);
+        writer.leave(43);
+
+        assertEquals("Snapshot:7:5\nBroadcast:42:100:100:Ana:1193046:dude:idle:0\nDelta:42:-2:0::1\nLeave:43",
+                writer.toMessage().getPayload());
+    }
+
+    @Test
+    void textFullEntryRoundTripsWithColonsInTheName() {
+        MovementCodec.TextSnapshotWriter writer = new MovementCodec.TextSnapshotWriter();
+        MovementState state = state(42, 100, -3, "Ana: the 2nd", "walk", true);
+        writer.begin(7, 0);
+        writer.full(state);
+
+        String line = writer.toMessage().getPayload().split("\n")[1];
+        MovementState parsed = MovementCodec.parseFull(line, state);
+
+        assertEquals(42, parsed.playerId);
+        assertEquals(100, parsed.x);
+        assertEquals(-3, parsed.y);
+        assertEquals("Ana: the 2nd", parsed.name);
+        assertSame(state.nameUtf8, parsed.nameUtf8);
+        assertEquals(state.skin, parsed.skin);
+        assertEquals(state.character, parsed.character);
+        assertEquals("walk", parsed.anim);
+        assertTrue(parsed.flip);
+        assertThrows(IllegalArgumentException.class, () -> MovementCodec.parseFull("Delta:42:-2:0::1", null));
+    }
+
+    @Test
+    void parsesDecimalAndHexSkins() {
+        assertEquals(0xffffff, MovementCodec.parseSkin("16777215"));
+        assertEquals(0xff00ff, MovementCodec.parseSkin("0xff00ff"));
+        assertEquals(0xffffff, MovementCodec.parseSkin("not a skin"));
+    }
+}
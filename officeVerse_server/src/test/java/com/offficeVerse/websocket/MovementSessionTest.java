@@ -0,0 +1,140 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementSessionTest {
+
+    private final MovementSession session = new MovementSession(
+            TestSessions.session("s1", null, new TestSessions.Recorder()), 1L, 10L);
+    private final MovementCodec.TextSnapshotWriter writer = new MovementCodec.TextSnapshotWriter();
+
+    private MovementSession.Encoded encoded;
+
+    private static MovementState state(long playerId, int x, int y, MovementState previous) {
+        return new MovementState(playerId, x, y, "P" + playerId, 0, "owlet", "idle", false, previous);
+    }
+
+    // Snapshot text without the interest filter and with keyframes far away
+    private String encode(long tick, MovementState... candidates) {
+        encoded = session.encodeSnapshot(tick, List.of(candidates), null, 0, 1000, writer);
+        return writer.toMessage().getPayload();
+    }
+
+    @Test
+    void firstSnapshotSendsOthersInFullAndSkipsTheViewer() {
+        MovementState self = state(1, 0, 0, null);
+        MovementState other = state(2, 5, 6, null);
+
+        assertEquals("Snapshot:1:0\nBroadcast:2:5:6:P2:0:owlet:idle:0", encode(1, self, other));
+        assertEquals(MovementSession.Encoded.STATES, encoded);
+    }
+
+    @Test
+    void unacknowledgedStatesAreSentInFullAgain() {
+        MovementState other = state(2, 5, 6, null);
+        encode(1, other);
+
+        assertEquals("Snapshot:2:0\nBroadcast:2:5:6:P2:0:owlet:idle:0", encode(2, other));
+    }
+
+    @Test
+    void acknowledgedUnchangedStateSendsNothing() {
+        MovementState other = state(2, 5, 6, null);
+        encode(1, other);
+        session.acknowledge(1);
+
+        assertEquals("Snapshot:2:1", encode(2, other));
+        assertEquals(MovementSession.Encoded.NOTHING, encoded);
+        assertTrue(session.isDeltaMode());
+    }
+
+    @Test
+    void movementAfterAckIsADeltaAgainstTheAckedBaseline() {
+        MovementState first = state(2, 5, 6, null);
+        encode(1, first);
+        session.acknowledge(1);
+        MovementState second = state(2, 8, 4, first);
+        encode(2, second);
+
+        // Tick 2 is not acknowledged yet, so tick 3 is still relative to tick 1
+        assertEquals("Snapshot:3:1\nDelta:2:5:-2::", encode(3, state(2, 10, 4, second)));
+    }
+
+    @Test
+    void ackIsCumulative() {
+        MovementState first = state(2, 5, 6, null);
+        encode(1, first);
+        MovementState second = state(2, 8, 6, first);
+        encode(2, second);
+        session.acknowledge(2);
+
+        assertEquals("Snapshot:3:2\nDelta:2:1:0::", encode(3, state(2, 9, 6, second)));
+    }
+
+    @Test
+    void appearanceChangeIsSentInFull() {
+        MovementState first = state(2, 5, 6, null);
+        encode(1, first);
+        session.acknowledge(1);
+        MovementState renamed = new MovementState(2, 5, 6, "New name", 0, "owlet", "idle", false, first);
+
+        assertEquals("Snapshot:2:1\nBroadcast:2:5:6:New name:0:owlet:idle:0", encode(2, renamed));
+    }
+
+    @Test
+    void resyncDropsTheBaseline() {
+        MovementState other = state(2, 5, 6, null);
+        encode(1, other);
+        session.acknowledge(1);
+        session.resync();
+
+        assertEquals("Snapshot:2:1\nBroadcast:2:5:6:P2:0:owlet:idle:0", encode(2, other));
+    }
+
+    @Test
+    void keyframeResendsEveryoneInFull() {
+        MovementState other = state(2, 5, 6, null);
+        session.encodeSnapshot(1, List.of(other), null, 0, 3, writer);
+        session.acknowledge(1);
+
+        session.encodeSnapshot(2, List.of(other), null, 0, 3, writer);
+        assertEquals("Snapshot:2:1", writer.toMessage().getPayload());
+        session.encodeSnapshot(3, List.of(other), null, 0, 3, writer);
+        assertEquals("Snapshot:3:0\nBroadcast:2:5:6:P2:0:owlet:idle:0", writer.toMessage().getPayload());
+    }
+
+    @Test
+    void playersEnterWithinTheRadiusAndLeaveWhenNoLongerCandidates() {
+        MovementState viewer = state(1, 0, 0, null);
+        MovementState far = state(2, 300, 0, null);
+
+        session.encodeSnapshot(1, List.of(far), viewer, 100, 1000, writer);
+        assertEquals("Snapshot:1:0", writer.toMessage().getPayload());
+
+        MovementState near = state(2, 50, 0, far);
+        assertEquals(MovementSession.Encoded.STATES,
+                session.encodeSnapshot(2, List.of(near), viewer, 100, 1000, writer));
+
+        // Still a candidate (inside the leave radius) while outside the enter radius: stays visible
+        MovementState edge = state(2, 120, 0, near);
+        session.encodeSnapshot(3, List.of(edge), viewer, 100, 1000, writer);
+        assertEquals("Snapshot:3:0\nBroadcast:2:120:0:P2:0:owlet:idle:0", writer.toMessage().getPayload());
+
+        assertEquals(MovementSession.Encoded.LEAVES, session.encodeSnapshot(4, List.of(), viewer, 100, 1000, writer));
+        assertEquals("Snapshot:4:0\nLeave:2", writer.toMessage().getPayload());
+    }
+
+    @Test
+    void forgottenPlayerIsSentInFullWhenSeenAgain() {
+        MovementState other = state(2, 5, 6, null);
+        encode(1, other);
+        session.acknowledge(1);
+        session.forget(2L);
+
+        assertEquals("Snapshot:2:1\nBroadcast:2:5:6:P2:0:owlet:idle:0", encode(2, other));
+    }
+}
@@ -0,0 +1,98 @@
+package com.offficeVerse.websocket;
+
+import com.offficeVerse.service.PositionService;
+import com.offficeVerse.service.PositionWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes serving one room, each with a legacy text client.
+ */
+class MovementSocketClusterTest {
+
+    private static class Node {
+        final OutboundDispatcher outbound = new OutboundDispatcher(new StandardEnvironment());
+        final MovementSocket socket;
+
+        Node(String nodeId, LocalRoomBroker broker) {
+            RoomBroadcastBus bus = new LocalBrokerRoomBroadcastBus(nodeId, broker);
+            socket = new MovementSocket(outbound, new PresenceRegistry(bus),
+                    new PositionService(null, new PositionWriteBehind(null, null, null)), bus);
+        }
+
+        WebSocketSession connect(String id, TestSessions.Recorder recorder) throws Exception {
+            WebSocketSession session = TestSessions.session(id, null, recorder);
+            socket.afterConnectionEstablished(session);
+            return session;
+        }
+    }
+
+    private final LocalRoomBroker broker = TestBuses.broker();
+    private final Node a = new Node("node-a", broker);
+    private final Node b = new Node("node-b", broker);
+
+    @AfterEach
+    void shutdown() {
+        a.outbound.shutdown();
+        b.outbound.shutdown();
+    }
+
+    private static String received(TestSessions.Recorder recorder) {
+        List<String> payloads = new ArrayList<>();
+        synchronized (recorder.sent) {
+            for (WebSocketMessage<?> message : recorder.sent) {
+                payloads.add(((TextMessage) message).getPayload());
+            }
+        }
+        return String.join("\n", payloads);
+    }
+
+    @Test
+    void playersOnDifferentNodesSeeEachOtherMoveAndLeave() throws Exception {
+        TestSessions.Recorder ana = new TestSessions.Recorder();
+        TestSessions.Recorder bo = new TestSessions.Recorder();
+        WebSocketSession anaSession = a.connect("ana", ana);
+        WebSocketSession boSession = b.connect("bo", bo);
+
+        a.socket.handleTextMessage(anaSession, new TextMessage("7:1:10:20:Ana:0:owlet:idle:0"));
+        // Bo's node asks for the room's states when its first player arrives
+        b.socket.handleTextMessage(boSession, new TextMessage("7:2:50:60:Bo:0:owlet:walk:1"));
+        TestBuses.await(() -> {
+            b.socket.tick();
+            return received(bo).contains("Broadcast:1:10:20:Ana:0:owlet:idle:0");
+        }, "Ana's state on node-b");
+
+        // node-b's tick published Bo's state
+        TestBuses.await(() -> {
+            a.socket.tick();
+            return received(ana).contains("Broadcast:2:50:60:Bo:0:owlet:walk:1");
+        }, "Bo's state on node-a");
+
+        a.socket.handleTextMessage(anaSession, new TextMessage("7:1:15:20:Ana:0:owlet:walk:0"));
+        a.socket.tick();
+        TestBuses.await(() -> {
+            b.socket.tick();
+            return received(bo).contains("Broadcast:1:15:20:Ana:0:owlet:walk:0");
+        }, "Ana's move on node-b");
+
+        a.socket.afterConnectionClosed(anaSession, CloseStatus.NORMAL);
+        TestBuses.await(() -> received(bo).endsWith("PlayerLeft:1"), "Ana's leave on node-b");
+
+        // Ana is gone from node-b's room state, so later ticks do not bring her back
+        int before = bo.sent.size();
+        b.socket.handleTextMessage(boSession, new TextMessage("7:2:51:60:Bo:0:owlet:walk:1"));
+        b.socket.tick();
+        TestBuses.await(() -> bo.sent.size() > before, "Bo's own move");
+        assertFalse(received(bo).substring(received(bo).lastIndexOf("PlayerLeft:1")).contains("Broadcast:1:"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.offficeVerse.websocket;
+
+import com.offficeVerse.service.PositionService;
+import com.offficeVerse.service.PositionWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementSocketTest {
+
+    private final OutboundDispatcher outbound = new OutboundDispatcher(environment(2));
+    private final RoomBroadcastBus bus = new InProcessRoomBroadcastBus("node-a");
+    private final PresenceRegistry presence = new PresenceRegistry(bus);
+    private final MovementSocket socket = new MovementSocket(outbound, presence,
+            new PositionService(null, new PositionWriteBehind(null, null, null)), bus);
+
+    @AfterEach
+    void shutdown() {
+        outbound.shutdown();
+    }
+
+    private static StandardEnvironment environment(int movementCapacity) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("websocket.outbound.movement.capacity", movementCapacity)));
+        return environment;
+    }
+
+    // Legacy text session whose sends wait for the latch, so its outbound queue fills up
+    private static WebSocketSession slowSession(String id, List<String> received, CountDownLatch sending,
+            CountDownLatch release) {
+        return (WebSocketSession) Proxy.newProxyInstance(WebSocketSession.class.getClassLoader(),
+                new Class<?>[] { WebSocketSession.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return id;
+                        case "isOpen":
+                            return true;
+                        case "sendMessage":
+                            sending.countDown();
+                            release.await(5, TimeUnit.SECONDS);
+                            received.add(((TextMessage) args[0]).getPayload());
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private void move(WebSocketSession session, String frame) throws Exception {
+        socket.handleTextMessage(session, new TextMessage(frame));
+    }
+
+    @Test
+    void legacySessionGetsEveryoneAfterADroppedFrame() throws Exception {
+        TestSessions.Recorder mover = new TestSessions.Recorder();
+        WebSocketSession moverSession = TestSessions.session("mover", null, mover);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession slow = slowSession("slow", received, sending, release);
+        socket.afterConnectionEstablished(moverSession);
+        socket.afterConnectionEstablished(slow);
+
+        move(slow, "7:2:50:60:Bo");
+        move(moverSession, "7:1:0:0:Ana");
+        socket.tick();
+        // One frame in flight, so the queue below holds the next two
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        // Ana keeps moving while the slow session's queue is full, so some of her frames are dropped
+        for (int x = 1; x <= 6; x++) {
+            move(moverSession, "7:1:" + x + ":0:Ana");
+            socket.tick();
+        }
+        release.countDown();
+        TestBuses.await(() -> received.size() >= 3, "the queued frames");
+
+        // Nobody moved, yet the next frame lists both players at their latest positions
+        socket.tick();
+        TestBuses.await(() -> received.get(received.size() - 1).contains("Broadcast:2:"), "the repair frame");
+        String repair = received.get(received.size() - 1);
+        assertTrue(repair.contains("Broadcast:1:6:0:Ana"), repair);
+        assertTrue(repair.contains("Broadcast:2:50:60:Bo"), repair);
+    }
+
+    @Test
+    void firstLegacyFrameListsPlayersThatAreStandingStill() throws Exception {
+        TestSessions.Recorder standing = new TestSessions.Recorder();
+        TestSessions.Recorder newcomer = new TestSessions.Recorder();
+        WebSocketSession standingSession = TestSessions.session("standing", null, standing);
+        WebSocketSession newcomerSession = TestSessions.session("newcomer", null, newcomer);
+        socket.afterConnectionEstablished(standingSession);
+        socket.afterConnectionEstablished(newcomerSession);
+        move(standingSession, "7:1:10:20:Ana");
+        socket.tick();
+
+        move(newcomerSession, "7:2:50:60:Bo");
+        socket.tick();
+        TestBuses.await(() -> !newcomer.sent.isEmpty(), "the newcomer's first frame");
+
+        String first = (String) newcomer.sent.get(0).getPayload();
+        assertTrue(first.contains("Broadcast:1:10:20:Ana"), first);
+    }
+
+    @Test
+    void binaryIdsAboveTheSignedRangeStayPositive() throws Exception {
+        WebSocketSession session = TestSessions.session("binary", MovementCodec.BINARY_SUBPROTOCOL,
+                new TestSessions.Recorder());
+        socket.afterConnectionEstablished(session);
+        ByteBuffer frame = ByteBuffer.allocate(20);
+        frame.put(MovementCodec.IN_STATE).putInt(0x80000001).putInt(0xfffffffe)
+                .putShort((short) 10).putShort((short) 20).put((byte) 0).put((byte) 0).put((byte) 0).putInt(0)
+                .flip();
+
+        socket.handleBinaryMessage(session, new BinaryMessage(frame));
+
+        PlayerPresence player = presence.get(session);
+        assertEquals(0x80000001L, player.getRoomId());
+        assertEquals(0xfffffffeL, player.getPlayerId());
+    }
+}
@@ -0,0 +1,49 @@
+package com.offficeVerse.websocket;
+
+import com.offficeVerse.model.ChatHistoryEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentChatBufferTest {
+
+    private static ChatHistoryEntry entry(String message) {
+        return new ChatHistoryEntry(null, 1L, "Ana", message, LocalDateTime.now());
+    }
+
+    private static List<String> messages(RecentChatBuffer buffer) {
+        List<String> messages = new ArrayList<>();
+        for (ChatHistoryEntry entry : buffer.snapshot()) {
+            messages.add(entry.message());
+        }
+        return messages;
+    }
+
+    @Test
+    void keepsMessagesOldestFirstBelowCapacity() {
+        RecentChatBuffer buffer = new RecentChatBuffer(3);
+        buffer.add(entry("a"));
+        buffer.add(entry("b"));
+
+        assertEquals(List.of("a", "b"), messages(buffer));
+    }
+
+    @Test
+    void overwritesOldestMessagesOnceFull() {
+        RecentChatBuffer buffer = new RecentChatBuffer(3);
+        for (String message : List.of("a", "b", "c", "d", "e")) {
+            buffer.add(entry(message));
+        }
+
+        assertEquals(List.of("c", "d", "e"), messages(buffer));
+    }
+
+    @Test
+    void rejectsCapacityBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new RecentChatBuffer(0));
+    }
+}
@@ -0,0 +1,90 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayLogTest {
+
+    private final List<Runnable> drains = new ArrayList<>();
+    private final TestSessions.Recorder recorder = new TestSessions.Recorder();
+    private final SessionOutbox outbox = new SessionOutbox(TestSessions.session("s1", null, recorder), Channel.CHAT,
+            Channel.OverflowPolicy.DISCONNECT, 100, drains::add);
+
+    private List<String> drainAll() {
+        new ArrayList<>(drains).forEach(Runnable::run);
+        drains.clear();
+        List<String> payloads = new ArrayList<>();
+        for (WebSocketMessage<?> message : recorder.sent) {
+            payloads.add((String) message.getPayload());
+        }
+        return payloads;
+    }
+
+    private ReplayLog logOf(int capacity, int messages) {
+        ReplayLog log = new ReplayLog(capacity);
+        for (int i = 1; i <= messages; i++) {
+            log.record(new TextMessage("m" + i), null);
+        }
+        return log;
+    }
+
+    @Test
+    void replaysOnlyMessagesAfterLastSeen() {
+        ReplayLog log = logOf(5, 4);
+
+        assertTrue(log.replay(2, new TextMessage("ack"), outbox));
+        assertEquals(List.of("ack", "m3", "m4"), drainAll());
+    }
+
+    @Test
+    void replayOfEverythingSeenSendsOnlyTheAck() {
+        ReplayLog log = logOf(5, 4);
+
+        assertTrue(log.replay(4, new TextMessage("ack"), outbox));
+        assertEquals(List.of("ack"), drainAll());
+    }
+
+    @Test
+    void coversFromJustBeforeTheOldestKeptMessage() {
+        // Capacity 3 after 5 messages keeps m3..m5
+        ReplayLog log = logOf(3, 5);
+
+        assertFalse(log.covers(1));
+        assertTrue(log.covers(2));
+        assertTrue(log.covers(5));
+        assertFalse(log.covers(6));
+        assertFalse(log.covers(-1));
+    }
+
+    @Test
+    void refusedReplayQueuesNothing() {
+        ReplayLog log = logOf(3, 5);
+
+        assertFalse(log.replay(1, new TextMessage("ack"), outbox));
+        assertFalse(log.replay(6, new TextMessage("ack"), outbox));
+        assertTrue(drainAll().isEmpty());
+    }
+
+    @Test
+    void emptyLogCoversOnlyZero() {
+        ReplayLog log = new ReplayLog(3);
+
+        assertTrue(log.covers(0));
+        assertFalse(log.covers(1));
+    }
+
+    @Test
+    void recordQueuesOnTheConnectedSession() {
+        ReplayLog log = new ReplayLog(3);
+        log.record(new TextMessage("live"), outbox);
+
+        assertEquals(List.of("live"), drainAll());
+        assertTrue(log.covers(1));
+    }
+}
@@ -0,0 +1,185 @@
+package com.offficeVerse.websocket;
+
+import com.offficeVerse.service.JoinCodeAllocator;
+import com.offficeVerse.service.PositionService;
+import com.offficeVerse.service.PositionWriteBehind;
+import com.offficeVerse.service.RoomRegistry;
+import com.offficeVerse.service.RoomService;
+import com.offficeVerse.service.RoomStateParticipant;
+import com.offficeVerse.service.RoomWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes sharing a room: changes go through its owner, and its state follows it to the next owner.
+ */
+class RoomHandoffTest {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private static class Node {
+        final LocalBrokerRoomBroadcastBus bus;
+        final OutboundDispatcher outbound = new OutboundDispatcher(new StandardEnvironment());
+        final RoomRegistry rooms = new RoomRegistry(null, new RoomWriteBehind(null, null, null),
+                new JoinCodeAllocator());
+        final RoomShardManager shards;
+        final RoomOwnerRouter router;
+        final ChatSocket chat;
+        final MovementSocket movement;
+
+        Node(String nodeId, LocalRoomBroker broker) {
+            bus = new LocalBrokerRoomBroadcastBus(nodeId, broker);
+            PresenceRegistry presence = new PresenceRegistry(bus);
+            DefaultListableBeanFactory participants = new DefaultListableBeanFactory();
+            shards = new RoomShardManager(bus, rooms, presence,
+                    participants.getBeanProvider(RoomStateParticipant.class), VIRTUAL_NODES);
+            router = new RoomOwnerRouter(new RoomService(null, rooms, new JoinCodeAllocator()), rooms, bus, shards,
+                    2000);
+            chat = new ChatSocket(outbound, null, presence, bus, new SessionResumption(outbound, presence), shards,
+                    rooms, 50);
+            movement = new MovementSocket(outbound, presence,
+                    new PositionService(null, new PositionWriteBehind(null, null, null)), bus);
+            participants.registerSingleton("rooms", rooms);
+            participants.registerSingleton("chat", chat);
+            participants.registerSingleton("movement", movement);
+        }
+
+        WebSocketSession connect(WebSocketHandler socket, String id) throws Exception {
+            WebSocketSession session = TestSessions.session(id, null, new TestSessions.Recorder());
+            socket.afterConnectionEstablished(session);
+            return session;
+        }
+
+        Map<Long, Map<String, Object>> members(Long roomId) {
+            Map<Long, Map<String, Object>> members = new HashMap<>();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> state = (Map<String, Object>) rooms.exportRoom(roomId);
+            if (state != null) {
+                for (Object member : (List<?>) state.get("members")) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = (Map<String, Object>) member;
+                    members.put(((Number) map.get("id")).longValue(), map);
+                }
+            }
+            return members;
+        }
+    }
+
+    private final LocalRoomBroker broker = TestBuses.broker();
+    private final Node a = new Node("node-a", broker);
+    private final Node b = new Node("node-b", broker);
+
+    @AfterEach
+    void shutdown() {
+        a.outbound.shutdown();
+        b.outbound.shutdown();
+    }
+
+    // A room node-a owns while both nodes are up
+    private static Long roomOwnedByA() {
+        RoomShardRing ring = new RoomShardRing(List.of("node-a", "node-b"), VIRTUAL_NODES);
+        long roomId = 1;
+        while (!"node-a".equals(ring.ownerOf(roomId))) {
+            roomId++;
+        }
+        return roomId;
+    }
+
+    private void createRoom(Long roomId) {
+        Map<String, Object> room = new HashMap<>();
+        room.put("name", "Standup");
+        room.put("roomType", "NORMAL");
+        room.put("maxPlayers", 3);
+        room.put("isPrivate", false);
+        room.put("joinCode", "ABC123");
+        room.put("hostId", 1L);
+        room.put("members", List.of());
+        a.rooms.importRoom(roomId, room);
+        a.router.created(roomId);
+    }
+
+    @Test
+    void changesOnAnyNodeAreAppliedByTheOwnerAndCopiedEverywhere() {
+        a.shards.start();
+        b.shards.start();
+        Long roomId = roomOwnedByA();
+        createRoom(roomId);
+        TestBuses.await(() -> b.rooms.get(roomId) != null, "the new room on node-b");
+
+        // node-b's copy is current as soon as the routed call returns
+        assertTrue(b.router.join(roomId, 2L, "Bo"));
+        assertEquals(1, b.members(roomId).size());
+        assertTrue(a.members(roomId).containsKey(2L));
+
+        assertTrue(a.router.join(roomId, 1L, "Ana"));
+        b.router.setReady(roomId, 2L, true);
+        assertEquals(true, a.members(roomId).get(2L).get("ready"));
+        assertEquals(a.members(roomId), b.members(roomId));
+
+        // Only the owner decides that the room is full
+        assertTrue(a.router.join(roomId, 3L, "Cy"));
+        assertFalse(b.router.join(roomId, 4L, "Di"));
+        assertEquals(3, a.members(roomId).size());
+
+        // The last leave removes the room on every node
+        for (long playerId = 1; playerId <= 3; playerId++) {
+            b.router.leave(roomId, playerId);
+        }
+        assertNull(a.rooms.get(roomId));
+        assertNull(b.rooms.get(roomId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drainingNodeHandsMembershipMeetingAndPositionsToTheNewOwner() throws Exception {
+        a.shards.start();
+        b.shards.start();
+        Long roomId = roomOwnedByA();
+        createRoom(roomId);
+        TestBuses.await(() -> b.rooms.get(roomId) != null, "the new room on node-b");
+
+        // Bo plays on node-b and Ana on node-a, which owns the room
+        assertTrue(b.router.join(roomId, 2L, "Bo"));
+        assertTrue(a.router.join(roomId, 1L, "Ana"));
+        WebSocketSession boMoves = b.connect(b.movement, "bo-move");
+        b.movement.handleTextMessage(boMoves, new TextMessage(roomId + ":2:50:60:Bo:0:owlet:walk:1"));
+
+        WebSocketSession anaChat = a.connect(a.chat, "ana-chat");
+        a.chat.handleTextMessage(anaChat, new TextMessage("REGISTER:" + roomId + ":1:Ana"));
+        a.chat.handleTextMessage(anaChat, new TextMessage("MEETING_JOIN:" + roomId + ":1"));
+        // Not ticked yet, so node-b has not heard of Ana's position through the bus
+        WebSocketSession anaMoves = a.connect(a.movement, "ana-move");
+        a.movement.handleTextMessage(anaMoves, new TextMessage(roomId + ":1:10:20:Ana:0:owlet:idle:0"));
+
+        a.shards.drain();
+
+        TestBuses.await(() -> {
+            Map<String, Object> chat = (Map<String, Object>) b.chat.exportRoom(roomId);
+            return chat != null && chat.get("meeting") != null && ((List<?>) chat.get("meeting")).contains(1L);
+        }, "Ana's meeting seat on node-b");
+        TestBuses.await(() -> {
+            b.movement.tick();
+            List<Map<String, Object>> positions = (List<Map<String, Object>>) b.movement.exportRoom(roomId);
+            return positions != null && positions.stream().anyMatch(p -> Long.valueOf(1).equals(p.get("id"))
+                    && Integer.valueOf(10).equals(p.get("x")) && Integer.valueOf(20).equals(p.get("y")));
+        }, "Ana's position on node-b");
+        assertEquals(a.members(roomId).keySet(), b.members(roomId).keySet());
+
+        // Once node-a is gone node-b owns the room and applies changes itself
+        a.bus.close();
+        TestBuses.await(() -> b.shards.owns(roomId), "node-b owning the room");
+        assertTrue(b.router.join(roomId, 3L, "Cy"));
+        assertEquals(3, b.members(roomId).size());
+    }
+}
@@ -0,0 +1,119 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomRosterTest {
+
+    private static final Long ROOM = 7L;
+
+    // What one node delivered to its sessions: "room:" lines with the excluded player, "to N:" lines
+    private static class Node {
+        final LocalBrokerRoomBroadcastBus bus;
+        final RoomRoster roster;
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+
+        Node(String nodeId, LocalRoomBroker broker, String owner) {
+            bus = new LocalBrokerRoomBroadcastBus(nodeId, broker);
+            roster = new RoomRoster(bus, roomId -> owner, new RoomRoster.Delivery() {
+                @Override
+                public void toRoom(Long roomId, String message, Long excludePlayerId) {
+                    delivered.add("room:" + message + (excludePlayerId != null ? " -" + excludePlayerId : ""));
+                }
+
+                @Override
+                public void toPlayer(Long playerId, String message) {
+                    delivered.add("to " + playerId + ":" + message);
+                }
+            });
+            // As ChatSocket wires it
+            bus.subscribe(Channel.CHAT, roster::receive);
+            bus.onMessage(Channel.CHAT, roster::receive);
+            // Both nodes have players in the room
+            bus.updateInterest(ROOM, 1);
+        }
+
+        String last() {
+            return delivered.get(delivered.size() - 1);
+        }
+    }
+
+    private final LocalRoomBroker broker = TestBuses.broker();
+    private final Node owner = new Node("node-a", broker, "node-a");
+    private final Node other = new Node("node-b", broker, "node-a");
+
+    @Test
+    void joinsOnEitherNodeShareOneVersionSequence() {
+        other.roster.join(ROOM, 2L, "Bo");
+        TestBuses.await(() -> other.delivered.size() == 2, "node-b to see its join");
+
+        assertEquals(List.of("room:PLAYER_JOINED:1:2:Bo -2"), owner.delivered);
+        // The joiner's node delivers the line (skipping the joiner) before the joiner's snapshot
+        assertEquals(List.of("room:PLAYER_JOINED:1:2:Bo -2", "to 2:PLAYER_SNAPSHOT:1:2,Bo"), other.delivered);
+
+        owner.roster.join(ROOM, 1L, "Al");
+        TestBuses.await(() -> other.delivered.size() == 3, "node-b to see the second join");
+
+        assertEquals("to 1:PLAYER_SNAPSHOT:2:2,Bo,1,Al", owner.last());
+        assertEquals("room:PLAYER_JOINED:2:1:Al -1", other.last());
+
+        other.roster.leave(ROOM, 2L);
+        TestBuses.await(() -> other.delivered.size() == 4, "node-b to see the leave");
+
+        assertEquals("room:PLAYER_LEFT:3:2", owner.last());
+        assertEquals("room:PLAYER_LEFT:3:2", other.last());
+        other.roster.sendSnapshot(ROOM, 5L);
+        assertEquals("to 5:PLAYER_SNAPSHOT:3:1,Al", other.last());
+    }
+
+    @Test
+    void aNodeThatMissedLinesCatchesUpFromTheOwner() {
+        owner.roster.join(ROOM, 1L, "Al");
+        other.bus.updateInterest(ROOM, 0);
+        owner.roster.join(ROOM, 2L, "Bo");
+        other.bus.updateInterest(ROOM, 1);
+        owner.roster.join(ROOM, 3L, "Cy");
+        TestBuses.await(() -> other.delivered.size() == 2, "node-b to see the first and third join");
+
+        // Version 3 after 1 is a gap; the owner's snapshot fills it in
+        assertEquals("room:PLAYER_JOINED:3:3:Cy -3", other.last());
+        TestBuses.await(() -> {
+            other.roster.sendSnapshot(ROOM, 9L);
+            return other.last().equals("to 9:PLAYER_SNAPSHOT:3:1,Al,2,Bo,3,Cy");
+        }, "node-b's roster to match the owner's");
+    }
+
+    @Test
+    void handoffCarriesTheVersionForward() {
+        owner.roster.join(ROOM, 1L, "Al");
+        owner.roster.join(ROOM, 2L, "Bo");
+        Map<String, Object> exported = owner.roster.export(ROOM);
+
+        Node next = new Node("node-c", broker, "node-c");
+        next.roster.importRoom(ROOM, exported);
+        next.roster.join(ROOM, 3L, "Cy");
+
+        assertEquals("to 3:PLAYER_SNAPSHOT:3:1,Al,2,Bo,3,Cy", next.last());
+        // An older copy never replaces a newer one
+        next.roster.importRoom(ROOM, exported);
+        next.roster.sendSnapshot(ROOM, 4L);
+        assertEquals("to 4:PLAYER_SNAPSHOT:3:1,Al,2,Bo,3,Cy", next.last());
+    }
+
+    @Test
+    void onlyTheOwnerKeepsAForgottenRoom() {
+        owner.roster.join(ROOM, 1L, "Al");
+        TestBuses.await(() -> other.delivered.size() == 1, "node-b to see the join");
+
+        owner.roster.forget(ROOM);
+        other.roster.forget(ROOM);
+
+        assertNotNull(owner.roster.export(ROOM));
+        assertNull(other.roster.export(ROOM));
+    }
+}
@@ -0,0 +1,84 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomShardRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final int ROOMS = 10_000;
+
+    private static Map<String, Integer> load(RoomShardRing ring) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (long room = 1; room <= ROOMS; room++) {
+            counts.merge(ring.ownerOf(room), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertNull(new RoomShardRing(List.of(), VIRTUAL_NODES).ownerOf(1L));
+    }
+
+    @Test
+    void placementDependsOnlyOnMembership() {
+        // Every node builds its own ring from the bus membership, in whatever order it sees it
+        RoomShardRing a = new RoomShardRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        RoomShardRing b = new RoomShardRing(List.of("node-c", "node-a", "node-b"), VIRTUAL_NODES);
+
+        for (long room = 1; room <= ROOMS; room++) {
+            assertEquals(a.ownerOf(room), b.ownerOf(room));
+        }
+    }
+
+    @Test
+    void sequentialRoomsSpreadOverAllNodes() {
+        Map<String, Integer> counts = load(new RoomShardRing(List.of("node-a", "node-b", "node-c", "node-d"),
+                VIRTUAL_NODES));
+
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            // Fair share is 2500; allow the usual virtual-node variance
+            assertTrue(count > 1750 && count < 3250, counts.toString());
+        }
+    }
+
+    @Test
+    void removingANodeMovesOnlyItsRooms() {
+        RoomShardRing before = new RoomShardRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        RoomShardRing after = before.without("node-b", VIRTUAL_NODES);
+
+        assertEquals(List.of("node-a", "node-c"), List.copyOf(after.nodes()));
+        for (long room = 1; room <= ROOMS; room++) {
+            String owner = before.ownerOf(room);
+            if (!owner.equals("node-b")) {
+                assertEquals(owner, after.ownerOf(room));
+            } else {
+                assertNotEquals("node-b", after.ownerOf(room));
+            }
+        }
+    }
+
+    @Test
+    void addingANodeOnlyTakesRoomsOver() {
+        RoomShardRing before = new RoomShardRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        RoomShardRing after = new RoomShardRing(List.of("node-a", "node-b", "node-c", "node-d"), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (long room = 1; room <= ROOMS; room++) {
+            String owner = after.ownerOf(room);
+            if (!owner.equals(before.ownerOf(room))) {
+                assertEquals("node-d", owner);
+                moved++;
+            }
+        }
+        // About a quarter of the rooms should move to the new node, not a reshuffle
+        assertTrue(moved > ROOMS / 8 && moved < ROOMS * 3 / 8, "moved " + moved);
+    }
+}
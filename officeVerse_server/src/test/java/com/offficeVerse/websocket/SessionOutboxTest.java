@@ -0,0 +1,97 @@
+package com.offficeVerse.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionOutboxTest {
+
+    // Drain tasks are held until the test runs them, so the queue can fill up
+    private final List<Runnable> drains = new ArrayList<>();
+    private final TestSessions.Recorder recorder = new TestSessions.Recorder();
+
+    private SessionOutbox outbox(Channel.OverflowPolicy policy, int capacity) {
+        return new SessionOutbox(TestSessions.session("s1", null, recorder), Channel.MOVEMENT, policy, capacity,
+                drains::add);
+    }
+
+    private List<String> drainAll() {
+        new ArrayList<>(drains).forEach(Runnable::run);
+        drains.clear();
+        List<String> payloads = new ArrayList<>();
+        for (WebSocketMessage<?> message : recorder.sent) {
+            payloads.add((String) message.getPayload());
+        }
+        return payloads;
+    }
+
+    @Test
+    void sendsInOrderBelowCapacity() {
+        SessionOutbox outbox = outbox(Channel.OverflowPolicy.DROP_OLDEST, 4);
+        outbox.enqueue(new TextMessage("a"));
+        outbox.enqueue(new TextMessage("b"), true, null);
+
+        assertEquals(List.of("a", "b"), drainAll());
+        assertEquals(0, outbox.droppedCount());
+    }
+
+    @Test
+    void dropOldestDiscardsOnlyDroppableMessages() {
+        SessionOutbox outbox = outbox(Channel.OverflowPolicy.DROP_OLDEST, 3);
+        AtomicInteger dropped = new AtomicInteger();
+        outbox.enqueue(new TextMessage("leave"));
+        outbox.enqueue(new TextMessage("snapshot-1"), true, dropped::incrementAndGet);
+        outbox.enqueue(new TextMessage("snapshot-2"), true, dropped::incrementAndGet);
+        outbox.enqueue(new TextMessage("left"));
+
+        assertEquals(1, dropped.get());
+        assertEquals(1, outbox.droppedCount());
+        assertEquals(List.of("leave", "snapshot-2", "left"), drainAll());
+        assertNull(recorder.closedWith);
+    }
+
+    @Test
+    void dropOldestDiscardsIncomingDroppableWhenQueueHoldsOnlyReliableMessages() {
+        SessionOutbox outbox = outbox(Channel.OverflowPolicy.DROP_OLDEST, 2);
+        AtomicInteger dropped = new AtomicInteger();
+        outbox.enqueue(new TextMessage("leave-1"));
+        outbox.enqueue(new TextMessage("leave-2"));
+        outbox.enqueue(new TextMessage("snapshot"), true, dropped::incrementAndGet);
+
+        assertEquals(1, dropped.get());
+        assertEquals(List.of("leave-1", "leave-2"), drainAll());
+        assertNull(recorder.closedWith);
+    }
+
+    @Test
+    void dropOldestDisconnectsWhenReliableMessageCannotBeQueued() {
+        SessionOutbox outbox = outbox(Channel.OverflowPolicy.DROP_OLDEST, 2);
+        outbox.enqueue(new TextMessage("leave-1"));
+        outbox.enqueue(new TextMessage("leave-2"));
+        outbox.enqueue(new TextMessage("leave-3"));
+
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE, recorder.closedWith);
+        assertTrue(drainAll().isEmpty());
+    }
+
+    @Test
+    void disconnectPolicyClosesOnOverflowEvenForDroppableMessages() {
+        SessionOutbox outbox = outbox(Channel.OverflowPolicy.DISCONNECT, 1);
+        AtomicInteger dropped = new AtomicInteger();
+        outbox.enqueue(new TextMessage("a"), true, dropped::incrementAndGet);
+        outbox.enqueue(new TextMessage("b"), true, dropped::incrementAndGet);
+
+        assertEquals(0, dropped.get());
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE, recorder.closedWith);
+
+        outbox.enqueue(new TextMessage("c"));
+        assertTrue(drainAll().isEmpty());
+    }
+}
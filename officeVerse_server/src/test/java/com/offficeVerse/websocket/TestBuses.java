@@ -0,0 +1,30 @@
+package com.offficeVerse.websocket;
+
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Nodes on a private {@link LocalRoomBroker}, and waiting for their asynchronous deliveries.
+ */
+class TestBuses {
+
+    // Brokers are shared by name across the JVM, so every test gets its own
+    static LocalRoomBroker broker() {
+        return LocalRoomBroker.named("test-" + UUID.randomUUID());
+    }
+
+    static void await(BooleanSupplier condition, String what) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for " + what);
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted waiting for " + what);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.offficeVerse.websocket;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory WebSocketSession for unit tests: records what is sent and whether it was closed.
+ */
+class TestSessions {
+
+    static class Recorder {
+        // Written by the outbound writer threads
+        final List<WebSocketMessage<?>> sent = Collections.synchronizedList(new ArrayList<>());
+        CloseStatus closedWith;
+        boolean open = true;
+    }
+
+    static WebSocketSession session(String id, String protocol, Recorder recorder) {
+        Map<String, Object> attributes = new HashMap<>();
+        return (WebSocketSession) Proxy.newProxyInstance(WebSocketSession.class.getClassLoader(),
+                new Class<?>[] { WebSocketSession.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return id;
+                        case "getAcceptedProtocol":
+                            return protocol;
+                        case "getAttributes":
+                            return attributes;
+                        case "isOpen":
+                            return recorder.open;
+                        case "sendMessage":
+                            recorder.sent.add((WebSocketMessage<?>) args[0]);
+                            return null;
+                        case "close":
+                            recorder.open = false;
+                            recorder.closedWith = args != null && args.length > 0 ? (CloseStatus) args[0] : CloseStatus.NORMAL;
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "TestSession[" + id + "]";
+                        default:
+                            return null;
+                    }
+                });
+    }
+}